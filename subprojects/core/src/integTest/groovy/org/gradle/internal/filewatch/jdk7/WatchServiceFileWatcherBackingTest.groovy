@@ -151,6 +151,83 @@ class WatchServiceFileWatcherBackingTest extends AbstractFileWatcherTest {
         testScenario << [SIBLING_EXISTS_INITIALLY, SIBLINGS_PARENT_EXISTS_INITIALLY, SIBLING_NOT_EXISTING_INITIALLY]
     }
 
+    def "registers watches on a worker thread when requested"() {
+        given:
+        def watchService = FileSystems.getDefault().newWatchService()
+        def release = new CountDownLatch(1)
+        def registeringThreads = [].asSynchronized()
+        def watchServiceRegistrar = new WatchServiceRegistrar(watchService, Mock(FileWatcherListener), fileSystem) {
+            @Override
+            void watch(FileSystemSubset fileSystemSubset) throws IOException {
+                registeringThreads.add(Thread.currentThread())
+                release.await()
+            }
+        }
+        def fileWatcher = new WatchServiceFileWatcherBacking(onError, Mock(FileWatcherListener), watchService, watchServiceRegistrar, true).start(executorService)
+
+        when:
+        fileWatcher.watch(FileSystemSubset.builder().add(testDir.file("a")).build())
+        fileWatcher.watch(FileSystemSubset.builder().add(testDir.file("b")).build())
+        release.countDown()
+        fileWatcher.awaitRegistrations()
+
+        then:
+        registeringThreads.size() == 2
+        !registeringThreads.contains(Thread.currentThread())
+
+        cleanup:
+        fileWatcher.stop()
+    }
+
+    def "reports changes made before the watches are registered on a worker thread"() {
+        given:
+        def watchService = FileSystems.getDefault().newWatchService()
+        def listener = Mock(FileWatcherListener)
+        def dir = testDir.createDir("src")
+        def file = dir.file("a.txt").createFile()
+        [file, dir].each { it.setLastModified(System.currentTimeMillis() - 10000) }
+        def watchServiceRegistrar = new WatchServiceRegistrar(watchService, listener, fileSystem) {
+            @Override
+            void watch(FileSystemSubset fileSystemSubset) throws IOException {
+                // The file changes after it was queued for watching, but before the watch is registered
+                file.text = "changed"
+                super.watch(fileSystemSubset)
+            }
+        }
+        def fileWatcher = new WatchServiceFileWatcherBacking(onError, listener, watchService, watchServiceRegistrar, true).start(executorService)
+
+        when:
+        fileWatcher.watch(FileSystemSubset.builder().add(dir).build())
+        fileWatcher.awaitRegistrations()
+
+        then:
+        (1.._) * listener.onChange(_, { it.type == FileWatcherEvent.Type.MODIFY && it.file == file })
+
+        cleanup:
+        fileWatcher.stop()
+    }
+
+    def "does not report a change when nothing changed before the watches are registered on a worker thread"() {
+        given:
+        def watchService = FileSystems.getDefault().newWatchService()
+        def listener = Mock(FileWatcherListener)
+        def dir = testDir.createDir("src")
+        def file = dir.file("a.txt").createFile()
+        [file, dir].each { it.setLastModified(System.currentTimeMillis() - 10000) }
+        def watchServiceRegistrar = new WatchServiceRegistrar(watchService, listener, fileSystem)
+        def fileWatcher = new WatchServiceFileWatcherBacking(onError, listener, watchService, watchServiceRegistrar, true).start(executorService)
+
+        when:
+        fileWatcher.watch(FileSystemSubset.builder().add(dir).build())
+        fileWatcher.awaitRegistrations()
+
+        then:
+        0 * listener.onChange(_, _)
+
+        cleanup:
+        fileWatcher.stop()
+    }
+
     def "a stopped filewatcher shouldn't get started"() {
         given:
         def fileSystemSubset = FileSystemSubset.builder().build()
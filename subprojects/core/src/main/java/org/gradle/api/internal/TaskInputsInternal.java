@@ -17,9 +17,20 @@
 package org.gradle.api.internal;
 
 import com.google.common.collect.ImmutableSortedSet;
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.changedetection.TaskArtifactState;
 import org.gradle.api.internal.tasks.TaskInputFilePropertySpec;
 import org.gradle.api.tasks.TaskInputs;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 
 public interface TaskInputsInternal extends TaskInputs {
     ImmutableSortedSet<TaskInputFilePropertySpec> getFileProperties();
+
+    /**
+     * Returns the changes to the input files since the previous execution of the task, as passed to incremental task actions.
+     * Only available while the task is executing.
+     */
+    IncrementalTaskInputs getInputChanges();
+
+    void setTaskArtifactState(@Nullable TaskArtifactState taskArtifactState);
 }
@@ -15,16 +15,21 @@
  */
 package org.gradle.api.internal.changedetection.state;
 
+import com.google.common.base.Charsets;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
+import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.caching.internal.BuildCacheHasher;
 import org.gradle.internal.IoActions;
 import org.gradle.util.DeprecationLogger;
 import org.objectweb.asm.ClassReader;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -32,10 +37,35 @@ import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.zip.ZipEntry;
 
+/**
+ * Hashes the ABI of class files.
+ *
+ * <p>ABI hashes are cached by the content hash of the class file, so a class that did not change is not extracted again when the jar or directory
+ * containing it was rebuilt, or when another project or build has the same class on its compile classpath.</p>
+ */
 public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
-    private HashCode hashClassBytes(InputStream inputStream) throws IOException {
+    private static final HashCode NO_ABI = Hashing.md5().hashString(AbiExtractingClasspathResourceHasher.class.getName() + " : no ABI", Charsets.UTF_8);
+
+    private final PersistentIndexedCache<HashCode, HashCode> abiHashes;
+    private final FileHasher contentHasher;
+
+    public AbiExtractingClasspathResourceHasher(PersistentIndexedCache<HashCode, HashCode> abiHashes, FileHasher contentHasher) {
+        this.abiHashes = abiHashes;
+        this.contentHasher = contentHasher;
+    }
+
+    @Nullable
+    private HashCode hashClassBytes(HashCode contentHash, byte[] classBytes) {
+        HashCode abiHash = abiHashes.get(contentHash);
+        if (abiHash == null) {
+            abiHash = extractAbiHash(classBytes);
+            abiHashes.put(contentHash, abiHash);
+        }
+        return abiHash.equals(NO_ABI) ? null : abiHash;
+    }
+
+    private HashCode extractAbiHash(byte[] classBytes) {
         // Use the ABI as the hash
-        byte[] classBytes = ByteStreams.toByteArray(inputStream);
         ApiClassExtractor extractor = new ApiClassExtractor(Collections.<String>emptySet());
         ClassReader reader = new ClassReader(classBytes);
         if (extractor.shouldExtractApiClassFrom(reader)) {
@@ -46,7 +76,7 @@ public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
                 return hasher.hash();
             }
         }
-        return null;
+        return NO_ABI;
     }
 
     @Override
@@ -55,16 +85,22 @@ public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
         if (!isClassFile(name)) {
             return null;
         }
-        InputStream inputStream = null;
-        try {
-            inputStream = Files.newInputStream(Paths.get(fileSnapshot.getPath()));
-            return hashClassBytes(inputStream);
-        } catch (Exception e) {
-            DeprecationLogger.nagUserWith("Malformed class file [" + name + "] found on compile classpath, which means that this class will cause a compile error if referenced in a source file. Gradle 5.0 will no longer allow malformed classes on compile classpath.");
-            return fileSnapshot.getContent().getContentMd5();
-        } finally {
-            IoActions.closeQuietly(inputStream);
+        HashCode contentHash = fileSnapshot.getContent().getContentMd5();
+        HashCode abiHash = abiHashes.get(contentHash);
+        if (abiHash == null) {
+            InputStream inputStream = null;
+            try {
+                inputStream = Files.newInputStream(Paths.get(fileSnapshot.getPath()));
+                abiHash = extractAbiHash(ByteStreams.toByteArray(inputStream));
+            } catch (Exception e) {
+                DeprecationLogger.nagUserWith("Malformed class file [" + name + "] found on compile classpath, which means that this class will cause a compile error if referenced in a source file. Gradle 5.0 will no longer allow malformed classes on compile classpath.");
+                return contentHash;
+            } finally {
+                IoActions.closeQuietly(inputStream);
+            }
+            abiHashes.put(contentHash, abiHash);
         }
+        return abiHash.equals(NO_ABI) ? null : abiHash;
     }
 
     @Override
@@ -72,7 +108,8 @@ public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
         if (!isClassFile(zipEntry.getName())) {
             return null;
         }
-        return hashClassBytes(zipInput);
+        byte[] classBytes = ByteStreams.toByteArray(zipInput);
+        return hashClassBytes(contentHasher.hash(new ByteArrayInputStream(classBytes)), classBytes);
     }
 
     private boolean isClassFile(String name) {
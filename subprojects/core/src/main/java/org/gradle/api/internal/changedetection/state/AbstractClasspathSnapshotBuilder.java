@@ -79,12 +79,21 @@ public abstract class AbstractClasspathSnapshotBuilder extends FileCollectionSna
     }
 
     private void visitJar(RegularFileSnapshot jarFile) {
-        HashCode hash = cacheService.hashFile(jarFile, jarHasher, jarHasherConfigurationHash);
+        HashCode hash = hashJar(jarFile);
         if (hash != null) {
             collectFileSnapshot(jarFile.withContentHash(hash));
         }
     }
 
+    /**
+     * Hashes the contents of the given jar, or returns the cached result. Can be called from several threads at once, so callers can hash the jars of
+     * a classpath up front, before the snapshot is built.
+     */
+    @Nullable
+    public HashCode hashJar(RegularFileSnapshot jarFile) {
+        return cacheService.hashFile(jarFile, jarHasher, jarHasherConfigurationHash);
+    }
+
     private class JarHasher implements RegularFileHasher, ConfigurableNormalizer {
         @Nullable
         @Override
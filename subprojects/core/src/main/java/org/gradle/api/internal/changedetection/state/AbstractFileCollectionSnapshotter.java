@@ -56,6 +56,10 @@ public abstract class AbstractFileCollectionSnapshotter implements FileCollectio
         return stringInterner;
     }
 
+    protected FileSystemSnapshotter getFileSystemSnapshotter() {
+        return fileSystemSnapshotter;
+    }
+
     private class FileCollectionVisitorImpl implements FileCollectionVisitor {
         private final FileSnapshotVisitor fileSnapshotVisitor;
 
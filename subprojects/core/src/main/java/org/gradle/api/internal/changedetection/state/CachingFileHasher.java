@@ -20,6 +20,7 @@ import com.google.common.base.Objects;
 import com.google.common.hash.HashCode;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.ExpandableFileTreeElement;
 import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.internal.nativeintegration.filesystem.FileMetadataSnapshot;
@@ -74,6 +75,10 @@ public class CachingFileHasher implements FileHasher {
 
     @Override
     public HashCode hash(FileTreeElement fileDetails) {
+        if (fileDetails instanceof ExpandableFileTreeElement) {
+            // Hash the content directly rather than expanding it, the hashes are not cached as there is no file to check for changes
+            return delegate.hash(fileDetails.open());
+        }
         return snapshot(fileDetails).getHash();
     }
 
@@ -19,23 +19,77 @@ package org.gradle.api.internal.changedetection.state;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.internal.FileUtils;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.ParallelismConfigurationManager;
+import org.gradle.internal.nativeintegration.filesystem.FileType;
 import org.gradle.normalization.internal.InputNormalizationStrategy;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshots a compile classpath by the ABI of the classes on it.
+ *
+ * <p>When {@value #PARALLEL_SNAPSHOTTING_PROPERTY} is set, the jars on the classpath are hashed by up to max-workers threads before the
+ * snapshot is built in classpath order.</p>
+ */
 public class DefaultCompileClasspathSnapshotter extends AbstractFileCollectionSnapshotter implements CompileClasspathSnapshotter {
+    public static final String PARALLEL_SNAPSHOTTING_PROPERTY = "org.gradle.internal.compile.classpath.parallelSnapshotting";
+
     private final ResourceHasher classpathResourceHasher;
     private final ResourceSnapshotterCacheService cacheService;
+    private final ExecutorFactory executorFactory;
+    private final ParallelismConfigurationManager parallelismConfigurationManager;
 
-    public DefaultCompileClasspathSnapshotter(ResourceSnapshotterCacheService cacheService, DirectoryFileTreeFactory directoryFileTreeFactory, FileSystemSnapshotter fileSystemSnapshotter, StringInterner stringInterner) {
+    public DefaultCompileClasspathSnapshotter(ResourceSnapshotterCacheService cacheService, AbiExtractingClasspathResourceHasher abiHasher, DirectoryFileTreeFactory directoryFileTreeFactory, FileSystemSnapshotter fileSystemSnapshotter, StringInterner stringInterner,
+                                              ExecutorFactory executorFactory, ParallelismConfigurationManager parallelismConfigurationManager) {
         super(stringInterner, directoryFileTreeFactory, fileSystemSnapshotter);
         this.cacheService = cacheService;
-        this.classpathResourceHasher = new CachingResourceHasher(new AbiExtractingClasspathResourceHasher(), cacheService);
+        this.classpathResourceHasher = new CachingResourceHasher(abiHasher, cacheService);
+        this.executorFactory = executorFactory;
+        this.parallelismConfigurationManager = parallelismConfigurationManager;
     }
 
     @Override
     public FileCollectionSnapshot snapshot(FileCollection files, SnapshotNormalizationStrategy snapshotNormalizationStrategy, InputNormalizationStrategy normalizationStrategy) {
-        return super.snapshot(
-            files,
-            new CompileClasspathSnapshotBuilder(classpathResourceHasher, cacheService, getStringInterner()));
+        CompileClasspathSnapshotBuilder builder = new CompileClasspathSnapshotBuilder(classpathResourceHasher, cacheService, getStringInterner());
+        int maxThreads = parallelismConfigurationManager.getParallelismConfiguration().getMaxWorkerCount();
+        if (Boolean.getBoolean(PARALLEL_SNAPSHOTTING_PROPERTY) && maxThreads > 1) {
+            hashJars(files, builder, maxThreads);
+        }
+        return super.snapshot(files, builder);
+    }
+
+    private void hashJars(FileCollection files, final CompileClasspathSnapshotBuilder builder, int maxThreads) {
+        List<RegularFileSnapshot> jars = new ArrayList<RegularFileSnapshot>();
+        for (File file : files) {
+            if (FileUtils.isJar(file.getName())) {
+                FileSnapshot fileSnapshot = getFileSystemSnapshotter().snapshotSelf(file);
+                if (fileSnapshot.getType() == FileType.RegularFile) {
+                    jars.add((RegularFileSnapshot) fileSnapshot);
+                }
+            }
+        }
+        if (jars.size() < 2) {
+            return;
+        }
+        ManagedExecutor executor = executorFactory.create("Compile classpath snapshotting", Math.min(maxThreads, jars.size()));
+        try {
+            for (final RegularFileSnapshot jar : jars) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        builder.hashJar(jar);
+                    }
+                });
+            }
+        } finally {
+            // Waits for all jars to be hashed and rethrows any failure
+            executor.stop();
+        }
     }
 
     @Override
@@ -24,6 +24,7 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.ExpandableFileTreeElement;
 import org.gradle.api.internal.file.FileTreeInternal;
 import org.gradle.api.internal.file.collections.DirectoryFileTree;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
@@ -216,12 +217,20 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
 
         @Override
         public void visitDir(FileVisitDetails dirDetails) {
-            fileTreeElements.add(new DirectoryFileSnapshot(getPath(dirDetails.getFile()), dirDetails.getRelativePath(), false));
+            fileTreeElements.add(new DirectoryFileSnapshot(pathOf(dirDetails), dirDetails.getRelativePath(), false));
         }
 
         @Override
         public void visitFile(FileVisitDetails fileDetails) {
-            fileTreeElements.add(new RegularFileSnapshot(getPath(fileDetails.getFile()), fileDetails.getRelativePath(), false, fileSnapshot(fileDetails)));
+            fileTreeElements.add(new RegularFileSnapshot(pathOf(fileDetails), fileDetails.getRelativePath(), false, fileSnapshot(fileDetails)));
+        }
+
+        private String pathOf(FileVisitDetails details) {
+            if (details instanceof ExpandableFileTreeElement) {
+                // Don't expand archive entries only to get their path
+                return getPath(((ExpandableFileTreeElement) details).getExpandedFile());
+            }
+            return getPath(details.getFile());
         }
     }
 }
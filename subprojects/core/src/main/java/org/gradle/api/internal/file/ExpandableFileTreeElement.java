@@ -0,0 +1,32 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file;
+
+import org.gradle.api.file.FileTreeElement;
+
+import java.io.File;
+
+/**
+ * A {@link FileTreeElement} whose content is read from an archive, and which is only expanded to the file system when {@link #getFile()} is called.
+ * Its content can be read using {@link #open()} any number of times, without expanding it.
+ */
+public interface ExpandableFileTreeElement extends FileTreeElement {
+    /**
+     * Returns the file that this element is expanded to by {@link #getFile()}, without expanding it.
+     */
+    File getExpandedFile();
+}
@@ -0,0 +1,615 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.apache.commons.io.IOUtils;
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.Zip64RequiredException;
+import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.DefaultFileCopyDetails;
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.bundling.Zip;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.gradle.api.internal.file.archive.ZipCopyAction.CONSTANT_TIME_FOR_ZIP_ENTRIES;
+
+/**
+ * Creates a ZIP file like {@link ZipCopyAction} does, but compresses the entries concurrently.
+ *
+ * <p>The content of each file is read in the order the files are visited and compressed by a worker thread. The compressed entries are then written in
+ * that same order, so the resulting archive is the same regardless of the number of workers. The amount of content waiting to be written is bounded,
+ * and large files are compressed to a temporary file instead of being held in memory. Large regular files are also read by the worker thread, whereas
+ * other content is compressed by the visiting thread once it turns out to be too large to hold in memory.</p>
+ *
+ * <p>Files from a ZIP file tree which are copied unchanged, and which are compressed with the same method as the entries of the archive being created,
+ * are copied without being decompressed and compressed again.</p>
+ *
+ * <p>When updating a previously created archive, the compressed content of its entries is reused for the files which have not changed. A file is
+ * considered unchanged when it is not one of the given changed files, is copied without filters, and has the same size and CRC as the entry with the
+ * same path in the previous archive.</p>
+ */
+public class ParallelZipCopyAction implements CopyAction {
+    public static final String PARALLEL_ZIP_PROPERTY = "org.gradle.internal.archives.parallelZip";
+    public static final String INCREMENTAL_ZIP_PROPERTY = "org.gradle.internal.archives.incrementalZip";
+    private static final long MAX_PENDING_BYTES = 64L * 1024 * 1024;
+    private static final long MAX_BUFFERED_ENTRY_SIZE = 16L * 1024 * 1024;
+
+    private final File zipFile;
+    private final File temporaryDir;
+    private final int entryCompressionMethod;
+    private final boolean allowZip64;
+    private final DocumentationRegistry documentationRegistry;
+    private final String encoding;
+    private final boolean preserveFileTimestamps;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkers;
+    private final Set<File> changedFiles;
+
+    public ParallelZipCopyAction(File zipFile, File temporaryDir, int entryCompressionMethod, boolean allowZip64, DocumentationRegistry documentationRegistry, @Nullable String encoding,
+                                 boolean preserveFileTimestamps, ExecutorFactory executorFactory, int maxWorkers) {
+        this(zipFile, temporaryDir, entryCompressionMethod, allowZip64, documentationRegistry, encoding, preserveFileTimestamps, executorFactory, maxWorkers, null);
+    }
+
+    /**
+     * @param temporaryDir The directory to write the content of large entries and the previous archive to while the archive is created.
+     * @param changedFiles The source files which have changed since the archive was last created, or null when the previous archive should not be reused.
+     */
+    public ParallelZipCopyAction(File zipFile, File temporaryDir, int entryCompressionMethod, boolean allowZip64, DocumentationRegistry documentationRegistry, @Nullable String encoding,
+                                 boolean preserveFileTimestamps, ExecutorFactory executorFactory, int maxWorkers, @Nullable Set<File> changedFiles) {
+        this.zipFile = zipFile;
+        this.temporaryDir = temporaryDir;
+        this.entryCompressionMethod = entryCompressionMethod;
+        this.allowZip64 = allowZip64;
+        this.documentationRegistry = documentationRegistry;
+        this.encoding = encoding;
+        this.preserveFileTimestamps = preserveFileTimestamps;
+        this.executorFactory = executorFactory;
+        this.maxWorkers = maxWorkers;
+        this.changedFiles = changedFiles;
+    }
+
+    public WorkResult execute(CopyActionProcessingStream stream) {
+        Charset charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+        File previousZipFile = changedFiles == null ? null : moveAsidePreviousArchive();
+        ZipEntryLocator previousArchive = null;
+        ZipArchiveWriter writer;
+        try {
+            if (previousZipFile != null) {
+                previousArchive = new ZipEntryLocator(previousZipFile);
+            }
+            writer = new ZipArchiveWriter(zipFile, charset, allowZip64);
+        } catch (Exception e) {
+            IOUtils.closeQuietly(previousArchive);
+            deletePreviousArchive(previousZipFile);
+            throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
+        }
+
+        try {
+            ManagedExecutor executor = executorFactory.create("Compress entries of " + zipFile.getName(), maxWorkers);
+            StreamAction action = new StreamAction(writer, executor, charset, previousArchive);
+            boolean completed = false;
+            try {
+                stream.process(action);
+                action.writePendingEntries(true);
+                completed = true;
+            } finally {
+                action.discardPendingEntries();
+                executor.stop();
+                action.closeLocators();
+                IOUtils.closeQuietly(previousArchive);
+                deletePreviousArchive(previousZipFile);
+                if (!completed) {
+                    IOUtils.closeQuietly(writer);
+                }
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof Zip64RequiredException) {
+                throw new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
+                        String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getCause().getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
+                );
+            }
+            throw e;
+        }
+
+        return new SimpleWorkResult(true);
+    }
+
+    @Nullable
+    private File moveAsidePreviousArchive() {
+        if (!zipFile.isFile()) {
+            return null;
+        }
+        // Keep the previous archive in the temporary directory, so that it is not left next to the output when the build is killed
+        File previousZipFile = new File(temporaryDir, zipFile.getName() + ".previous");
+        if (previousZipFile.exists() && !previousZipFile.delete()) {
+            return null;
+        }
+        return zipFile.renameTo(previousZipFile) ? previousZipFile : null;
+    }
+
+    private static void deletePreviousArchive(@Nullable File previousZipFile) {
+        if (previousZipFile != null) {
+            previousZipFile.delete();
+        }
+    }
+
+    private long getArchiveTimeFor(FileCopyDetails details) {
+        return preserveFileTimestamps ? details.getLastModified() : CONSTANT_TIME_FOR_ZIP_ENTRIES;
+    }
+
+    private class StreamAction implements CopyActionProcessingStreamAction {
+        private final ZipArchiveWriter writer;
+        private final ManagedExecutor executor;
+        private final Charset charset;
+        private final ZipEntryLocator previousArchive;
+        private final Deque<PendingEntry> pendingEntries = new ArrayDeque<PendingEntry>();
+        private final Map<File, ZipEntryLocator> locators = new HashMap<File, ZipEntryLocator>();
+        private long pendingBytes;
+
+        public StreamAction(ZipArchiveWriter writer, ManagedExecutor executor, Charset charset, @Nullable ZipEntryLocator previousArchive) {
+            this.writer = writer;
+            this.executor = executor;
+            this.charset = charset;
+            this.previousArchive = previousArchive;
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            try {
+                if (details.isDirectory()) {
+                    visitDir(details);
+                } else {
+                    visitFile(details);
+                }
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", details, zipFile), e);
+            }
+            writePendingEntries(false);
+        }
+
+        private void visitDir(FileCopyDetails dirDetails) {
+            // Trailing slash in name indicates that entry is a directory
+            String name = dirDetails.getRelativePath().getPathString() + '/';
+            CompressedContent content = new BufferedContent(ZipArchiveWriter.STORED, 0, 0, new byte[0]);
+            addEntry(new PendingEntry(dirDetails, name, getArchiveTimeFor(dirDetails), UnixStat.DIR_FLAG | dirDetails.getMode(), true, Futures.immediateFuture(content), 0));
+        }
+
+        private void visitFile(final FileCopyDetailsInternal fileDetails) throws IOException {
+            String name = fileDetails.getRelativePath().getPathString();
+            long time = getArchiveTimeFor(fileDetails);
+            int unixMode = UnixStat.FILE_FLAG | fileDetails.getMode();
+
+            FileVisitDetails source = fileDetails instanceof DefaultFileCopyDetails ? ((DefaultFileCopyDetails) fileDetails).getUnmodifiedSource() : null;
+            CompressedContent reusableContent = null;
+            if (source instanceof ZipEntryDetails) {
+                reusableContent = rawContentOf((ZipEntryDetails) source);
+            } else if (source instanceof DefaultFileVisitDetails && previousArchive != null && !changedFiles.contains(source.getFile())) {
+                reusableContent = previousContentOf(name, source.getFile());
+            }
+            if (reusableContent != null) {
+                addEntry(new PendingEntry(fileDetails, name, time, unixMode, false, Futures.immediateFuture(reusableContent), 0));
+                return;
+            }
+            if (source instanceof DefaultFileVisitDetails && source.getSize() > MAX_BUFFERED_ENTRY_SIZE) {
+                // Regular files can be read from any thread, so read and compress large ones on a worker thread
+                Future<CompressedContent> compressed = executor.submit(new Callable<CompressedContent>() {
+                    @Override
+                    public CompressedContent call() throws IOException {
+                        return compressToTemporaryFile(fileDetails);
+                    }
+                });
+                addEntry(new PendingEntry(fileDetails, name, time, unixMode, false, compressed, source.getSize()));
+                return;
+            }
+
+            // Other content, such as filtered files and the entries of an archive, may only be readable while visiting it
+            SpillingOutputStream content = new SpillingOutputStream();
+            try {
+                fileDetails.copyTo(content);
+            } catch (RuntimeException e) {
+                content.discard();
+                throw e;
+            }
+            if (content.spilled != null) {
+                CompressedContent compressed = content.spilled.finish();
+                addEntry(new PendingEntry(fileDetails, name, time, unixMode, false, Futures.immediateFuture(compressed), compressed.size));
+                return;
+            }
+            byte[] bytes = content.buffer.toByteArray();
+            Future<CompressedContent> compressed = executor.submit(new CompressContent(bytes, entryCompressionMethod));
+            addEntry(new PendingEntry(fileDetails, name, time, unixMode, false, compressed, bytes.length));
+        }
+
+        @Nullable
+        private CompressedContent rawContentOf(ZipEntryDetails source) {
+            ZipEntryLocator locator = locatorFor(source.getZipFile());
+            if (locator == null) {
+                return null;
+            }
+            ZipEntryLocator.LocatedEntry entry = locator.findEntry(source.getZipEntry());
+            if (entry == null || entry.encrypted || entry.method != entryCompressionMethod) {
+                return null;
+            }
+            return new RawZipEntryContent(locator, entry);
+        }
+
+        @Nullable
+        private CompressedContent previousContentOf(String name, File sourceFile) throws IOException {
+            ZipEntryLocator.LocatedEntry entry = previousArchive.findEntry(name.getBytes(charset));
+            if (entry == null || entry.encrypted || entry.method != entryCompressionMethod || entry.size != sourceFile.length()) {
+                return null;
+            }
+            // Only reuse the entry when it was created from the same content, as the copy spec may map a different file to this path now
+            CRC32 crc = new CRC32();
+            InputStream inputStream = new FileInputStream(sourceFile);
+            try {
+                byte[] buffer = new byte[8192];
+                int count;
+                while ((count = inputStream.read(buffer)) > 0) {
+                    crc.update(buffer, 0, count);
+                }
+            } finally {
+                inputStream.close();
+            }
+            return crc.getValue() == entry.crc ? new RawZipEntryContent(previousArchive, entry) : null;
+        }
+
+        @Nullable
+        private ZipEntryLocator locatorFor(File sourceZipFile) {
+            if (!locators.containsKey(sourceZipFile)) {
+                ZipEntryLocator locator;
+                try {
+                    locator = new ZipEntryLocator(sourceZipFile);
+                } catch (IOException e) {
+                    // Fall back to decompressing the entries of this file
+                    locator = null;
+                }
+                locators.put(sourceZipFile, locator);
+            }
+            return locators.get(sourceZipFile);
+        }
+
+        private CompressedContent compressToTemporaryFile(FileCopyDetails fileDetails) throws IOException {
+            TemporaryFileOutputStream outputStream = new TemporaryFileOutputStream();
+            try {
+                fileDetails.copyTo(outputStream);
+            } catch (RuntimeException e) {
+                outputStream.discard();
+                throw e;
+            }
+            return outputStream.finish();
+        }
+
+        private void addEntry(PendingEntry entry) {
+            pendingEntries.add(entry);
+            pendingBytes += entry.pendingBytes;
+        }
+
+        /**
+         * Writes the entries at the head of the queue which have been compressed, waiting for more of them while too much content is pending.
+         */
+        void writePendingEntries(boolean all) {
+            while (!pendingEntries.isEmpty() && (all || pendingBytes > MAX_PENDING_BYTES || pendingEntries.peek().content.isDone())) {
+                PendingEntry entry = pendingEntries.poll();
+                pendingBytes -= entry.pendingBytes;
+                write(entry);
+            }
+        }
+
+        private void write(PendingEntry entry) {
+            try {
+                CompressedContent content;
+                try {
+                    content = Uninterruptibles.getUninterruptibly(entry.content);
+                } catch (ExecutionException e) {
+                    throw UncheckedException.throwAsUncheckedException(e.getCause());
+                }
+                try {
+                    InputStream inputStream = content.open();
+                    try {
+                        writer.writeEntry(entry.name, entry.time, entry.unixMode, entry.directory, content.method, content.crc, content.size, content.compressedSize, inputStream);
+                    } finally {
+                        inputStream.close();
+                    }
+                } finally {
+                    content.release();
+                }
+            } catch (Zip64RequiredException e) {
+                throw new UncheckedIOException(e);
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", entry.details, zipFile), e);
+            }
+        }
+
+        void discardPendingEntries() {
+            for (PendingEntry entry : pendingEntries) {
+                if (!entry.content.cancel(false)) {
+                    // Already compressed or still being compressed, so wait for the content in order to release it
+                    try {
+                        Uninterruptibles.getUninterruptibly(entry.content).release();
+                    } catch (Exception e) {
+                        // Ignore, the failure of the entry is not the cause of the discard
+                    }
+                }
+            }
+            pendingEntries.clear();
+            pendingBytes = 0;
+        }
+
+        void closeLocators() {
+            for (ZipEntryLocator locator : locators.values()) {
+                IOUtils.closeQuietly(locator);
+            }
+            locators.clear();
+        }
+    }
+
+    /**
+     * Holds the content written to it in memory, until it grows too large to hold in memory. The content is then compressed into a temporary
+     * file instead.
+     */
+    private class SpillingOutputStream extends OutputStream {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        TemporaryFileOutputStream spilled;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (spilled == null && buffer.size() + length > MAX_BUFFERED_ENTRY_SIZE) {
+                spilled = new TemporaryFileOutputStream();
+                buffer.writeTo(spilled);
+                buffer = null;
+            }
+            if (spilled != null) {
+                spilled.write(bytes, offset, length);
+            } else {
+                buffer.write(bytes, offset, length);
+            }
+        }
+
+        void discard() {
+            if (spilled != null) {
+                spilled.discard();
+            }
+        }
+    }
+
+    /**
+     * Compresses the content written to it into a temporary file.
+     */
+    private class TemporaryFileOutputStream extends OutputStream {
+        private final File file;
+        private final CRC32 crc = new CRC32();
+        private final Deflater deflater;
+        private final OutputStream outputStream;
+
+        TemporaryFileOutputStream() throws IOException {
+            file = File.createTempFile(zipFile.getName(), ".entry", temporaryDir);
+            deflater = entryCompressionMethod == ZipArchiveWriter.DEFLATED ? new Deflater(Deflater.DEFAULT_COMPRESSION, true) : null;
+            OutputStream fileStream;
+            try {
+                fileStream = new BufferedOutputStream(new FileOutputStream(file));
+            } catch (IOException e) {
+                discard();
+                throw e;
+            }
+            outputStream = new CheckedOutputStream(deflater == null ? fileStream : new DeflaterOutputStream(fileStream, deflater), crc);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            outputStream.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            outputStream.write(bytes, offset, length);
+        }
+
+        /**
+         * Completes the content, and returns it. The temporary file is deleted when the content is released.
+         */
+        CompressedContent finish() throws IOException {
+            try {
+                outputStream.close();
+                long size = deflater == null ? file.length() : deflater.getBytesRead();
+                CompressedContent content = new TemporaryFileContent(entryCompressionMethod, crc.getValue(), size, file);
+                if (deflater != null) {
+                    deflater.end();
+                }
+                return content;
+            } catch (IOException e) {
+                discard();
+                throw e;
+            }
+        }
+
+        void discard() {
+            IOUtils.closeQuietly(outputStream);
+            if (deflater != null) {
+                deflater.end();
+            }
+            file.delete();
+        }
+    }
+
+    private static class PendingEntry {
+        final FileCopyDetails details;
+        final String name;
+        final long time;
+        final int unixMode;
+        final boolean directory;
+        final Future<CompressedContent> content;
+        final long pendingBytes;
+
+        PendingEntry(FileCopyDetails details, String name, long time, int unixMode, boolean directory, Future<CompressedContent> content, long pendingBytes) {
+            this.details = details;
+            this.name = name;
+            this.time = time;
+            this.unixMode = unixMode;
+            this.directory = directory;
+            this.content = content;
+            this.pendingBytes = pendingBytes;
+        }
+    }
+
+    private static class CompressContent implements Callable<CompressedContent> {
+        private final byte[] bytes;
+        private final int method;
+
+        CompressContent(byte[] bytes, int method) {
+            this.bytes = bytes;
+            this.method = method;
+        }
+
+        @Override
+        public CompressedContent call() {
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length);
+            if (method == ZipArchiveWriter.STORED) {
+                return new BufferedContent(method, crc.getValue(), bytes.length, bytes);
+            }
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(bytes);
+                deflater.finish();
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bytes.length / 2));
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, count);
+                }
+                return new BufferedContent(method, crc.getValue(), bytes.length, compressed.toByteArray());
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    private static abstract class CompressedContent {
+        final int method;
+        final long crc;
+        final long size;
+        final long compressedSize;
+
+        CompressedContent(int method, long crc, long size, long compressedSize) {
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+        }
+
+        abstract InputStream open() throws IOException;
+
+        void release() {
+        }
+    }
+
+    private static class BufferedContent extends CompressedContent {
+        private final byte[] compressed;
+
+        BufferedContent(int method, long crc, long size, byte[] compressed) {
+            super(method, crc, size, compressed.length);
+            this.compressed = compressed;
+        }
+
+        @Override
+        InputStream open() {
+            return new ByteArrayInputStream(compressed);
+        }
+    }
+
+    private static class TemporaryFileContent extends CompressedContent {
+        private final File file;
+
+        TemporaryFileContent(int method, long crc, long size, File file) {
+            super(method, crc, size, file.length());
+            this.file = file;
+        }
+
+        @Override
+        InputStream open() throws IOException {
+            return new FileInputStream(file);
+        }
+
+        @Override
+        void release() {
+            file.delete();
+        }
+    }
+
+    private static class RawZipEntryContent extends CompressedContent {
+        private final ZipEntryLocator locator;
+        private final ZipEntryLocator.LocatedEntry entry;
+
+        RawZipEntryContent(ZipEntryLocator locator, ZipEntryLocator.LocatedEntry entry) {
+            super(entry.method, entry.crc, entry.size, entry.compressedSize);
+            this.locator = locator;
+            this.entry = entry;
+        }
+
+        @Override
+        InputStream open() throws IOException {
+            return locator.openCompressedContent(entry);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.Zip64RequiredException;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Writes a ZIP file from entries whose content has already been compressed, either by the caller or in another ZIP file.
+ * The CRC and sizes of each entry must be known up front, so no data descriptors are written.
+ */
+class ZipArchiveWriter implements Closeable {
+    static final int STORED = 0;
+    static final int DEFLATED = 8;
+
+    private static final long LOCAL_FILE_HEADER_SIG = 0x04034b50L;
+    private static final long CENTRAL_FILE_HEADER_SIG = 0x02014b50L;
+    private static final long END_OF_CENTRAL_DIR_SIG = 0x06054b50L;
+    private static final long ZIP64_END_OF_CENTRAL_DIR_SIG = 0x06064b50L;
+    private static final long ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG = 0x07064b50L;
+    private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+    private static final int EFS_FLAG = 1 << 11;
+    private static final int PLATFORM_UNIX = 3;
+    private static final int VERSION_DEFAULT = 10;
+    private static final int VERSION_DEFLATED = 20;
+    private static final int VERSION_ZIP64 = 45;
+
+    private final CountingOutputStream out;
+    private final Charset charset;
+    private final boolean allowZip64;
+    private final List<WrittenEntry> entries = new ArrayList<WrittenEntry>();
+    private final byte[] buffer = new byte[8192];
+
+    ZipArchiveWriter(File zipFile, Charset charset, boolean allowZip64) throws IOException {
+        this.out = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile), 65536));
+        this.charset = charset;
+        this.allowZip64 = allowZip64;
+    }
+
+    /**
+     * Writes an entry, reading exactly {@code compressedSize} bytes of already compressed content from the given stream.
+     */
+    void writeEntry(String name, long time, int unixMode, boolean directory, int method, long crc, long size, long compressedSize, InputStream compressedContent) throws IOException {
+        byte[] nameBytes = name.getBytes(charset);
+        long offset = out.getCount();
+        boolean zip64 = size >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC || offset >= ZIP64_MAGIC;
+        if (zip64 && !allowZip64) {
+            throw new Zip64RequiredException(name + "'s size exceeds the limit of 4GByte.");
+        }
+        WrittenEntry entry = new WrittenEntry(nameBytes, toDosTime(time), externalAttributes(unixMode, directory), method, crc, size, compressedSize, offset, zip64);
+        writeLocalFileHeader(entry);
+        long remaining = compressedSize;
+        while (remaining > 0) {
+            int read = compressedContent.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Unexpected end of content for ZIP entry " + name);
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        entries.add(entry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void finish() throws IOException {
+        long centralDirectoryOffset = out.getCount();
+        for (WrittenEntry entry : entries) {
+            writeCentralFileHeader(entry);
+        }
+        long centralDirectorySize = out.getCount() - centralDirectoryOffset;
+        boolean zip64 = entries.size() >= ZIP64_MAGIC_SHORT || centralDirectoryOffset >= ZIP64_MAGIC || centralDirectorySize >= ZIP64_MAGIC;
+        if (zip64) {
+            if (!allowZip64) {
+                throw new Zip64RequiredException(entries.size() >= ZIP64_MAGIC_SHORT ? "archive contains more than 65535 entries." : "archive's size exceeds the limit of 4GByte.");
+            }
+            long zip64EndOfCentralDirectoryOffset = out.getCount();
+            writeInt(ZIP64_END_OF_CENTRAL_DIR_SIG);
+            writeLong(44);
+            writeShort(PLATFORM_UNIX << 8 | VERSION_ZIP64);
+            writeShort(VERSION_ZIP64);
+            writeInt(0);
+            writeInt(0);
+            writeLong(entries.size());
+            writeLong(entries.size());
+            writeLong(centralDirectorySize);
+            writeLong(centralDirectoryOffset);
+
+            writeInt(ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG);
+            writeInt(0);
+            writeLong(zip64EndOfCentralDirectoryOffset);
+            writeInt(1);
+        }
+        writeInt(END_OF_CENTRAL_DIR_SIG);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(entries.size(), ZIP64_MAGIC_SHORT));
+        writeShort(Math.min(entries.size(), ZIP64_MAGIC_SHORT));
+        writeInt(Math.min(centralDirectorySize, ZIP64_MAGIC));
+        writeInt(Math.min(centralDirectoryOffset, ZIP64_MAGIC));
+        writeShort(0);
+    }
+
+    private void writeLocalFileHeader(WrittenEntry entry) throws IOException {
+        writeInt(LOCAL_FILE_HEADER_SIG);
+        writeShort(entry.versionNeeded());
+        writeShort(generalPurposeFlags());
+        writeShort(entry.method);
+        writeInt(entry.dosTime);
+        writeInt(entry.crc);
+        writeInt(entry.zip64 ? ZIP64_MAGIC : entry.compressedSize);
+        writeInt(entry.zip64 ? ZIP64_MAGIC : entry.size);
+        writeShort(entry.name.length);
+        writeShort(entry.zip64 ? 20 : 0);
+        out.write(entry.name);
+        if (entry.zip64) {
+            writeShort(ZIP64_EXTRA_FIELD_ID);
+            writeShort(16);
+            writeLong(entry.size);
+            writeLong(entry.compressedSize);
+        }
+    }
+
+    private void writeCentralFileHeader(WrittenEntry entry) throws IOException {
+        boolean sizeInZip64 = entry.size >= ZIP64_MAGIC;
+        boolean compressedSizeInZip64 = entry.compressedSize >= ZIP64_MAGIC;
+        boolean offsetInZip64 = entry.offset >= ZIP64_MAGIC;
+        int zip64ExtraLength = (sizeInZip64 ? 8 : 0) + (compressedSizeInZip64 ? 8 : 0) + (offsetInZip64 ? 8 : 0);
+
+        writeInt(CENTRAL_FILE_HEADER_SIG);
+        writeShort(PLATFORM_UNIX << 8 | (entry.zip64 ? VERSION_ZIP64 : VERSION_DEFLATED));
+        writeShort(entry.versionNeeded());
+        writeShort(generalPurposeFlags());
+        writeShort(entry.method);
+        writeInt(entry.dosTime);
+        writeInt(entry.crc);
+        writeInt(Math.min(entry.compressedSize, ZIP64_MAGIC));
+        writeInt(Math.min(entry.size, ZIP64_MAGIC));
+        writeShort(entry.name.length);
+        writeShort(zip64ExtraLength > 0 ? zip64ExtraLength + 4 : 0);
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        writeInt(entry.externalAttributes);
+        writeInt(Math.min(entry.offset, ZIP64_MAGIC));
+        out.write(entry.name);
+        if (zip64ExtraLength > 0) {
+            writeShort(ZIP64_EXTRA_FIELD_ID);
+            writeShort(zip64ExtraLength);
+            if (sizeInZip64) {
+                writeLong(entry.size);
+            }
+            if (compressedSizeInZip64) {
+                writeLong(entry.compressedSize);
+            }
+            if (offsetInZip64) {
+                writeLong(entry.offset);
+            }
+        }
+    }
+
+    private int generalPurposeFlags() {
+        return "UTF-8".equals(charset.name()) ? EFS_FLAG : 0;
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private void writeInt(long value) throws IOException {
+        writeShort((int) (value & 0xFFFF));
+        writeShort((int) ((value >>> 16) & 0xFFFF));
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt(value & 0xFFFFFFFFL);
+        writeInt(value >>> 32);
+    }
+
+    /**
+     * Same attributes as {@link org.apache.tools.zip.ZipEntry#setUnixMode(int)} uses.
+     */
+    private static long externalAttributes(int unixMode, boolean directory) {
+        return ((long) unixMode << 16)
+            // MS-DOS read-only attribute
+            | ((unixMode & 0200) == 0 ? 1 : 0)
+            // MS-DOS directory flag
+            | (directory ? 0x10 : 0);
+    }
+
+    private static long toDosTime(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            // 1980-01-01 00:00:00, the earliest time that can be represented
+            return (1 << 21) | (1 << 16);
+        }
+        return ((long) (year - 1980) << 25)
+            | ((calendar.get(Calendar.MONTH) + 1) << 21)
+            | (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+            | (calendar.get(Calendar.HOUR_OF_DAY) << 11)
+            | (calendar.get(Calendar.MINUTE) << 5)
+            | (calendar.get(Calendar.SECOND) >> 1);
+    }
+
+    private static class WrittenEntry {
+        final byte[] name;
+        final long dosTime;
+        final long externalAttributes;
+        final int method;
+        final long crc;
+        final long size;
+        final long compressedSize;
+        final long offset;
+        final boolean zip64;
+
+        WrittenEntry(byte[] name, long dosTime, long externalAttributes, int method, long crc, long size, long compressedSize, long offset, boolean zip64) {
+            this.name = name;
+            this.dosTime = dosTime;
+            this.externalAttributes = externalAttributes;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.offset = offset;
+            this.zip64 = zip64;
+        }
+
+        int versionNeeded() {
+            if (zip64) {
+                return VERSION_ZIP64;
+            }
+            return method == DEFLATED ? VERSION_DEFLATED : VERSION_DEFAULT;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final OutputStream delegate;
+        private long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import com.google.common.base.Charsets;
+import org.apache.tools.zip.ZipEntry;
+import org.gradle.api.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Locates the compressed content of the entries of a ZIP file, by reading the offsets of their local headers from the central directory.
+ *
+ * <p>Entries whose offset or sizes are stored in a zip64 extra field are not located, and neither are the entries of an archive with a zip64 central directory.</p>
+ */
+class ZipEntryLocator implements Closeable {
+    private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+    private static final int CENTRAL_FILE_HEADER_SIG = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIR_LENGTH = 22;
+    private static final int CENTRAL_FILE_HEADER_LENGTH = 46;
+    private static final int LOCAL_FILE_HEADER_LENGTH = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ENCRYPTION_FLAG = 1;
+
+    private final File zipFile;
+    private final RandomAccessFile file;
+    private final Map<String, LocatedEntry> entries = new HashMap<String, LocatedEntry>();
+
+    ZipEntryLocator(File zipFile) throws IOException {
+        this.zipFile = zipFile;
+        this.file = new RandomAccessFile(zipFile, "r");
+        try {
+            readCentralDirectory();
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    @Nullable
+    LocatedEntry findEntry(ZipEntry entry) {
+        byte[] rawName = entry.getRawName();
+        return rawName == null ? null : findEntry(rawName);
+    }
+
+    /**
+     * Finds the entry with the given name, encoded as the raw bytes stored in the ZIP file.
+     */
+    @Nullable
+    LocatedEntry findEntry(byte[] rawName) {
+        return entries.get(new String(rawName, Charsets.ISO_8859_1));
+    }
+
+    /**
+     * Opens a stream positioned at the compressed content of the given entry.
+     */
+    InputStream openCompressedContent(LocatedEntry entry) throws IOException {
+        byte[] header = new byte[LOCAL_FILE_HEADER_LENGTH];
+        file.seek(entry.localHeaderOffset);
+        file.readFully(header);
+        long dataOffset = entry.localHeaderOffset + LOCAL_FILE_HEADER_LENGTH + readShort(header, 26) + readShort(header, 28);
+
+        FileInputStream inputStream = new FileInputStream(zipFile);
+        try {
+            inputStream.getChannel().position(dataOffset);
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+        return new BufferedInputStream(inputStream);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private void readCentralDirectory() throws IOException {
+        long length = file.length();
+        int tailLength = (int) Math.min(length, END_OF_CENTRAL_DIR_LENGTH + MAX_COMMENT_LENGTH);
+        byte[] tail = new byte[tailLength];
+        file.seek(length - tailLength);
+        file.readFully(tail);
+
+        int end = -1;
+        for (int i = tailLength - END_OF_CENTRAL_DIR_LENGTH; i >= 0; i--) {
+            if (readInt(tail, i) == END_OF_CENTRAL_DIR_SIG) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            return;
+        }
+        int entryCount = readShort(tail, end + 10);
+        long centralDirectorySize = readInt(tail, end + 12) & ZIP64_MAGIC;
+        long centralDirectoryOffset = readInt(tail, end + 16) & ZIP64_MAGIC;
+        if (entryCount == 0xFFFF || centralDirectorySize == ZIP64_MAGIC || centralDirectoryOffset == ZIP64_MAGIC) {
+            return;
+        }
+
+        byte[] centralDirectory = new byte[(int) centralDirectorySize];
+        file.seek(centralDirectoryOffset);
+        file.readFully(centralDirectory);
+        int pos = 0;
+        for (int i = 0; i < entryCount && pos + CENTRAL_FILE_HEADER_LENGTH <= centralDirectory.length; i++) {
+            if (readInt(centralDirectory, pos) != CENTRAL_FILE_HEADER_SIG) {
+                break;
+            }
+            int flags = readShort(centralDirectory, pos + 8);
+            int method = readShort(centralDirectory, pos + 10);
+            long crc = readInt(centralDirectory, pos + 16) & ZIP64_MAGIC;
+            long compressedSize = readInt(centralDirectory, pos + 20) & ZIP64_MAGIC;
+            long size = readInt(centralDirectory, pos + 24) & ZIP64_MAGIC;
+            int nameLength = readShort(centralDirectory, pos + 28);
+            int extraLength = readShort(centralDirectory, pos + 30);
+            int commentLength = readShort(centralDirectory, pos + 32);
+            long localHeaderOffset = readInt(centralDirectory, pos + 42) & ZIP64_MAGIC;
+            if (localHeaderOffset != ZIP64_MAGIC && compressedSize != ZIP64_MAGIC && size != ZIP64_MAGIC) {
+                String name = new String(centralDirectory, pos + CENTRAL_FILE_HEADER_LENGTH, nameLength, Charsets.ISO_8859_1);
+                entries.put(name, new LocatedEntry(localHeaderOffset, (flags & ENCRYPTION_FLAG) != 0, method, crc, compressedSize, size));
+            }
+            pos += CENTRAL_FILE_HEADER_LENGTH + nameLength + extraLength + commentLength;
+        }
+    }
+
+    private static int readShort(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return readShort(bytes, offset) | readShort(bytes, offset + 2) << 16;
+    }
+
+    static class LocatedEntry {
+        private final long localHeaderOffset;
+        final boolean encrypted;
+        final int method;
+        final long crc;
+        final long compressedSize;
+        final long size;
+
+        LocatedEntry(long localHeaderOffset, boolean encrypted, int method, long crc, long compressedSize, long size) {
+            this.localHeaderOffset = localHeaderOffset;
+            this.encrypted = encrypted;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.ExpandableFileTreeElement;
 import org.gradle.api.internal.file.FileSystemSubset;
 import org.gradle.api.internal.file.collections.*;
 import org.gradle.internal.hash.HashUtil;
@@ -103,7 +104,10 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         return zipFile;
     }
 
-    private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
+    /**
+     * Reads the content of the entry directly from the ZIP file, and only expands the entry to the temporary directory when {@link #getFile()} is called.
+     */
+    private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails, ZipEntryDetails, ExpandableFileTreeElement {
         private final ZipEntry entry;
         private final ZipFile zip;
         private final AtomicBoolean stopFlag;
@@ -124,9 +128,24 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
             stopFlag.set(true);
         }
 
+        @Override
+        public File getZipFile() {
+            return zipFile;
+        }
+
+        @Override
+        public ZipEntry getZipEntry() {
+            return entry;
+        }
+
+        @Override
+        public File getExpandedFile() {
+            return new File(tmpDir, entry.getName());
+        }
+
         public File getFile() {
             if (file == null) {
-                file = new File(tmpDir, entry.getName());
+                file = getExpandedFile();
                 if (file.exists()) {
                     file.setWritable(true);
                 }
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.file.copy;
 
 import groovy.lang.Closure;
+import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
 import org.gradle.api.file.ContentFilterable;
 import org.gradle.api.file.DuplicatesStrategy;
@@ -69,6 +70,21 @@ public class DefaultFileCopyDetails extends AbstractFileTreeElement implements F
         return fileDetails.isDirectory();
     }
 
+    /**
+     * Returns the details of the source file, whose content is read before applying the filters.
+     */
+    public FileVisitDetails getSource() {
+        return fileDetails;
+    }
+
+    /**
+     * Returns the details of the source file when its content is copied unchanged, or null when filters are applied to it.
+     */
+    @Nullable
+    public FileVisitDetails getUnmodifiedSource() {
+        return filterChain.hasFilters() ? null : fileDetails;
+    }
+
     public long getLastModified() {
         return fileDetails.getLastModified();
     }
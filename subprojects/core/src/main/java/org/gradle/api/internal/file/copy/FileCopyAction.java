@@ -15,25 +15,70 @@
  */
 package org.gradle.api.internal.file.copy;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.file.PathToFileResolver;
 
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class FileCopyAction implements CopyAction {
+    public static final String PARALLEL_COPY_PROPERTY = "org.gradle.internal.copy.parallel";
+    public static final String PARALLEL_FILTERING_PROPERTY = "org.gradle.internal.copy.parallelFiltering";
 
     private final PathToFileResolver fileResolver;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkers;
+    private final boolean filterConcurrently;
 
     public FileCopyAction(PathToFileResolver fileResolver) {
+        this(fileResolver, null, 1);
+    }
+
+    /**
+     * Creates an action which copies unfiltered regular files concurrently, using at most the given number of workers.
+     */
+    public FileCopyAction(PathToFileResolver fileResolver, ExecutorFactory executorFactory, int maxWorkers) {
+        this(fileResolver, executorFactory, maxWorkers, false);
+    }
+
+    /**
+     * Creates an action which copies regular files concurrently, using at most the given number of workers. When {@code filterConcurrently}
+     * is true, the filters of filtered files are also applied on the workers, so the filters must be safe to use from several threads.
+     */
+    public FileCopyAction(PathToFileResolver fileResolver, ExecutorFactory executorFactory, int maxWorkers, boolean filterConcurrently) {
         this.fileResolver = fileResolver;
+        this.executorFactory = executorFactory;
+        this.maxWorkers = maxWorkers;
+        this.filterConcurrently = filterConcurrently;
     }
 
     public WorkResult execute(CopyActionProcessingStream stream) {
-        FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
-        stream.process(action);
-        return new SimpleWorkResult(action.didWork);
+        if (executorFactory == null || maxWorkers <= 1) {
+            FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
+            stream.process(action);
+            return new SimpleWorkResult(action.didWork);
+        }
+
+        ManagedExecutor executor = executorFactory.create("Copy files", maxWorkers);
+        try {
+            ParallelFileCopyDetailsInternalAction action = new ParallelFileCopyDetailsInternalAction(executor);
+            stream.process(action);
+            action.waitForPendingCopies();
+            return new SimpleWorkResult(action.didWork);
+        } finally {
+            executor.stop();
+        }
     }
 
     private class FileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
@@ -47,4 +92,65 @@ public class FileCopyAction implements CopyAction {
             }
         }
     }
+
+    /**
+     * Copies the unfiltered regular files on worker threads, along with the filtered ones when filtering concurrently. Other files are copied in
+     * visiting order, as their content may only be readable while visiting them, for example the entries of an archive. When several files are
+     * copied to the same target, the last one wins, as when copying sequentially. Duplicates are excluded by the spec before reaching this action.
+     */
+    private class ParallelFileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
+        private final ManagedExecutor executor;
+        private final Map<File, Future<Boolean>> pendingCopies = new LinkedHashMap<File, Future<Boolean>>();
+        private boolean didWork;
+
+        ParallelFileCopyDetailsInternalAction(ManagedExecutor executor) {
+            this.executor = executor;
+        }
+
+        public void processFile(final FileCopyDetailsInternal details) {
+            final File target = fileResolver.resolve(details.getRelativePath().getPathString());
+            Future<Boolean> previousCopy = pendingCopies.remove(target);
+            if (previousCopy != null) {
+                waitFor(previousCopy);
+            }
+            if (canCopyConcurrently(details)) {
+                pendingCopies.put(target, executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return details.copyTo(target);
+                    }
+                }));
+            } else if (details.copyTo(target)) {
+                didWork = true;
+            }
+        }
+
+        void waitForPendingCopies() {
+            for (Future<Boolean> copy : pendingCopies.values()) {
+                waitFor(copy);
+            }
+            pendingCopies.clear();
+        }
+
+        private void waitFor(Future<Boolean> copy) {
+            try {
+                if (Uninterruptibles.getUninterruptibly(copy)) {
+                    didWork = true;
+                }
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+
+        private boolean canCopyConcurrently(FileCopyDetailsInternal details) {
+            if (details.isDirectory() || !(details instanceof DefaultFileCopyDetails)) {
+                return false;
+            }
+            DefaultFileCopyDetails copyDetails = (DefaultFileCopyDetails) details;
+            if (!(copyDetails.getSource() instanceof DefaultFileVisitDetails)) {
+                return false;
+            }
+            return filterConcurrently || copyDetails.getUnmodifiedSource() != null;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Does not copy the regular files whose destination file already has the same content, only updating its permissions when they differ.
+ *
+ * <p>Content is compared using the file hashes, which are cached by file size and timestamp, so unchanged files are usually not read at all.
+ * Filtered files and files from archives are always copied.</p>
+ *
+ * <p>Only the first file copied to a destination file is compared with it. The destination may be written by the copy of an earlier file while a later
+ * one is visited, possibly on another thread when copying concurrently, so later files copied to the same destination are always copied.</p>
+ */
+public class SkipUnchangedFilesCopyActionDecorator implements CopyAction {
+    public static final String SKIP_UNCHANGED_FILES_PROPERTY = "org.gradle.internal.sync.skipUnchangedFiles";
+
+    private final File baseDestDir;
+    private final CopyAction delegate;
+    private final FileHasher fileHasher;
+    private final FileSystem fileSystem;
+
+    public SkipUnchangedFilesCopyActionDecorator(File baseDestDir, CopyAction delegate, FileHasher fileHasher, FileSystem fileSystem) {
+        this.baseDestDir = baseDestDir;
+        this.delegate = delegate;
+        this.fileHasher = fileHasher;
+        this.fileSystem = fileSystem;
+    }
+
+    public WorkResult execute(final CopyActionProcessingStream stream) {
+        final AtomicBoolean updatedPermissions = new AtomicBoolean();
+        final Set<File> visitedTargets = new HashSet<File>();
+        WorkResult didWork = delegate.execute(new CopyActionProcessingStream() {
+            public void process(final CopyActionProcessingStreamAction action) {
+                stream.process(new CopyActionProcessingStreamAction() {
+                    public void processFile(FileCopyDetailsInternal details) {
+                        File target = new File(baseDestDir, details.getRelativePath().getPathString());
+                        if (!visitedTargets.add(target) || !hasSameContent(details, target)) {
+                            action.processFile(details);
+                            return;
+                        }
+                        int mode = details.getMode();
+                        if (fileSystem.getUnixMode(target) != mode) {
+                            fileSystem.chmod(target, mode);
+                            updatedPermissions.set(true);
+                        }
+                    }
+                });
+            }
+        });
+        return new SimpleWorkResult(didWork.getDidWork() || updatedPermissions.get());
+    }
+
+    private boolean hasSameContent(FileCopyDetailsInternal details, File target) {
+        if (details.isDirectory() || !(details instanceof DefaultFileCopyDetails)) {
+            return false;
+        }
+        FileVisitDetails source = ((DefaultFileCopyDetails) details).getUnmodifiedSource();
+        if (!(source instanceof DefaultFileVisitDetails)) {
+            return false;
+        }
+        if (!target.isFile() || target.length() != source.getSize()) {
+            return false;
+        }
+        return fileHasher.hash(source.getFile()).equals(fileHasher.hash(target));
+    }
+}
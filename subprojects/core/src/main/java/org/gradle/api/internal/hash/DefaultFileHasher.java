@@ -21,6 +21,7 @@ import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.internal.file.ExpandableFileTreeElement;
 import org.gradle.internal.nativeintegration.filesystem.FileMetadataSnapshot;
 import org.gradle.internal.resource.TextResource;
 
@@ -102,6 +103,9 @@ public class DefaultFileHasher implements FileHasher {
 
     @Override
     public HashCode hash(FileTreeElement fileDetails) {
+        if (fileDetails instanceof ExpandableFileTreeElement) {
+            return hash(fileDetails.open());
+        }
         return hash(fileDetails.getFile());
     }
 
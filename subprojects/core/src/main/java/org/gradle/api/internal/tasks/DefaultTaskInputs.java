@@ -20,13 +20,16 @@ import com.google.common.collect.Lists;
 import groovy.lang.GString;
 import org.gradle.api.Describable;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Nullable;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.TaskInputsInternal;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.TaskArtifactState;
 import org.gradle.api.internal.file.CompositeFileCollection;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.collections.FileCollectionResolveContext;
 import org.gradle.api.tasks.TaskInputs;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 
 import java.util.HashMap;
 import java.util.List;
@@ -45,6 +48,7 @@ public class DefaultTaskInputs implements TaskInputsInternal {
     private final Map<String, Object> properties = new HashMap<String, Object>();
     private final List<TaskInputPropertySpecAndBuilder> filePropertiesInternal = Lists.newArrayList();
     private ImmutableSortedSet<TaskInputFilePropertySpec> fileProperties;
+    private TaskArtifactState taskArtifactState;
 
     public DefaultTaskInputs(FileResolver resolver, TaskInternal task, TaskMutator taskMutator) {
         this.resolver = resolver;
@@ -74,6 +78,19 @@ public class DefaultTaskInputs implements TaskInputsInternal {
         return fileProperties;
     }
 
+    @Override
+    public IncrementalTaskInputs getInputChanges() {
+        if (taskArtifactState == null) {
+            throw new IllegalStateException("Task input changes are currently not available for this task.");
+        }
+        return taskArtifactState.getInputChanges();
+    }
+
+    @Override
+    public void setTaskArtifactState(@Nullable TaskArtifactState taskArtifactState) {
+        this.taskArtifactState = taskArtifactState;
+    }
+
     @Override
     public TaskInputFilePropertyBuilderInternal files(final Object... paths) {
         return taskMutator.mutate("TaskInputs.files(Object...)", new Callable<TaskInputFilePropertyBuilderInternal>() {
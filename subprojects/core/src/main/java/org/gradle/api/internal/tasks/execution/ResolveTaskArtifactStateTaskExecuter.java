@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.execution;
 
+import org.gradle.api.internal.TaskInputsInternal;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.TaskOutputsInternal;
 import org.gradle.api.internal.changedetection.TaskArtifactState;
@@ -43,15 +44,18 @@ public class ResolveTaskArtifactStateTaskExecuter implements TaskExecuter {
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         Timer clock = Timers.startTimer();
         TaskArtifactState taskArtifactState = repository.getStateFor(task);
+        TaskInputsInternal inputs = task.getInputs();
         TaskOutputsInternal outputs = task.getOutputs();
 
         context.setTaskArtifactState(taskArtifactState);
+        inputs.setTaskArtifactState(taskArtifactState);
         outputs.setHistory(taskArtifactState.getExecutionHistory());
         LOGGER.info("Putting task artifact state for {} into context took {}.", task, clock.getElapsed());
         try {
             executer.execute(task, state, context);
         } finally {
             outputs.setHistory(null);
+            inputs.setTaskArtifactState(null);
             context.setTaskArtifactState(null);
             LOGGER.debug("Removed task artifact state for {} from context.");
         }
@@ -22,6 +22,9 @@ import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ParallelismConfigurationManager;
+import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -75,7 +78,17 @@ public class Copy extends AbstractCopyTask {
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
+        return createFileCopyAction(destinationDir);
+    }
+
+    private FileCopyAction createFileCopyAction(File destinationDir) {
+        PathToFileResolver fileResolver = getFileLookup().getFileResolver(destinationDir);
+        boolean filterConcurrently = Boolean.getBoolean(FileCopyAction.PARALLEL_FILTERING_PROPERTY);
+        if (filterConcurrently || Boolean.getBoolean(FileCopyAction.PARALLEL_COPY_PROPERTY)) {
+            int maxWorkers = getServices().get(ParallelismConfigurationManager.class).getParallelismConfiguration().getMaxWorkerCount();
+            return new FileCopyAction(fileResolver, getServices().get(ExecutorFactory.class), maxWorkers, filterConcurrently);
+        }
+        return new FileCopyAction(fileResolver);
     }
 
     @Override
@@ -24,9 +24,14 @@ import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.api.internal.file.copy.SkipUnchangedFilesCopyActionDecorator;
 import org.gradle.api.internal.file.copy.SyncCopyActionDecorator;
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ParallelismConfigurationManager;
+import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -74,7 +79,21 @@ public class Sync extends AbstractCopyTask {
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new SyncCopyActionDecorator(destinationDir, new FileCopyAction(getFileLookup().getFileResolver(destinationDir)), preserveInDestination, getDirectoryFileTreeFactory());
+        CopyAction copyAction = createFileCopyAction(destinationDir);
+        if (Boolean.getBoolean(SkipUnchangedFilesCopyActionDecorator.SKIP_UNCHANGED_FILES_PROPERTY)) {
+            copyAction = new SkipUnchangedFilesCopyActionDecorator(destinationDir, copyAction, getServices().get(FileHasher.class), getFileSystem());
+        }
+        return new SyncCopyActionDecorator(destinationDir, copyAction, preserveInDestination, getDirectoryFileTreeFactory());
+    }
+
+    private FileCopyAction createFileCopyAction(File destinationDir) {
+        PathToFileResolver fileResolver = getFileLookup().getFileResolver(destinationDir);
+        boolean filterConcurrently = Boolean.getBoolean(FileCopyAction.PARALLEL_FILTERING_PROPERTY);
+        if (filterConcurrently || Boolean.getBoolean(FileCopyAction.PARALLEL_COPY_PROPERTY)) {
+            int maxWorkers = getServices().get(ParallelismConfigurationManager.class).getParallelismConfiguration().getMaxWorkerCount();
+            return new FileCopyAction(fileResolver, getServices().get(ExecutorFactory.class), maxWorkers, filterConcurrently);
+        }
+        return new FileCopyAction(fileResolver);
     }
 
     @Override
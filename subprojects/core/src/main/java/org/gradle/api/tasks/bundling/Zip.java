@@ -16,9 +16,12 @@
 package org.gradle.api.tasks.bundling;
 
 import org.apache.tools.zip.ZipOutputStream;
+import org.gradle.api.Action;
 import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.archive.ParallelZipCopyAction;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.DefaultZipCompressor;
@@ -26,8 +29,15 @@ import org.gradle.api.internal.file.copy.ZipCompressor;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ParallelismConfigurationManager;
 
+import java.io.File;
 import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Assembles a ZIP archive.
@@ -60,7 +70,38 @@ public class Zip extends AbstractArchiveTask {
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
-        return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps());
+        ZipCompressor compressor = getCompressor();
+        boolean parallel = Boolean.getBoolean(ParallelZipCopyAction.PARALLEL_ZIP_PROPERTY);
+        Set<File> changedSourceFiles = Boolean.getBoolean(ParallelZipCopyAction.INCREMENTAL_ZIP_PROPERTY) ? getChangedSourceFiles() : null;
+        if ((parallel || changedSourceFiles != null) && compressor instanceof DefaultZipCompressor) {
+            DefaultZipCompressor defaultCompressor = (DefaultZipCompressor) compressor;
+            int maxWorkers = parallel ? getServices().get(ParallelismConfigurationManager.class).getParallelismConfiguration().getMaxWorkerCount() : 1;
+            return new ParallelZipCopyAction(getArchivePath(), getTemporaryDir(), defaultCompressor.getEntryCompressionMethod(), defaultCompressor.isAllowZip64(), documentationRegistry, metadataCharset, isPreserveFileTimestamps(),
+                getServices().get(ExecutorFactory.class), maxWorkers, changedSourceFiles);
+        }
+        return new ZipCopyAction(getArchivePath(), compressor, documentationRegistry, metadataCharset, isPreserveFileTimestamps());
+    }
+
+    /**
+     * Returns the source files which have changed since the archive was last created, or null when the archive needs to be created from scratch.
+     */
+    @Nullable
+    private Set<File> getChangedSourceFiles() {
+        if (!getState().getExecuting()) {
+            return null;
+        }
+        IncrementalTaskInputs inputs = getInputs().getInputChanges();
+        if (!inputs.isIncremental()) {
+            return null;
+        }
+        final Set<File> changedFiles = new HashSet<File>();
+        inputs.outOfDate(new Action<InputFileDetails>() {
+            @Override
+            public void execute(InputFileDetails details) {
+                changedFiles.add(details.getFile());
+            }
+        });
+        return changedFiles;
     }
 
     /**
@@ -26,6 +26,7 @@ public class PersistentIndexedCacheParameters<K, V> {
     private final Serializer<K> keySerializer;
     private final Serializer<V> valueSerializer;
     private CacheDecorator cacheDecorator;
+    private boolean lockFreeReads;
 
     public PersistentIndexedCacheParameters(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
         this.cacheName = cacheName;
@@ -67,4 +68,17 @@ public class PersistentIndexedCacheParameters<K, V> {
         this.cacheDecorator = cacheDecorator;
         return this;
     }
+
+    public boolean isLockFreeReads() {
+        return lockFreeReads;
+    }
+
+    /**
+     * Requests that entries can be read without holding the cross-process file lock, for caches that are read much more often than they are written.
+     * Writes still require the lock. Cannot be combined with a {@link CacheDecorator}, as the cache keeps its entries in memory.
+     */
+    public PersistentIndexedCacheParameters<K, V> lockFreeReads() {
+        this.lockFreeReads = true;
+        return this;
+    }
 }
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import com.google.common.hash.HashCode;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.Nullable;
+import org.gradle.api.Transformer;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent indexed cache for read-mostly data, which can be read by multiple processes without holding the cross-process file lock.
+ *
+ * <p>The entries are stored in a snapshot file plus an append-only log of the updates made since the snapshot was written. Writers hold the cross-process
+ * file lock while appending to the log. Readers do not lock at all: each log record carries its length and a checksum, so that a reader stops at a record
+ * that is still being written and picks it up on a later read.</p>
+ *
+ * <p>When the log has grown larger than the snapshot, the process holding the lock folds the log into a new snapshot generation when it releases the lock.
+ * The snapshot is written to a temporary file and renamed into place, so that readers only ever see complete snapshots. Readers notice that a newer generation
+ * exists and reload from it. A process holding the lock always reloads from the latest generation on disk, so that it never appends to the log of a generation
+ * that has been compacted away by another process.</p>
+ */
+@ThreadSafe
+public class AppendOnlyLogPersistentIndexedCache<K, V> implements MultiProcessSafePersistentIndexedCache<K, V> {
+    private static final Logger LOGGER = Logging.getLogger(AppendOnlyLogPersistentIndexedCache.class);
+    private static final int SNAPSHOT_MAGIC = 0x474C4F47;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int RECORD_HEADER_SIZE = 4 + 8;
+    private static final long MIN_LOG_SIZE_FOR_COMPACTION = 1024 * 1024;
+
+    private final File dir;
+    private final String baseName;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final CrossProcessCacheAccess cacheAccess;
+
+    // Guarded by this
+    private final Map<HashCode, byte[]> entries = new HashMap<HashCode, byte[]>();
+    private long generation = -1;
+    private long logOffset;
+    private long snapshotSize;
+
+    public AppendOnlyLogPersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer, CrossProcessCacheAccess cacheAccess) {
+        this.dir = cacheFile.getParentFile();
+        this.baseName = cacheFile.getName();
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.cacheAccess = cacheAccess;
+    }
+
+    @Override
+    public String toString() {
+        return "{append-only-log cache: " + new File(dir, baseName) + "}";
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        HashCode keyBytes = HashCode.fromBytes(serialize(keySerializer, key));
+        byte[] valueBytes;
+        synchronized (this) {
+            refresh();
+            valueBytes = entries.get(keyBytes);
+        }
+        if (valueBytes == null) {
+            return null;
+        }
+        try {
+            return valueSerializer.read(new KryoBackedDecoder(new ByteArrayInputStream(valueBytes)));
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    @Override
+    public V get(K key, Transformer<? extends V, ? super K> producer) {
+        V value = get(key);
+        if (value == null) {
+            value = producer.transform(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        append(PUT, serialize(keySerializer, key), serialize(valueSerializer, value));
+    }
+
+    @Override
+    public void remove(K key) {
+        append(REMOVE, serialize(keySerializer, key), new byte[0]);
+    }
+
+    @Override
+    public void afterLockAcquire(FileLock.State currentCacheState) {
+    }
+
+    /**
+     * Called while holding the cross-process lock, just before it is released.
+     */
+    @Override
+    public void finishWork() {
+        synchronized (this) {
+            if (generation < 0) {
+                // Not used by this process
+                return;
+            }
+            refreshWithLock();
+            if (logOffset >= Math.max(MIN_LOG_SIZE_FOR_COMPACTION, snapshotSize)) {
+                compact();
+            }
+        }
+    }
+
+    @Override
+    public void beforeLockRelease(FileLock.State currentCacheState) {
+    }
+
+    private void append(final byte type, final byte[] keyBytes, final byte[] valueBytes) {
+        cacheAccess.withFileLock(new Factory<Void>() {
+            @Override
+            public Void create() {
+                synchronized (AppendOnlyLogPersistentIndexedCache.this) {
+                    refreshWithLock();
+                    try {
+                        doAppend(type, keyBytes, valueBytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not write to " + logFile(generation), e);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    private void doAppend(byte type, byte[] keyBytes, byte[] valueBytes) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(1 + 4 + keyBytes.length + valueBytes.length);
+        DataOutputStream payloadOutput = new DataOutputStream(payload);
+        payloadOutput.writeByte(type);
+        payloadOutput.writeInt(keyBytes.length);
+        payloadOutput.write(keyBytes);
+        payloadOutput.write(valueBytes);
+        byte[] payloadBytes = payload.toByteArray();
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(RECORD_HEADER_SIZE + payloadBytes.length);
+        DataOutputStream recordOutput = new DataOutputStream(record);
+        recordOutput.writeInt(payloadBytes.length);
+        recordOutput.writeLong(checksum(payloadBytes));
+        recordOutput.write(payloadBytes);
+
+        dir.mkdirs();
+        RandomAccessFile file = new RandomAccessFile(logFile(generation), "rw");
+        try {
+            if (file.length() > logOffset) {
+                // Anything past the last complete record was left behind by a writer that crashed, as we hold the lock
+                file.setLength(logOffset);
+            }
+            file.seek(logOffset);
+            // Write the record in a single call, so that readers see either nothing or the record with a valid checksum in the common case
+            file.write(record.toByteArray());
+        } finally {
+            file.close();
+        }
+        logOffset += record.size();
+        apply(type, keyBytes, valueBytes);
+    }
+
+    private void apply(byte type, byte[] keyBytes, byte[] valueBytes) {
+        HashCode key = HashCode.fromBytes(keyBytes);
+        if (type == PUT) {
+            entries.put(key, valueBytes);
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Brings the in-memory state up to date with the files. Does not require the cross-process lock.
+     */
+    private void refresh() {
+        if (generation < 0 || snapshotFile(generation + 1).exists() || isCompactedAway()) {
+            reload();
+        }
+        readLog();
+    }
+
+    /**
+     * Brings the in-memory state up to date with the latest generation on disk. Requires the cross-process lock, so that no generation can be added concurrently.
+     */
+    private void refreshWithLock() {
+        if (generation < 0 || findLatestGeneration() != generation) {
+            reload();
+        }
+        readLog();
+    }
+
+    /**
+     * Returns true when the current generation has been removed by later compactions, in which case the next generation may already have been removed too.
+     */
+    private boolean isCompactedAway() {
+        if (generation > 0) {
+            return !snapshotFile(generation).exists();
+        }
+        // Generation 0 has no snapshot, and its log is only created by the first write
+        return !logFile(generation).exists() && findLatestGeneration() > 0;
+    }
+
+    private void reload() {
+        // A snapshot may be removed by a concurrent compaction while we are looking for it, so retry
+        while (true) {
+            long latest = findLatestGeneration();
+            entries.clear();
+            logOffset = 0;
+            snapshotSize = 0;
+            generation = latest;
+            if (latest == 0 || readSnapshot(snapshotFile(latest))) {
+                return;
+            }
+        }
+    }
+
+    private long findLatestGeneration() {
+        long latest = 0;
+        String[] names = dir.list();
+        if (names == null) {
+            return latest;
+        }
+        String prefix = baseName + "-";
+        for (String name : names) {
+            if (name.startsWith(prefix) && name.endsWith(".snapshot")) {
+                try {
+                    latest = Math.max(latest, Long.parseLong(name.substring(prefix.length(), name.length() - ".snapshot".length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return latest;
+    }
+
+    private boolean readSnapshot(File snapshotFile) {
+        DataInputStream input;
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+        try {
+            try {
+                if (input.readInt() != SNAPSHOT_MAGIC) {
+                    throw new IOException("Unexpected file format.");
+                }
+                int count = input.readInt();
+                for (int i = 0; i < count; i++) {
+                    byte[] keyBytes = new byte[input.readInt()];
+                    input.readFully(keyBytes);
+                    byte[] valueBytes = new byte[input.readInt()];
+                    input.readFully(valueBytes);
+                    entries.put(HashCode.fromBytes(keyBytes), valueBytes);
+                }
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + snapshotFile, e);
+        }
+        snapshotSize = snapshotFile.length();
+        return true;
+    }
+
+    private void readLog() {
+        File logFile = logFile(generation);
+        if (logFile.length() <= logOffset) {
+            return;
+        }
+        try {
+            FileInputStream fileInput;
+            try {
+                fileInput = new FileInputStream(logFile);
+            } catch (FileNotFoundException e) {
+                return;
+            }
+            try {
+                fileInput.getChannel().position(logOffset);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(fileInput));
+                long remaining = fileInput.getChannel().size() - logOffset;
+                while (remaining >= RECORD_HEADER_SIZE) {
+                    int length = input.readInt();
+                    long checksum = input.readLong();
+                    if (length < 0 || length > remaining - RECORD_HEADER_SIZE) {
+                        // Incomplete record
+                        return;
+                    }
+                    byte[] payload = new byte[length];
+                    input.readFully(payload);
+                    if (checksum(payload) != checksum) {
+                        // Record is still being written
+                        return;
+                    }
+                    DataInputStream payloadInput = new DataInputStream(new ByteArrayInputStream(payload));
+                    byte type = payloadInput.readByte();
+                    byte[] keyBytes = new byte[payloadInput.readInt()];
+                    payloadInput.readFully(keyBytes);
+                    byte[] valueBytes = new byte[length - 1 - 4 - keyBytes.length];
+                    payloadInput.readFully(valueBytes);
+                    apply(type, keyBytes, valueBytes);
+                    logOffset += RECORD_HEADER_SIZE + length;
+                    remaining -= RECORD_HEADER_SIZE + length;
+                }
+            } finally {
+                fileInput.close();
+            }
+        } catch (EOFException e) {
+            // Incomplete record, pick it up later
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + logFile, e);
+        }
+    }
+
+    private void compact() {
+        // Derive the generation from the files rather than from our state, so that a newer generation written by another process is never outranked by ours
+        long nextGeneration = Math.max(generation, findLatestGeneration()) + 1;
+        File snapshotFile = snapshotFile(nextGeneration);
+        File tempFile = new File(dir, snapshotFile.getName() + ".tmp");
+        try {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                output.writeInt(SNAPSHOT_MAGIC);
+                output.writeInt(entries.size());
+                for (Map.Entry<HashCode, byte[]> entry : entries.entrySet()) {
+                    byte[] keyBytes = entry.getKey().asBytes();
+                    output.writeInt(keyBytes.length);
+                    output.write(keyBytes);
+                    output.writeInt(entry.getValue().length);
+                    output.write(entry.getValue());
+                }
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + tempFile, e);
+        }
+        // The target does not exist, so the rename is atomic on all platforms
+        if (!tempFile.renameTo(snapshotFile)) {
+            throw new UncheckedIOException("Could not rename " + tempFile + " to " + snapshotFile);
+        }
+        LOGGER.debug("Compacted {} into generation {} with {} entries.", this, nextGeneration, entries.size());
+
+        generation = nextGeneration;
+        logOffset = 0;
+        snapshotSize = snapshotFile.length();
+
+        // Readers may still have the previous generation open, in which case the delete fails on some platforms. Leftovers are removed by a later compaction
+        for (long oldGeneration = nextGeneration - 1; oldGeneration >= 0; oldGeneration--) {
+            File oldSnapshot = snapshotFile(oldGeneration);
+            File oldLog = logFile(oldGeneration);
+            if (!oldSnapshot.exists() && !oldLog.exists()) {
+                break;
+            }
+            oldSnapshot.delete();
+            oldLog.delete();
+        }
+    }
+
+    private File snapshotFile(long generation) {
+        return new File(dir, baseName + "-" + generation + ".snapshot");
+    }
+
+    private File logFile(long generation) {
+        return new File(dir, baseName + "-" + generation + ".log");
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    private static <T> byte[] serialize(Serializer<T> serializer, T value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        try {
+            serializer.write(encoder, value);
+            encoder.flush();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
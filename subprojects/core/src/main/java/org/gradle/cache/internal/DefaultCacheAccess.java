@@ -268,7 +268,10 @@ public class DefaultCacheAccess implements CacheCoordinator {
         stateLock.lock();
         IndexedCacheEntry entry = caches.get(parameters.getCacheName());
         try {
-            if (entry == null) {
+            if (entry == null && parameters.isLockFreeReads()) {
+                entry = newLockFreeReadsCache(parameters);
+                caches.put(parameters.getCacheName(), entry);
+            } else if (entry == null) {
                 final File cacheFile = new File(baseDir, parameters.getCacheName() + ".bin");
                 LOG.info("Creating new cache for {}, path {}, access {}", parameters.getCacheName(), cacheFile, this);
                 Factory<BTreePersistentIndexedCache<K, V>> indexedCacheFactory = new Factory<BTreePersistentIndexedCache<K, V>>() {
@@ -299,6 +302,16 @@ public class DefaultCacheAccess implements CacheCoordinator {
         }
     }
 
+    private <K, V> IndexedCacheEntry newLockFreeReadsCache(PersistentIndexedCacheParameters<K, V> parameters) {
+        if (parameters.getCacheDecorator() != null) {
+            throw new IllegalArgumentException(String.format("Cache '%s' cannot use both lock-free reads and a cache decorator.", parameters.getCacheName()));
+        }
+        File cacheFile = new File(baseDir, parameters.getCacheName());
+        LOG.info("Creating new lock-free reads cache for {}, path {}, access {}", parameters.getCacheName(), cacheFile, this);
+        MultiProcessSafePersistentIndexedCache<K, V> indexedCache = new AppendOnlyLogPersistentIndexedCache<K, V>(cacheFile, parameters.getKeySerializer(), parameters.getValueSerializer(), crossProcessCacheAccess);
+        return new IndexedCacheEntry(parameters, indexedCache);
+    }
+
     <K, V> BTreePersistentIndexedCache<K, V> doCreateCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
         return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer);
     }
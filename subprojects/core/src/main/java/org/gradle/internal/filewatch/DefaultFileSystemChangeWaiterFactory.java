@@ -123,6 +123,7 @@ public class DefaultFileSystemChangeWaiterFactory implements FileSystemChangeWai
                     return;
                 }
                 cancellationToken.addCallback(cancellationHandler);
+                watcher.awaitRegistrations();
                 notifier.run();
                 lock.lock();
                 try {
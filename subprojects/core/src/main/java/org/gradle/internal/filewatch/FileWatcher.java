@@ -39,4 +39,11 @@ public interface FileWatcher extends Stoppable {
     boolean isRunning();
 
     void watch(FileSystemSubset fileSystemSubset) throws IOException;
+
+    /**
+     * Waits until the file system subsets passed to {@link #watch(FileSystemSubset)} are watched, as they may be registered asynchronously.
+     * Failures to register them are reported to the error handler of the watcher. Changes made to a subset between the call to {@link #watch(FileSystemSubset)}
+     * and its registration are reported to the listener of the watcher before this method returns.
+     */
+    void awaitRegistrations() throws InterruptedException;
 }
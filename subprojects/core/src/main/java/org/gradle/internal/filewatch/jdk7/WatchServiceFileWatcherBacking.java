@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.file.FileSystemSubset;
 import org.gradle.internal.filewatch.FileWatcher;
 import org.gradle.internal.filewatch.FileWatcherEvent;
@@ -30,15 +31,27 @@ import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class WatchServiceFileWatcherBacking {
+    public static final String ASYNC_REGISTRATION_PROPERTY = "org.gradle.internal.filewatch.asyncRegistration";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WatchServiceFileWatcherBacking.class);
 
@@ -51,6 +64,10 @@ public class WatchServiceFileWatcherBacking {
     private final WatchServiceRegistrar watchServiceRegistrar;
     private final WatchService watchService;
     private final WatchServicePoller poller;
+    private final boolean registerAsynchronously;
+    private final Queue<PendingRegistration> pendingRegistrations = new LinkedList<PendingRegistration>();
+    private boolean registering;
+    private volatile ListeningExecutorService executorService;
 
     private final FileWatcher fileWatcher = new FileWatcher() {
         @Override
@@ -60,7 +77,20 @@ public class WatchServiceFileWatcherBacking {
 
         @Override
         public void watch(FileSystemSubset fileSystemSubset) throws IOException {
-            WatchServiceFileWatcherBacking.this.watchServiceRegistrar.watch(fileSystemSubset);
+            if (registerAsynchronously) {
+                scheduleRegistration(fileSystemSubset);
+            } else {
+                WatchServiceFileWatcherBacking.this.watchServiceRegistrar.watch(fileSystemSubset);
+            }
+        }
+
+        @Override
+        public void awaitRegistrations() throws InterruptedException {
+            synchronized (pendingRegistrations) {
+                while (registering) {
+                    pendingRegistrations.wait();
+                }
+            }
         }
 
         @Override
@@ -74,14 +104,20 @@ public class WatchServiceFileWatcherBacking {
     }
 
     WatchServiceFileWatcherBacking(Action<? super Throwable> onError, FileWatcherListener listener, WatchService watchService, WatchServiceRegistrar watchServiceRegistrar) throws IOException {
+        this(onError, listener, watchService, watchServiceRegistrar, Boolean.getBoolean(ASYNC_REGISTRATION_PROPERTY));
+    }
+
+    WatchServiceFileWatcherBacking(Action<? super Throwable> onError, FileWatcherListener listener, WatchService watchService, WatchServiceRegistrar watchServiceRegistrar, boolean registerAsynchronously) throws IOException {
         this.onError = onError;
         this.watchServiceRegistrar = watchServiceRegistrar;
         this.watchService = watchService;
         this.poller = new WatchServicePoller(watchService);
+        this.registerAsynchronously = registerAsynchronously;
     }
 
     public FileWatcher start(ListeningExecutorService executorService) {
         if (started.compareAndSet(false, true)) {
+            this.executorService = executorService;
             final ListenableFuture<?> runLoopFuture = executorService.submit(new Runnable() {
                 @Override
                 public void run() {
@@ -124,6 +160,135 @@ public class WatchServiceFileWatcherBacking {
         }
     }
 
+    /**
+     * Registers the watches on a worker thread rather than the calling thread, which is usually executing a task. Registering the watches for a
+     * large directory tree means walking the whole tree, so it is done in the background while the build continues.
+     *
+     * <p>The watch service does not report the changes made before the watches are registered. So once a subset has been registered, the files in it
+     * are checked for changes made since it was queued, and a change is reported when any are found. Changes are detected using the existence of the
+     * roots of the subset and the modification time of the files and directories in it.</p>
+     */
+    private void scheduleRegistration(FileSystemSubset fileSystemSubset) {
+        PendingRegistration registration = new PendingRegistration(fileSystemSubset);
+        synchronized (pendingRegistrations) {
+            pendingRegistrations.add(registration);
+            if (registering) {
+                return;
+            }
+            registering = true;
+        }
+        try {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    registerPending();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (pendingRegistrations) {
+                pendingRegistrations.clear();
+                registering = false;
+                pendingRegistrations.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void registerPending() {
+        while (true) {
+            PendingRegistration registration;
+            synchronized (pendingRegistrations) {
+                registration = pendingRegistrations.poll();
+                if (registration == null) {
+                    registering = false;
+                    pendingRegistrations.notifyAll();
+                    return;
+                }
+            }
+            if (stopped.get()) {
+                continue;
+            }
+            try {
+                watchServiceRegistrar.watch(registration.fileSystemSubset);
+                FileWatcherEvent missedChange = registration.findChangeSinceQueued();
+                if (missedChange != null && isRunning()) {
+                    LOGGER.debug("Detected change made before the watches for {} were registered: {}", registration.fileSystemSubset, missedChange);
+                    watchServiceRegistrar.onChange(fileWatcher, missedChange);
+                }
+            } catch (Throwable t) {
+                onError.execute(t);
+            }
+        }
+    }
+
+    private static class PendingRegistration {
+        private final FileSystemSubset fileSystemSubset;
+        private final long queuedAt;
+        private final Set<File> existingRoots = new HashSet<File>();
+
+        PendingRegistration(FileSystemSubset fileSystemSubset) {
+            this.fileSystemSubset = fileSystemSubset;
+            // File systems may only record modification times with a precision of a second
+            long now = System.currentTimeMillis();
+            this.queuedAt = now - now % 1000;
+            for (File root : fileSystemSubset.getRoots()) {
+                if (root.exists()) {
+                    existingRoots.add(root);
+                }
+            }
+        }
+
+        /**
+         * Returns an event for a change made to this subset since it was queued, or null when no change is found.
+         */
+        @Nullable
+        FileWatcherEvent findChangeSinceQueued() throws IOException {
+            for (File root : fileSystemSubset.getRoots()) {
+                boolean existed = existingRoots.contains(root);
+                if (!root.exists()) {
+                    if (existed) {
+                        return FileWatcherEvent.delete(root);
+                    }
+                    continue;
+                }
+                if (!existed) {
+                    return FileWatcherEvent.create(root);
+                }
+                final FileWatcherEvent[] change = new FileWatcherEvent[1];
+                Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        if (attrs.lastModifiedTime().toMillis() >= queuedAt && fileSystemSubset.contains(dir.toFile())) {
+                            // A file was added to, removed from or renamed within this directory, which is not reflected in the modification time of the file
+                            change[0] = FileWatcherEvent.undefined();
+                            return FileVisitResult.TERMINATE;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.lastModifiedTime().toMillis() >= queuedAt && fileSystemSubset.contains(file.toFile())) {
+                            change[0] = FileWatcherEvent.modify(file.toFile());
+                            return FileVisitResult.TERMINATE;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        // The file was removed while walking the tree, which the watches report
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+                if (change[0] != null) {
+                    return change[0];
+                }
+            }
+            return null;
+        }
+    }
+
     private void pumpEvents() throws InterruptedException {
         while (isRunning()) {
             try {
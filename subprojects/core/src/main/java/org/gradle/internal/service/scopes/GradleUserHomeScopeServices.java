@@ -22,6 +22,7 @@ import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
 import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.changedetection.state.AbiExtractingClasspathResourceHasher;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.ClasspathSnapshotter;
 import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache;
@@ -149,6 +150,11 @@ public class GradleUserHomeScopeServices {
         return new DefaultClasspathHasher(snapshotter);
     }
 
+    AbiExtractingClasspathResourceHasher createAbiExtractingClasspathResourceHasher(TaskHistoryStore store, FileHasher fileHasher) {
+        PersistentIndexedCache<HashCode, HashCode> abiHashes = store.createCache("classAbiHashes", HashCode.class, new HashCodeSerializer(), 400000, true);
+        return new AbiExtractingClasspathResourceHasher(abiHashes, fileHasher);
+    }
+
     HashingClassLoaderFactory createClassLoaderFactory(ClasspathHasher classpathHasher) {
         return new DefaultHashingClassLoaderFactory(classpathHasher);
     }
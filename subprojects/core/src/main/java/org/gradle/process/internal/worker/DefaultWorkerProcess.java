@@ -193,6 +193,11 @@ public class DefaultWorkerProcess implements WorkerProcess {
         }
     }
 
+    @Override
+    public void stopNow() {
+        cleanup();
+    }
+
     private void cleanup() {
         CompositeStoppable stoppable;
         execHandle.abort();
@@ -228,6 +228,11 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
             return delegate.waitForStop();
         }
 
+        @Override
+        public void stopNow() {
+            delegate.stopNow();
+        }
+
         @Override
         public JvmMemoryStatus getJvmMemoryStatus() {
             return delegate.getJvmMemoryStatus();
@@ -34,5 +34,10 @@ public interface WorkerProcess {
 
     ExecResult waitForStop();
 
+    /**
+     * Kills the worker process, without waiting for it to finish its work.
+     */
+    void stopNow();
+
     JvmMemoryStatus getJvmMemoryStatus();
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import com.google.common.hash.HashCode
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.hash.DefaultFileHasher
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.serialize.HashCodeSerializer
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.zip.ZipEntry
+
+@CleanupTestDirectory(fieldName = "tmpDir")
+class AbiExtractingClasspathResourceHasherTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def fileHasher = new DefaultFileHasher()
+    def abiHashes = new InMemoryIndexedCache<HashCode, HashCode>(new HashCodeSerializer())
+    def hasher = new AbiExtractingClasspathResourceHasher(abiHashes, fileHasher)
+    def classBytes = getClass().classLoader.getResourceAsStream(AbiExtractingClasspathResourceHasher.name.replace('.', '/') + ".class").bytes
+
+    def "hashes the ABI of class files"() {
+        def classFile = tmpDir.file("classes/Foo.class")
+        classFile.bytes = classBytes
+
+        when:
+        def abiHash = hasher.hash(snapshot(classFile, fileHasher.hash(classFile)))
+
+        then:
+        abiHash != null
+        abiHash != fileHasher.hash(classFile)
+        abiHashes.get(fileHasher.hash(classFile)) == abiHash
+    }
+
+    def "ignores files which are not class files"() {
+        def textFile = tmpDir.file("classes/foo.txt") << "foo"
+
+        expect:
+        hasher.hash(snapshot(textFile, fileHasher.hash(textFile))) == null
+        hasher.hash(new ZipEntry("foo.txt"), new ByteArrayInputStream("foo".bytes)) == null
+    }
+
+    def "does not read class file when ABI hash for its content is cached"() {
+        def cache = Mock(PersistentIndexedCache)
+        def cachingHasher = new AbiExtractingClasspathResourceHasher(cache, fileHasher)
+        def contentHash = HashCode.fromInt(123)
+        def cachedAbiHash = HashCode.fromInt(456)
+
+        when:
+        def abiHash = cachingHasher.hash(snapshot(tmpDir.file("does-not-exist/Foo.class"), contentHash))
+
+        then:
+        1 * cache.get(contentHash) >> cachedAbiHash
+        0 * _
+
+        and:
+        abiHash == cachedAbiHash
+    }
+
+    def "jar entries share cached ABI hashes with class files of the same content"() {
+        def classFile = tmpDir.file("classes/Foo.class")
+        classFile.bytes = classBytes
+        def abiHash = hasher.hash(snapshot(classFile, fileHasher.hash(classFile)))
+
+        def cache = Mock(PersistentIndexedCache)
+        def cachingHasher = new AbiExtractingClasspathResourceHasher(cache, fileHasher)
+
+        when:
+        def entryHash = cachingHasher.hash(new ZipEntry("org/gradle/Foo.class"), new ByteArrayInputStream(classBytes))
+
+        then:
+        1 * cache.get(fileHasher.hash(classFile)) >> abiHash
+        0 * _
+
+        and:
+        entryHash == abiHash
+    }
+
+    def "jar entries with unchanged content have the same ABI hash"() {
+        when:
+        def first = hasher.hash(new ZipEntry("org/gradle/Foo.class"), new ByteArrayInputStream(classBytes))
+        def second = hasher.hash(new ZipEntry("org/gradle/Bar.class"), new ByteArrayInputStream(classBytes))
+
+        then:
+        first != null
+        first == second
+    }
+
+    private static RegularFileSnapshot snapshot(File file, HashCode contentHash) {
+        new RegularFileSnapshot(file.path, RelativePath.parse(true, file.name), false, new FileHashSnapshot(contentHash))
+    }
+}
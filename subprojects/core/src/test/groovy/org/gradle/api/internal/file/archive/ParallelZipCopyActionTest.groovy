@@ -0,0 +1,390 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive
+
+import org.apache.tools.zip.ZipFile
+import org.apache.tools.zip.ZipOutputStream
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream
+import org.gradle.api.internal.file.copy.DefaultFileCopyDetails
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
+import org.gradle.api.tasks.bundling.Zip
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.nativeintegration.filesystem.Chmod
+import org.gradle.internal.nativeintegration.filesystem.Stat
+import org.gradle.test.fixtures.archive.ZipTestFixture
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.zip.ZipEntry
+
+import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit
+import static org.hamcrest.Matchers.equalTo
+
+class ParallelZipCopyActionTest extends Specification {
+
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def executorFactory = new DefaultExecutorFactory()
+    ParallelZipCopyAction visitor
+    TestFile zipFile
+    TestFile temporaryDir
+    def encoding = 'UTF-8'
+
+    def setup() {
+        zipFile = tmpDir.getTestDirectory().file("test.zip")
+        temporaryDir = tmpDir.createDir("tmp")
+        visitor = action(ZipOutputStream.STORED, 4)
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    @Unroll
+    def "creates zip file with #method entries"() {
+        given:
+        visitor = action(method, 4)
+        zip(dir("dir"), file("dir/file1"), file("file2"), file("dir/été"))
+
+        when:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"))
+        expandDir.file("file2").assertContents(equalTo("contents of file2"))
+        expandDir.file("dir/été").assertContents(equalTo("contents of dir/été"))
+
+        where:
+        method << [ZipOutputStream.STORED, ZipOutputStream.DEFLATED]
+    }
+
+    def "zip file contains expected permissions"() {
+        given:
+        zip(dir("dir"), file("file"))
+
+        expect:
+        def zipFixture = new ZipTestFixture(zipFile)
+        zipFixture.assertFileMode("dir/", 2)
+        zipFixture.assertFileMode("file", 1)
+    }
+
+    def "creates the same archive regardless of the number of workers"() {
+        given:
+        def files = (1..50).collect { file("dir/file$it") } as FileCopyDetailsInternal[]
+
+        when:
+        visitor = action(ZipOutputStream.DEFLATED, 1)
+        zip(files)
+        def sequential = zipFile.bytes
+        visitor = action(ZipOutputStream.DEFLATED, 8)
+        zip(files)
+
+        then:
+        zipFile.bytes == sequential
+    }
+
+    def "compresses large regular files on worker threads"() {
+        given:
+        def large = tmpDir.file("src/large.bin")
+        large.bytes = new byte[17 * 1024 * 1024]
+        def visitingThread = Thread.currentThread()
+        def readingThreads = Collections.synchronizedSet(new HashSet<Thread>())
+        def details = Mock(DefaultFileCopyDetails)
+        details.getRelativePath() >> RelativePath.parse(true, "large.bin")
+        details.getLastModified() >> 1000L
+        details.isDirectory() >> false
+        details.getMode() >> 0644
+        details.getUnmodifiedSource() >> new DefaultFileVisitDetails(large, Stub(Chmod), Stub(Stat))
+        details.copyTo(_ as OutputStream) >> { OutputStream out ->
+            readingThreads << Thread.currentThread()
+            out << large.bytes
+        }
+        visitor = action(ZipOutputStream.DEFLATED, 4)
+
+        when:
+        zip(details)
+
+        then:
+        readingThreads.size() == 1
+        !readingThreads.contains(visitingThread)
+
+        and:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("large.bin").length() == large.length()
+        temporaryDir.listFiles().length == 0
+    }
+
+    def "compresses large filtered content to a temporary file"() {
+        given:
+        def content = new byte[17 * 1024 * 1024]
+        new Random(1).nextBytes(content)
+        def details = Mock(FileCopyDetailsInternal)
+        details.getRelativePath() >> RelativePath.parse(true, "large.bin")
+        details.getLastModified() >> 1000L
+        details.isDirectory() >> false
+        details.getMode() >> 0644
+        details.copyTo(_ as OutputStream) >> { OutputStream out ->
+            (0..<17).each { out.write(content, it * 1024 * 1024, 1024 * 1024) }
+        }
+        visitor = action(method, 4)
+
+        when:
+        zip(details, file("small"))
+
+        then:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("large.bin").bytes == content
+        expandDir.file("small").assertContents(equalTo("contents of small"))
+
+        and:
+        temporaryDir.listFiles().length == 0
+        tmpDir.testDirectory.listFiles().findAll { it.name.endsWith(".entry") }.empty
+
+        where:
+        method << [ZipOutputStream.STORED, ZipOutputStream.DEFLATED]
+    }
+
+    def "copies compressed content of unchanged zip entries as is"() {
+        given:
+        def sourceZip = tmpDir.file("source.zip")
+        new java.util.zip.ZipOutputStream(new FileOutputStream(sourceZip)).withStream { out ->
+            out.putNextEntry(new ZipEntry("file.txt"))
+            out << "contents of file.txt"
+            out.closeEntry()
+        }
+        visitor = action(ZipOutputStream.DEFLATED, 4)
+
+        when:
+        def sourceZipFile = new ZipFile(sourceZip)
+        try {
+            def source = Mock(ZipEntryFileVisitDetails)
+            source.getZipFile() >> sourceZip
+            source.getZipEntry() >> sourceZipFile.getEntry("file.txt")
+            def details = Mock(DefaultFileCopyDetails)
+            details.getRelativePath() >> RelativePath.parse(true, "copied/file.txt")
+            details.getLastModified() >> 1000L
+            details.isDirectory() >> false
+            details.getMode() >> 0644
+            details.getUnmodifiedSource() >> source
+            zip(details)
+        } finally {
+            sourceZipFile.close()
+        }
+
+        then:
+        0 * _.copyTo(_)
+        0 * _.open()
+
+        and:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("copied/file.txt").assertContents(equalTo("contents of file.txt"))
+    }
+
+    def "reuses entries of the previous archive for unchanged files"() {
+        given:
+        def unchanged = tmpDir.file("src/unchanged.txt") << "unchanged content"
+        def changed = tmpDir.file("src/changed.txt") << "original content"
+        visitor = action(ZipOutputStream.DEFLATED, 4)
+        zip(sourceFile(unchanged), sourceFile(changed))
+        changed.text = "modified content"
+        def unchangedDetails = sourceFile(unchanged)
+        def changedDetails = sourceFile(changed)
+
+        when:
+        visitor = incrementalAction([changed] as Set)
+        zip(unchangedDetails, changedDetails)
+
+        then:
+        0 * unchangedDetails.copyTo(_)
+        1 * changedDetails.copyTo(_ as OutputStream) >> { OutputStream out -> out << changed.bytes }
+
+        and:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("unchanged.txt").assertContents(equalTo("unchanged content"))
+        expandDir.file("changed.txt").assertContents(equalTo("modified content"))
+        !tmpDir.file("test.zip.previous").exists()
+        temporaryDir.listFiles().length == 0
+    }
+
+    def "moves the previous archive aside into the temporary directory"() {
+        given:
+        def source = tmpDir.file("src/file.txt") << "content"
+        visitor = action(ZipOutputStream.DEFLATED, 4)
+        zip(sourceFile(source))
+        def details = sourceFile(source)
+        def previousExisted = null
+
+        when:
+        visitor = incrementalAction([] as Set)
+        zip(details)
+
+        then:
+        1 * details.getUnmodifiedSource() >> {
+            previousExisted = temporaryDir.file("test.zip.previous").exists()
+            new DefaultFileVisitDetails(source, Stub(Chmod), Stub(Stat))
+        }
+        previousExisted
+        !tmpDir.file("test.zip.previous").exists()
+        !temporaryDir.file("test.zip.previous").exists()
+    }
+
+    def "does not reuse entry of the previous archive created from different content"() {
+        given:
+        def first = tmpDir.file("src/first.txt") << "first content"
+        def second = tmpDir.file("src/second.txt") << "other content"
+        visitor = action(ZipOutputStream.DEFLATED, 4)
+        zip(sourceFile(first, "file.txt"))
+        def details = sourceFile(second, "file.txt")
+
+        when:
+        visitor = incrementalAction([] as Set)
+        zip(details)
+
+        then:
+        1 * details.copyTo(_ as OutputStream) >> { OutputStream out -> out << second.bytes }
+
+        and:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("file.txt").assertContents(equalTo("other content"))
+    }
+
+    def "wraps failure to open output file"() {
+        given:
+        def invalidZipFile = tmpDir.createDir("test.zip")
+        visitor = new ParallelZipCopyAction(invalidZipFile, temporaryDir, ZipOutputStream.STORED, false, new DocumentationRegistry(), encoding, false, executorFactory, 4)
+
+        when:
+        visitor.execute(new CopyActionProcessingStream() {
+            void process(CopyActionProcessingStreamAction action) {
+                // nothing
+            }
+        })
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not create ZIP '%s'.", zipFile)
+    }
+
+    def "wraps zip64 failure"() {
+        given:
+        def docRegistry = Mock(DocumentationRegistry)
+        1 * docRegistry.getDslRefForProperty(Zip, "zip64") >> "doc url"
+        0 * docRegistry._
+        visitor = new ParallelZipCopyAction(zipFile, temporaryDir, ZipOutputStream.STORED, false, docRegistry, encoding, false, executorFactory, 4)
+
+        when:
+        zip(([dir("dir")] * 65535) as FileCopyDetailsInternal[])
+
+        then:
+        def e = thrown(org.gradle.api.tasks.bundling.internal.Zip64RequiredException)
+        e.message == "archive contains more than 65535 entries.\n\nTo build this archive, please enable the zip64 extension.\nSee: doc url"
+    }
+
+    def "wraps failure to add element"() {
+        given:
+        Throwable failure = new RuntimeException("broken")
+        def brokenFile = brokenFile("dir/file1", failure)
+
+        when:
+        visit(visitor, file("file1"), brokenFile)
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not add $brokenFile to ZIP '%s'.", zipFile)
+        e.cause.is(failure)
+    }
+
+    private ParallelZipCopyAction action(int method, int maxWorkers) {
+        new ParallelZipCopyAction(zipFile, temporaryDir, method, false, new DocumentationRegistry(), encoding, false, executorFactory, maxWorkers)
+    }
+
+    private ParallelZipCopyAction incrementalAction(Set<File> changedFiles) {
+        new ParallelZipCopyAction(zipFile, temporaryDir, ZipOutputStream.DEFLATED, false, new DocumentationRegistry(), encoding, false, executorFactory, 4, changedFiles)
+    }
+
+    private void zip(final FileCopyDetailsInternal... files) {
+        visitor.execute(new CopyActionProcessingStream() {
+            void process(CopyActionProcessingStreamAction action) {
+                for (FileCopyDetailsInternal f : files) {
+                    action.processFile(f)
+                }
+            }
+        })
+    }
+
+    private FileCopyDetailsInternal file(final String path) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            out.write("contents of $path".getBytes("UTF-8"))
+        }
+        mock
+    }
+
+    private DefaultFileCopyDetails sourceFile(final File file, final String path = file.name) {
+        def mock = Mock(DefaultFileCopyDetails)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 0644
+        mock.getUnmodifiedSource() >> new DefaultFileVisitDetails(file, Stub(Chmod), Stub(Stat))
+        mock.copyTo(_ as OutputStream) >> { OutputStream out -> out << file.bytes }
+        mock
+    }
+
+    private FileCopyDetailsInternal dir(final String path) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> true
+        mock.getMode() >> 2
+        mock
+    }
+
+    private FileCopyDetailsInternal brokenFile(final String path, final Throwable failure) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            failure.fillInStackTrace()
+            throw failure
+        }
+        mock
+    }
+
+    interface ZipEntryFileVisitDetails extends FileVisitDetails, ZipEntryDetails {
+    }
+}
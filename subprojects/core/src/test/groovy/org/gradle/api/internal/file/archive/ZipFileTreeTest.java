@@ -17,13 +17,20 @@ package org.gradle.api.internal.file.archive;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.ExpandableFileTreeElement;
+import org.gradle.api.internal.hash.DefaultFileHasher;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.gradle.util.Resources;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.gradle.api.file.FileVisitorUtil.*;
@@ -31,7 +38,9 @@ import static org.gradle.api.internal.file.TestFiles.directoryFileTreeFactory;
 import static org.gradle.api.internal.file.TestFiles.fileSystem;
 import static org.gradle.api.tasks.AntBuilderAwareUtil.assertSetContainsForAllTypes;
 import static org.gradle.util.WrapUtil.toList;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -67,6 +76,28 @@ public class ZipFileTreeTest {
         assertCanStopVisiting(tree);
     }
 
+    @Test
+    public void doesNotExpandEntriesWhenReadingTheirContent() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+        final DefaultFileHasher hasher = new DefaultFileHasher();
+        final List<File> expandedFiles = new ArrayList<File>();
+
+        tree.visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                expandedFiles.add(((ExpandableFileTreeElement) fileDetails).getExpandedFile());
+                assertThat(hasher.hash(fileDetails), equalTo(hasher.hash(rootDir.file("subdir/file1.txt"))));
+            }
+        });
+
+        assertThat(expandedFiles.size(), equalTo(1));
+        assertThat(expandedFiles.get(0).getPath(), endsWith("subdir" + File.separator + "file1.txt"));
+        assertFalse(expandedFiles.get(0).exists());
+    }
+
     @Test
     public void failsWhenZipFileDoesNotExist() {
         try {
@@ -16,11 +16,17 @@
 
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.Transformer;
+import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.api.internal.file.TestFiles;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.jmock.Expectations;
 import org.jmock.integration.junit4.JMock;
+import org.jmock.Sequence;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Before;
 import org.junit.Rule;
@@ -29,8 +35,16 @@ import org.junit.runner.RunWith;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(JMock.class)
 public class FileCopyActionTest {
@@ -54,11 +68,124 @@ public class FileCopyActionTest {
         );
     }
 
+    @Test
+    public void copiesFilesWhichMayNotBeCopiedConcurrentlyInVisitingOrder() {
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+        try {
+            FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir), executorFactory, 4);
+            Sequence sequence = context.sequence("copies");
+            visit(visitor,
+                    file(new RelativePath(true, "rootfile.txt"), new File(destDir, "rootfile.txt"), sequence),
+                    file(new RelativePath(true, "subdir", "anotherfile.txt"), new File(destDir, "subdir/anotherfile.txt"), sequence)
+            );
+        } finally {
+            executorFactory.stop();
+        }
+    }
+
+    @Test
+    public void copiesUnfilteredRegularFilesConcurrentlyAndLastFileCopiedToTheSameTargetWins() {
+        final CopySpecResolver specResolver = context.mock(CopySpecResolver.class);
+        context.checking(new Expectations() {{
+            allowing(specResolver).getFilteringCharset();
+            will(returnValue("UTF-8"));
+            allowing(specResolver).getDuplicatesStrategy();
+            will(returnValue(DuplicatesStrategy.INCLUDE));
+        }});
+        final Set<Thread> copyingThreads = Collections.synchronizedSet(new HashSet<Thread>());
+        List<FileCopyDetailsInternal> files = new ArrayList<FileCopyDetailsInternal>();
+        for (int i = 0; i < 20; i++) {
+            TestFile source = tmpDir.file("src/file" + i + ".txt").write("content " + i);
+            files.add(unfilteredFile(source, "file" + i + ".txt", specResolver, copyingThreads));
+        }
+        files.add(unfilteredFile(tmpDir.file("src1/duplicate.txt").write("first"), "duplicate.txt", specResolver, copyingThreads));
+        files.add(unfilteredFile(tmpDir.file("src2/duplicate.txt").write("second"), "duplicate.txt", specResolver, copyingThreads));
+
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+        try {
+            visit(new FileCopyAction(TestFiles.resolver(destDir), executorFactory, 4), files);
+        } finally {
+            executorFactory.stop();
+        }
+
+        for (int i = 0; i < 20; i++) {
+            tmpDir.file("dest/file" + i + ".txt").assertContents(equalTo("content " + i));
+        }
+        tmpDir.file("dest/duplicate.txt").assertContents(equalTo("second"));
+        assertFalse(copyingThreads.isEmpty());
+        assertFalse(copyingThreads.contains(Thread.currentThread()));
+        assertTrue(copyingThreads.size() <= 4);
+    }
+
+    @Test
+    public void appliesFiltersConcurrentlyWhenRequested() {
+        final CopySpecResolver specResolver = context.mock(CopySpecResolver.class);
+        context.checking(new Expectations() {{
+            allowing(specResolver).getFilteringCharset();
+            will(returnValue("UTF-8"));
+            allowing(specResolver).getDuplicatesStrategy();
+            will(returnValue(DuplicatesStrategy.INCLUDE));
+        }});
+        List<FileCopyDetailsInternal> files = new ArrayList<FileCopyDetailsInternal>();
+        for (int i = 0; i < 20; i++) {
+            TestFile source = tmpDir.file("src/file" + i + ".txt").write("line " + i);
+            DefaultFileCopyDetails details = new DefaultFileCopyDetails(new DefaultFileVisitDetails(source, TestFiles.fileSystem(), TestFiles.fileSystem()), specResolver, TestFiles.fileSystem());
+            details.setRelativePath(new RelativePath(true, "file" + i + ".txt"));
+            details.setMode(0644);
+            details.filter(new Transformer<String, String>() {
+                public String transform(String line) {
+                    return line.toUpperCase();
+                }
+            });
+            files.add(details);
+        }
+
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+        try {
+            visit(new FileCopyAction(TestFiles.resolver(destDir), executorFactory, 4, true), files);
+        } finally {
+            executorFactory.stop();
+        }
+
+        for (int i = 0; i < 20; i++) {
+            tmpDir.file("dest/file" + i + ".txt").assertContents(equalTo("LINE " + i));
+        }
+    }
+
+    private DefaultFileCopyDetails unfilteredFile(TestFile source, String path, CopySpecResolver specResolver, final Set<Thread> copyingThreads) {
+        DefaultFileVisitDetails sourceDetails = new DefaultFileVisitDetails(source, TestFiles.fileSystem(), TestFiles.fileSystem()) {
+            @Override
+            public boolean copyTo(File target) {
+                copyingThreads.add(Thread.currentThread());
+                return super.copyTo(target);
+            }
+        };
+        DefaultFileCopyDetails details = new DefaultFileCopyDetails(sourceDetails, specResolver, TestFiles.fileSystem());
+        details.setRelativePath(new RelativePath(true, path));
+        details.setMode(0644);
+        return details;
+    }
+
+    private FileCopyDetailsInternal file(final RelativePath relativePath, final File targetFile, final Sequence sequence) {
+        final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, relativePath.getPathString());
+        context.checking(new Expectations() {{
+            allowing(details).getRelativePath();
+            will(returnValue(relativePath));
+            allowing(details).isDirectory();
+            will(returnValue(false));
+            one(details).copyTo(targetFile);
+            inSequence(sequence);
+        }});
+        return details;
+    }
+
     private FileCopyDetailsInternal file(final RelativePath relativePath, final File targetFile) {
         final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, relativePath.getPathString());
         context.checking(new Expectations() {{
             allowing(details).getRelativePath();
             will(returnValue(relativePath));
+            allowing(details).isDirectory();
+            will(returnValue(false));
             one(details).copyTo(targetFile);
         }});
         return details;
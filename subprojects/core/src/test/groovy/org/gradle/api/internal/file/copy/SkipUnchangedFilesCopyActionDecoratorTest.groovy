@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.hash.DefaultFileHasher
+import org.gradle.api.internal.tasks.SimpleWorkResult
+import org.gradle.api.tasks.WorkResult
+import org.gradle.internal.nativeintegration.filesystem.Chmod
+import org.gradle.internal.nativeintegration.filesystem.FileSystem
+import org.gradle.internal.nativeintegration.filesystem.Stat
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit
+
+class SkipUnchangedFilesCopyActionDecoratorTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def fileSystem = Mock(FileSystem)
+    def delegateAction = Mock(CopyActionProcessingStreamAction)
+    def delegate = new CopyAction() {
+        WorkResult execute(CopyActionProcessingStream stream) {
+            stream.process(delegateAction)
+            return new SimpleWorkResult(false)
+        }
+    }
+    def destDir = tmpDir.file("dest")
+    def decorator = new SkipUnchangedFilesCopyActionDecorator(destDir, delegate, new DefaultFileHasher(), fileSystem)
+
+    def "does not copy file whose destination has the same content"() {
+        given:
+        def source = tmpDir.file("src/file.txt") << "content"
+        destDir.file("file.txt") << "content"
+        def details = sourceFile(source)
+
+        when:
+        def result = visit(decorator, details)
+
+        then:
+        1 * fileSystem.getUnixMode(destDir.file("file.txt")) >> 0644
+        0 * delegateAction._
+        0 * fileSystem.chmod(_, _)
+
+        and:
+        !result.didWork
+    }
+
+    def "updates permissions of destination file with the same content"() {
+        given:
+        def source = tmpDir.file("src/file.txt") << "content"
+        destDir.file("file.txt") << "content"
+        def details = sourceFile(source)
+
+        when:
+        def result = visit(decorator, details)
+
+        then:
+        1 * fileSystem.getUnixMode(destDir.file("file.txt")) >> 0600
+        1 * fileSystem.chmod(destDir.file("file.txt"), 0644)
+        0 * delegateAction._
+
+        and:
+        result.didWork
+    }
+
+    def "copies file whose destination is missing or has different content"() {
+        given:
+        def changed = tmpDir.file("src/changed.txt") << "content"
+        def added = tmpDir.file("src/added.txt") << "content"
+        destDir.file("changed.txt") << "CONTENT"
+        def changedDetails = sourceFile(changed)
+        def addedDetails = sourceFile(added)
+
+        when:
+        visit(decorator, changedDetails, addedDetails)
+
+        then:
+        1 * delegateAction.processFile(changedDetails)
+        1 * delegateAction.processFile(addedDetails)
+        0 * fileSystem._
+    }
+
+    def "copies file with the same content as destination when an earlier file was copied to the same destination"() {
+        given:
+        def first = tmpDir.file("src1/file.txt") << "other content"
+        def second = tmpDir.file("src2/file.txt") << "content"
+        destDir.file("file.txt") << "content"
+        def firstDetails = sourceFile(first)
+        def secondDetails = sourceFile(second)
+
+        when:
+        visit(decorator, firstDetails, secondDetails)
+
+        then:
+        1 * delegateAction.processFile(firstDetails)
+
+        then:
+        1 * delegateAction.processFile(secondDetails)
+        0 * fileSystem._
+    }
+
+    def "copies filtered file"() {
+        given:
+        tmpDir.file("src/file.txt") << "content"
+        destDir.file("file.txt") << "content"
+        def details = Mock(DefaultFileCopyDetails)
+        details.getRelativePath() >> RelativePath.parse(true, "file.txt")
+        details.isDirectory() >> false
+        details.getUnmodifiedSource() >> null
+
+        when:
+        visit(decorator, details)
+
+        then:
+        1 * delegateAction.processFile(details)
+    }
+
+    private DefaultFileCopyDetails sourceFile(File file) {
+        def details = Mock(DefaultFileCopyDetails)
+        details.getRelativePath() >> RelativePath.parse(true, file.name)
+        details.isDirectory() >> false
+        details.getMode() >> 0644
+        details.getUnmodifiedSource() >> new DefaultFileVisitDetails(file, Stub(Chmod), Stub(Stat))
+        details
+    }
+}
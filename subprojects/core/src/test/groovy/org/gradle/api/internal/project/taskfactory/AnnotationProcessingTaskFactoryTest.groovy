@@ -96,6 +96,14 @@ class AnnotationProcessingTaskFactoryTest extends AbstractProjectBuilderSpec {
         1 * action.execute(_ as IncrementalTaskInputs)
     }
 
+    def canDeclareIncrementalTaskActionOnSubclassOfArchiveTask() {
+        when:
+        def task = expectTaskCreated(ZipWithIncrementalAction)
+
+        then:
+        task.actions.size() == 2
+    }
+
     def cachesClassMetaInfo() {
         given:
         def task = expectTaskCreated(TaskWithInputFile, existingFile)
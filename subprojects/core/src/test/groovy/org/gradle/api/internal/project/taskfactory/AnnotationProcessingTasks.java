@@ -29,6 +29,7 @@ import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.OutputFiles;
 import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.bundling.Zip;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 
 import java.io.File;
@@ -133,6 +134,12 @@ public class AnnotationProcessingTasks {
         }
     }
 
+    public static class ZipWithIncrementalAction extends Zip {
+        @TaskAction
+        public void update(IncrementalTaskInputs changes) {
+        }
+    }
+
     public static class TaskWithSingleParamAction extends DefaultTask {
         @TaskAction
         public void doStuff(int value1) {
@@ -17,8 +17,10 @@ package org.gradle.api.internal.tasks
 
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.changedetection.TaskArtifactState
 import org.gradle.api.internal.file.FileResolver
 import org.gradle.api.internal.file.FileTreeInternal
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
 import org.gradle.util.UsesNativeServices
 import spock.lang.Specification
 
@@ -266,4 +268,31 @@ class DefaultTaskInputsTest extends Specification {
         inputs.hasInputs
         inputs.hasSourceFiles
     }
+
+    def "input changes are available only while the task artifact state is set"() {
+        def taskArtifactState = Mock(TaskArtifactState)
+        def changes = Stub(IncrementalTaskInputs)
+
+        when:
+        inputs.inputChanges
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "Task input changes are currently not available for this task."
+
+        when:
+        inputs.setTaskArtifactState(taskArtifactState)
+        def result = inputs.inputChanges
+
+        then:
+        1 * taskArtifactState.getInputChanges() >> changes
+        result.is(changes)
+
+        when:
+        inputs.setTaskArtifactState(null)
+        inputs.inputChanges
+
+        then:
+        thrown(IllegalStateException)
+    }
 }
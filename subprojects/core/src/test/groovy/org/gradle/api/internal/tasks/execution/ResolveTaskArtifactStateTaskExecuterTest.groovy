@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.execution
 import org.gradle.api.Action
 import org.gradle.api.Task
 import org.gradle.api.internal.TaskExecutionHistory
+import org.gradle.api.internal.TaskInputsInternal
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.TaskOutputsInternal
 import org.gradle.api.internal.changedetection.TaskArtifactState
@@ -32,6 +33,7 @@ import spock.lang.Subject
 @Subject(ResolveTaskArtifactStateTaskExecuter)
 class ResolveTaskArtifactStateTaskExecuterTest extends Specification {
     final delegate = Mock(TaskExecuter)
+    final inputs = Mock(TaskInputsInternal)
     final outputs = Mock(TaskOutputsInternal)
     final task = Mock(TaskInternal)
     final taskState = Mock(TaskStateInternal)
@@ -51,6 +53,8 @@ class ResolveTaskArtifactStateTaskExecuterTest extends Specification {
         1 * repository.getStateFor(task) >> taskArtifactState
         1 * taskContext.setTaskArtifactState(taskArtifactState)
         1 * taskArtifactState.getExecutionHistory() >> taskExecutionhistory
+        1 * task.getInputs() >> inputs
+        1 * inputs.setTaskArtifactState(taskArtifactState)
         1 * task.getOutputs() >> outputs
         1 * outputs.setHistory(taskExecutionhistory)
 
@@ -59,6 +63,7 @@ class ResolveTaskArtifactStateTaskExecuterTest extends Specification {
 
         then: 'task artifact state is removed from taskContext'
         1 * outputs.setHistory(null)
+        1 * inputs.setTaskArtifactState(null)
         1 * taskContext.setTaskArtifactState(null)
 
         and: 'nothing else'
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal
+
+import org.gradle.internal.Factory
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AppendOnlyLogPersistentIndexedCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final cacheAccess = Mock(CrossProcessCacheAccess)
+    final cacheFile = tmpDir.file("cache")
+
+    def "does not lock when reading entries"() {
+        def cache = newCache()
+
+        when:
+        def result = cache.get("key")
+
+        then:
+        result == null
+        0 * cacheAccess._
+    }
+
+    def "locks when writing entries"() {
+        def cache = newCache()
+
+        when:
+        cache.put("key", "value")
+
+        then:
+        1 * cacheAccess.withFileLock(_) >> { Factory action -> action.create() }
+
+        when:
+        def result = cache.get("key")
+
+        then:
+        result == "value"
+        0 * cacheAccess._
+    }
+
+    def "reader sees entries written by another instance"() {
+        def writer = newCache()
+        def reader = newCache()
+        _ * cacheAccess.withFileLock(_) >> { Factory action -> action.create() }
+
+        expect:
+        reader.get("a") == null
+
+        when:
+        writer.put("a", "1")
+        writer.put("b", "2")
+        writer.remove("b")
+
+        then:
+        reader.get("a") == "1"
+        reader.get("b") == null
+
+        when:
+        writer.put("a", "3")
+
+        then:
+        reader.get("a") == "3"
+    }
+
+    def "ignores incomplete record at end of log and overwrites it on next write"() {
+        def writer = newCache()
+        _ * cacheAccess.withFileLock(_) >> { Factory action -> action.create() }
+        writer.put("a", "1")
+        def logFile = tmpDir.file("cache-0.log")
+
+        when:
+        logFile << [0, 0, 0, 20, 1, 2] as byte[]
+        def reader = newCache()
+
+        then:
+        reader.get("a") == "1"
+
+        when:
+        newCache().put("b", "2")
+
+        then:
+        reader.get("a") == "1"
+        reader.get("b") == "2"
+    }
+
+    def "compacts log into new snapshot generation when lock is released"() {
+        def writer = newCache()
+        def reader = newCache()
+        _ * cacheAccess.withFileLock(_) >> { Factory action -> action.create() }
+        def value = "x" * 1024
+        2000.times { writer.put("key" + it, value) }
+        writer.put("key0", "y")
+        writer.remove("key1")
+
+        expect:
+        reader.get("key2") == value
+
+        when:
+        writer.finishWork()
+
+        then:
+        tmpDir.file("cache-1.snapshot").isFile()
+        !tmpDir.file("cache-0.log").exists()
+
+        and:
+        reader.get("key0") == "y"
+        reader.get("key1") == null
+        reader.get("key1999") == value
+        newCache().get("key3") == value
+
+        when:
+        writer.put("key4", "z")
+
+        then:
+        tmpDir.file("cache-1.log").isFile()
+        newCache().get("key4") == "z"
+    }
+
+    def "reloads latest generation when another instance compacts several times between refreshes"() {
+        def writer = newCache()
+        def reader = newCache()
+        def lockFreeReader = newCache()
+        _ * cacheAccess.withFileLock(_) >> { Factory action -> action.create() }
+        def value = "x" * 1024
+        reader.put("a", "1")
+
+        expect:
+        lockFreeReader.get("a") == "1"
+
+        when:
+        2000.times { writer.put("key" + it, value) }
+        writer.finishWork()
+        2000.times { writer.put("key" + it, value + "y") }
+        writer.finishWork()
+
+        then:
+        tmpDir.file("cache-2.snapshot").isFile()
+        !tmpDir.file("cache-1.snapshot").exists()
+        !tmpDir.file("cache-0.log").exists()
+
+        and:
+        lockFreeReader.get("key0") == value + "y"
+
+        when:
+        reader.put("b", "2")
+
+        then:
+        !tmpDir.file("cache-0.log").exists()
+        tmpDir.file("cache-2.log").isFile()
+        reader.get("a") == "1"
+        writer.get("b") == "2"
+        lockFreeReader.get("b") == "2"
+        newCache().get("b") == "2"
+
+        when:
+        reader.finishWork()
+
+        then:
+        !tmpDir.file("cache-3.snapshot").exists()
+        newCache().get("b") == "2"
+    }
+
+    def "does not compact small log"() {
+        def writer = newCache()
+        _ * cacheAccess.withFileLock(_) >> { Factory action -> action.create() }
+        writer.put("a", "1")
+
+        when:
+        writer.finishWork()
+
+        then:
+        tmpDir.file("cache-0.log").isFile()
+        !tmpDir.file("cache-1.snapshot").exists()
+    }
+
+    def newCache() {
+        def serializer = BaseSerializerFactory.STRING_SERIALIZER
+        return new AppendOnlyLogPersistentIndexedCache<String, String>(cacheFile, serializer, serializer, cacheAccess)
+    }
+}
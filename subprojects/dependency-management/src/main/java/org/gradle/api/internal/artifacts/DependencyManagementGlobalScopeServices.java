@@ -18,6 +18,8 @@ package org.gradle.api.internal.artifacts;
 
 import org.gradle.api.internal.artifacts.ivyservice.DefaultIvyContextManager;
 import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache.InMemoryCachedRepositoryFactory;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.CrossBuildModuleMetadataCache;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.ConfigurationComponentMetaDataBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.DefaultConfigurationComponentMetaDataBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.DefaultDependenciesToModuleDescriptorConverter;
@@ -28,7 +30,9 @@ import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.ExcludeRuleConverter;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.ExternalModuleIvyDependencyDescriptorFactory;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.ProjectIvyDependencyDescriptorFactory;
+import org.gradle.api.internal.cache.HeapProportionalCacheSizer;
 import org.gradle.cache.internal.ProducerGuard;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.nativeplatform.filesystem.FileSystem;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
@@ -76,6 +80,13 @@ class DependencyManagementGlobalScopeServices {
         return new FileConnectorFactory();
     }
 
+    CrossBuildModuleMetadataCache createCrossBuildModuleMetadataCache(ListenerManager listenerManager) {
+        int maxEntries = "false".equalsIgnoreCase(System.getProperty(InMemoryCachedRepositoryFactory.TOGGLE_PROPERTY)) ? 0 : new HeapProportionalCacheSizer().scaleCacheSize(CrossBuildModuleMetadataCache.DEFAULT_MAX_ENTRIES);
+        CrossBuildModuleMetadataCache cache = new CrossBuildModuleMetadataCache(maxEntries);
+        listenerManager.addListener(cache);
+        return cache;
+    }
+
     ProducerGuard<ExternalResourceName> createProducerAccess() {
         return ProducerGuard.adaptive();
     }
@@ -45,7 +45,8 @@ public class DependencyServices extends AbstractPluginServiceRegistry {
             }
 
             TransformedFileCache createTransformedFileCache(ArtifactCacheMetaData artifactCacheMetaData, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, FileSystemSnapshotter fileSystemSnapshotter, ListenerManager listenerManager) {
-                DefaultTransformedFileCache transformedFileCache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepository, cacheDecoratorFactory, fileSystemSnapshotter);
+                DefaultTransformedFileCache transformedFileCache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepository, cacheDecoratorFactory, fileSystemSnapshotter,
+                    Integer.getInteger(DefaultTransformedFileCache.MAX_RETENTION_DAYS_PROPERTY, DefaultTransformedFileCache.DEFAULT_MAX_RETENTION_DAYS));
                 listenerManager.addListener(transformedFileCache);
                 return transformedFileCache;
             }
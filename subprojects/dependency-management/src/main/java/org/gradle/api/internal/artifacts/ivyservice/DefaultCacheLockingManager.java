@@ -65,7 +65,8 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
     @Override
     public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
         String cacheFileInMetaDataStore = CacheLayout.META_DATA.getKey() + "/" + cacheName;
-        final PersistentIndexedCache<K, V> persistentCache = cache.createCache(new PersistentIndexedCacheParameters<K, V>(cacheFileInMetaDataStore, keySerializer, valueSerializer));
+        // The metadata indexes are read much more often than they are written, so let concurrent builds read them without contending for the lock
+        final PersistentIndexedCache<K, V> persistentCache = cache.createCache(new PersistentIndexedCacheParameters<K, V>(cacheFileInMetaDataStore, keySerializer, valueSerializer).lockFreeReads());
         return new CacheLockingPersistentCache<K, V>(persistentCache);
     }
 
@@ -78,13 +79,9 @@ public class DefaultCacheLockingManager implements CacheLockingManager, Closeabl
 
         @Nullable
         @Override
-        public V get(final K key) {
-            return cache.useCache(new Factory<V>() {
-                @Override
-                public V create() {
-                    return persistentCache.get(key);
-                }
-            });
+        public V get(K key) {
+            // Does not require the lock
+            return persistentCache.get(key);
         }
 
         @Override
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the module metadata read from the persistent module metadata cache in memory across builds, so that builds running in the same daemon
+ * do not need to read and deserialize the module descriptors of the same fixed version modules again.
+ *
+ * <p>Only metadata for modules that are not changing is retained. Each entry remembers the descriptor hash and the creation time of the persistent cache entry it was read for,
+ * and is discarded as soon as the persistent cache entry is different, for example because it was refreshed by this or another process.</p>
+ *
+ * <p>Note that this is a global scoped service.</p>
+ */
+@ThreadSafe
+public class CrossBuildModuleMetadataCache implements SessionLifecycleListener {
+    public static final int DEFAULT_MAX_ENTRIES = 20000;
+
+    private static final Logger LOGGER = Logging.getLogger(CrossBuildModuleMetadataCache.class);
+
+    private final Cache<ModuleComponentAtRepositoryKey, CachedDescriptor> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CrossBuildModuleMetadataCache(int maxEntries) {
+        this.entries = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    @Nullable
+    ModuleComponentResolveMetadata get(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry) {
+        CachedDescriptor cached = entries.getIfPresent(key);
+        if (cached != null) {
+            if (cached.isFor(entry)) {
+                hits.incrementAndGet();
+                return cached.metadata;
+            }
+            // Persistent cache entry has changed since the metadata was read
+            entries.invalidate(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    void put(ModuleComponentAtRepositoryKey key, ModuleMetadataCacheEntry entry, ModuleComponentResolveMetadata metadata) {
+        if (entry.isChanging || entry.isMissing()) {
+            return;
+        }
+        entries.put(key, new CachedDescriptor(entry.moduleDescriptorHash, entry.createTimestamp, metadata));
+    }
+
+    long getHitCount() {
+        return hits.get();
+    }
+
+    long getMissCount() {
+        return misses.get();
+    }
+
+    long size() {
+        return entries.size();
+    }
+
+    @Override
+    public void afterStart() {
+    }
+
+    @Override
+    public void beforeComplete() {
+        long hitCount = hits.getAndSet(0);
+        long missCount = misses.getAndSet(0);
+        long requestCount = hitCount + missCount;
+        if (requestCount > 0) {
+            LOGGER.info("In-memory module metadata cache: {} hits, {} misses ({}% hit rate), {} entries retained.", hitCount, missCount, hitCount * 100 / requestCount, entries.size());
+        }
+    }
+
+    private static class CachedDescriptor {
+        private final BigInteger descriptorHash;
+        private final long createTimestamp;
+        private final ModuleComponentResolveMetadata metadata;
+
+        CachedDescriptor(BigInteger descriptorHash, long createTimestamp, ModuleComponentResolveMetadata metadata) {
+            this.descriptorHash = descriptorHash;
+            this.createTimestamp = createTimestamp;
+            this.metadata = metadata;
+        }
+
+        boolean isFor(ModuleMetadataCacheEntry entry) {
+            return !entry.isChanging
+                && createTimestamp == entry.createTimestamp
+                && Objects.equal(descriptorHash, entry.moduleDescriptorHash);
+        }
+    }
+}
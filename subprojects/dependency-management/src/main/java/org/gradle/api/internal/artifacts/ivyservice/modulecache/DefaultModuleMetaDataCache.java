@@ -44,11 +44,13 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     private final CacheLockingManager cacheLockingManager;
 
     private final ModuleMetadataStore moduleMetadataStore;
+    private final CrossBuildModuleMetadataCache crossBuildCache;
     private PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache;
 
-    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions) {
+    public DefaultModuleMetaDataCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions, CrossBuildModuleMetadataCache crossBuildCache) {
         this.timeProvider = timeProvider;
         this.cacheLockingManager = cacheLockingManager;
+        this.crossBuildCache = crossBuildCache;
 
         moduleMetadataStore = new ModuleMetadataStore(new PathKeyFileStore(artifactCacheMetaData.getMetaDataStoreDirectory()), new ModuleMetadataSerializer(), moduleIdentifierFactory, moduleExclusions);
     }
@@ -67,23 +69,30 @@ public class DefaultModuleMetaDataCache implements ModuleMetaDataCache {
     public CachedMetaData getCachedModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier componentId) {
         final ModuleComponentAtRepositoryKey key = createKey(repository, componentId);
         final PersistentIndexedCache<ModuleComponentAtRepositoryKey, ModuleMetadataCacheEntry> cache = getCache();
+        // Reading the index does not require the lock, so a build that finds the metadata in memory does not contend with other builds
+        final ModuleMetadataCacheEntry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isMissing()) {
+            return new DefaultCachedMetaData(entry, null, timeProvider);
+        }
+        ModuleComponentResolveMetadata cachedMetadata = crossBuildCache.get(key, entry);
+        if (cachedMetadata != null) {
+            return new DefaultCachedMetaData(entry, cachedMetadata, timeProvider);
+        }
         return cacheLockingManager.useCache(new Factory<CachedMetaData>() {
             @Override
             public CachedMetaData create() {
-                ModuleMetadataCacheEntry entry = cache.get(key);
-                if (entry == null) {
-                    return null;
-                }
-                if (entry.isMissing()) {
-                    return new DefaultCachedMetaData(entry, null, timeProvider);
-                }
                 MutableModuleComponentResolveMetadata metadata = moduleMetadataStore.getModuleDescriptor(key);
                 if (metadata == null) {
                     // Descriptor file has been deleted - ignore the entry
                     cache.remove(key);
                     return null;
                 }
-                return new DefaultCachedMetaData(entry, entry.configure(metadata), timeProvider);
+                ModuleComponentResolveMetadata configuredMetadata = entry.configure(metadata);
+                crossBuildCache.put(key, entry, configuredMetadata);
+                return new DefaultCachedMetaData(entry, configuredMetadata, timeProvider);
             }
         });
     }
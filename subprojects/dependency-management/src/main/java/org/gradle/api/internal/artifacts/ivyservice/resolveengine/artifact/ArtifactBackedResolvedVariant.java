@@ -17,6 +17,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact;
 
 import org.gradle.api.Buildable;
+import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
 import org.gradle.api.attributes.AttributeContainer;
@@ -47,15 +48,22 @@ class ArtifactBackedResolvedVariant implements ResolvedVariant {
     }
 
     public static ResolvedVariant create(DisplayName displayName, AttributeContainerInternal attributes, Collection<? extends ResolvableArtifact> artifacts) {
+        return create(displayName, attributes, null, artifacts);
+    }
+
+    /**
+     * @param repositoryId The repository the artifacts are downloaded from, if known. Used to schedule downloads fairly across repositories.
+     */
+    public static ResolvedVariant create(DisplayName displayName, AttributeContainerInternal attributes, @Nullable String repositoryId, Collection<? extends ResolvableArtifact> artifacts) {
         if (artifacts.isEmpty()) {
             return new ArtifactBackedResolvedVariant(displayName, attributes, EMPTY);
         }
         if (artifacts.size() == 1) {
-            return new ArtifactBackedResolvedVariant(displayName, attributes, new SingleArtifactSet(attributes, artifacts.iterator().next()));
+            return new ArtifactBackedResolvedVariant(displayName, attributes, new SingleArtifactSet(attributes, repositoryId, artifacts.iterator().next()));
         }
         List<SingleArtifactSet> artifactSets = new ArrayList<SingleArtifactSet>();
         for (ResolvableArtifact artifact : artifacts) {
-            artifactSets.add(new SingleArtifactSet(attributes, artifact));
+            artifactSets.add(new SingleArtifactSet(attributes, repositoryId, artifact));
         }
         return new ArtifactBackedResolvedVariant(displayName, attributes, CompositeResolvedArtifactSet.of(artifactSets));
     }
@@ -88,11 +96,13 @@ class ArtifactBackedResolvedVariant implements ResolvedVariant {
 
     private static class SingleArtifactSet implements ResolvedArtifactSet, ResolvedArtifactSet.Completion {
         private final AttributeContainer variantAttributes;
+        private final String repositoryId;
         private final ResolvableArtifact artifact;
         private volatile Throwable failure;
 
-        SingleArtifactSet(AttributeContainer variantAttributes, ResolvableArtifact artifact) {
+        SingleArtifactSet(AttributeContainer variantAttributes, @Nullable String repositoryId, ResolvableArtifact artifact) {
             this.variantAttributes = variantAttributes;
+            this.repositoryId = repositoryId;
             this.artifact = artifact;
         }
 
@@ -129,7 +139,7 @@ class ArtifactBackedResolvedVariant implements ResolvedVariant {
         }
     }
 
-    private static class DownloadArtifactFile implements RunnableBuildOperation {
+    private static class DownloadArtifactFile implements ArtifactDownloadScheduler.Download {
         private final ResolvableArtifact artifact;
         private final SingleArtifactSet owner;
         private final AsyncArtifactListener listener;
@@ -156,6 +166,12 @@ class ArtifactBackedResolvedVariant implements ResolvedVariant {
             }
         }
 
+        @Nullable
+        @Override
+        public String getRepositoryId() {
+            return owner.repositoryId;
+        }
+
         @Override
         public BuildOperationDescriptor.Builder description() {
             return BuildOperationDescriptor.displayName("Resolve " + artifact)
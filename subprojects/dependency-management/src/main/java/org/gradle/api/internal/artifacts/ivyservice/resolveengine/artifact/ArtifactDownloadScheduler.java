@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.util.Collection;
+
+/**
+ * Downloads artifact files using a dedicated pool of threads, separate from the build operation worker pool.
+ * Downloads are mostly waiting on the network, so this allows more of them to run concurrently than there are workers.
+ */
+public interface ArtifactDownloadScheduler {
+    /**
+     * Runs the given downloads, blocking until all of them have completed. Downloads from different repositories are interleaved, so that a slow repository does not hold up the others.
+     */
+    void downloadAll(Collection<? extends Download> downloads);
+
+    /**
+     * A download of a single artifact file. Implementations are expected to collect their own failures.
+     */
+    interface Download extends RunnableBuildOperation {
+        /**
+         * The id of the repository the artifact is downloaded from, or null when unknown.
+         */
+        @Nullable
+        String getRepositoryId();
+    }
+}
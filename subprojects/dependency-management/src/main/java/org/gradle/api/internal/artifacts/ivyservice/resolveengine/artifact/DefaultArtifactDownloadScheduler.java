@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.logging.progress.ProgressLogger;
+import org.gradle.internal.logging.progress.ProgressLoggerFactory;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.progress.BuildOperationState;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Runs artifact downloads in a fixed size thread pool, shared by all resolutions of the build. The size of the pool is the global limit on concurrent downloads.
+ *
+ * <p>Within a single call to {@link #downloadAll(Collection)}, the downloads are handed out round-robin by repository.</p>
+ */
+public class DefaultArtifactDownloadScheduler implements ArtifactDownloadScheduler, Stoppable {
+    public static final String MAX_CONCURRENT_DOWNLOADS_PROPERTY = "org.gradle.internal.artifacts.download.maxConcurrent";
+    public static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 8;
+
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ProgressLoggerFactory progressLoggerFactory;
+    private final ManagedExecutor executor;
+    private final int maxConcurrentDownloads;
+
+    public DefaultArtifactDownloadScheduler(ExecutorFactory executorFactory, BuildOperationExecutor buildOperationExecutor, ProgressLoggerFactory progressLoggerFactory, int maxConcurrentDownloads) {
+        if (maxConcurrentDownloads < 1) {
+            throw new IllegalArgumentException("Maximum number of concurrent downloads must be at least 1, was " + maxConcurrentDownloads);
+        }
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.progressLoggerFactory = progressLoggerFactory;
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+        this.executor = executorFactory.create("artifact downloads", maxConcurrentDownloads);
+    }
+
+    public int getMaxConcurrentDownloads() {
+        return maxConcurrentDownloads;
+    }
+
+    @Override
+    public void downloadAll(Collection<? extends Download> downloads) {
+        if (downloads.isEmpty()) {
+            return;
+        }
+        if (downloads.size() == 1) {
+            buildOperationExecutor.run(downloads.iterator().next());
+            return;
+        }
+
+        ProgressLogger progressLogger = progressLoggerFactory.newOperation(DefaultArtifactDownloadScheduler.class);
+        progressLogger.start("Download artifacts", "Downloading artifacts");
+        DownloadBatch batch = new DownloadBatch(downloads, currentOperation(), progressLogger);
+        try {
+            int workers = Math.min(maxConcurrentDownloads, downloads.size());
+            for (int i = 0; i < workers; i++) {
+                executor.execute(batch);
+            }
+            batch.waitForCompletion();
+        } finally {
+            progressLogger.completed();
+        }
+    }
+
+    @Nullable
+    private BuildOperationState currentOperation() {
+        try {
+            return buildOperationExecutor.getCurrentOperation();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        executor.stop();
+    }
+
+    private class DownloadBatch implements Runnable {
+        // Pending downloads per repository. The repository at the head of the map is the next one to download from.
+        private final Map<String, LinkedList<Download>> pending = new LinkedHashMap<String, LinkedList<Download>>();
+        private final BuildOperationState parent;
+        private final ProgressLogger progressLogger;
+        private final int total;
+        private int completed;
+        private Throwable failure;
+
+        DownloadBatch(Collection<? extends Download> downloads, @Nullable BuildOperationState parent, ProgressLogger progressLogger) {
+            this.parent = parent;
+            this.progressLogger = progressLogger;
+            this.total = downloads.size();
+            for (Download download : downloads) {
+                String repositoryId = download.getRepositoryId();
+                String key = repositoryId == null ? "" : repositoryId;
+                LinkedList<Download> queue = pending.get(key);
+                if (queue == null) {
+                    queue = new LinkedList<Download>();
+                    pending.put(key, queue);
+                }
+                queue.add(download);
+            }
+        }
+
+        @Override
+        public void run() {
+            Download download;
+            while ((download = nextDownload()) != null) {
+                Throwable downloadFailure = null;
+                try {
+                    buildOperationExecutor.run(new ParentedDownload(download, parent));
+                } catch (Throwable t) {
+                    downloadFailure = t;
+                }
+                downloadFinished(downloadFailure);
+            }
+        }
+
+        private synchronized Download nextDownload() {
+            Iterator<Map.Entry<String, LinkedList<Download>>> iterator = pending.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Map.Entry<String, LinkedList<Download>> next = iterator.next();
+            iterator.remove();
+            Download download = next.getValue().removeFirst();
+            if (!next.getValue().isEmpty()) {
+                // Move the repository to the back of the rotation
+                pending.put(next.getKey(), next.getValue());
+            }
+            return download;
+        }
+
+        private synchronized void downloadFinished(@Nullable Throwable downloadFailure) {
+            completed++;
+            if (downloadFailure != null && failure == null) {
+                failure = downloadFailure;
+            }
+            progressLogger.progress(completed + "/" + total + " artifacts downloaded");
+            notifyAll();
+        }
+
+        synchronized void waitForCompletion() {
+            while (completed < total) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+    }
+
+    private static class ParentedDownload implements RunnableBuildOperation {
+        private final Download download;
+        private final BuildOperationState parent;
+
+        ParentedDownload(Download download, @Nullable BuildOperationState parent) {
+            this.download = download;
+            this.parent = parent;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            download.run(context);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            BuildOperationDescriptor.Builder builder = download.description();
+            if (parent != null) {
+                builder.parent(parent);
+            }
+            return builder;
+        }
+    }
+}
@@ -18,10 +18,12 @@ package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact;
 
 import com.google.common.collect.ImmutableSet;
 import org.gradle.api.Describable;
+import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.internal.artifacts.DefaultResolvedArtifact;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.RepositoryChainModuleSource;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusion;
 import org.gradle.api.internal.artifacts.transform.VariantSelector;
 import org.gradle.api.internal.artifacts.type.ArtifactTypeRegistry;
@@ -97,7 +99,12 @@ public abstract class DefaultArtifactSet implements ArtifactSet, ResolvedVariant
             }
             resolvedArtifacts.add(resolvedArtifact);
         }
-        return ArtifactBackedResolvedVariant.create(variant.asDescribable(), attributes, resolvedArtifacts);
+        return ArtifactBackedResolvedVariant.create(variant.asDescribable(), attributes, repositoryIdOf(moduleSource), resolvedArtifacts);
+    }
+
+    @Nullable
+    private static String repositoryIdOf(ModuleSource moduleSource) {
+        return moduleSource instanceof RepositoryChainModuleSource ? ((RepositoryChainModuleSource) moduleSource).getRepositoryId() : null;
     }
 
     @Override
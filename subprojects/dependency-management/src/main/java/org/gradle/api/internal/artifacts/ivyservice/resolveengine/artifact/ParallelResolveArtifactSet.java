@@ -17,26 +17,36 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact;
 
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
 import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A wrapper that prepares artifacts in parallel when visiting the delegate.
  * This is done by collecting all artifacts to prepare and/or visit in a first step.
  * The collected artifacts are prepared in parallel and subsequently visited in sequence.
+ *
+ * When an {@link ArtifactDownloadScheduler} is provided, artifact downloads are handed to the scheduler rather than run by the build operation workers.
  */
 public abstract class ParallelResolveArtifactSet {
     private static final EmptySet EMPTY = new EmptySet();
 
     public abstract void visit(ArtifactVisitor visitor);
     public static ParallelResolveArtifactSet wrap(ResolvedArtifactSet artifacts, BuildOperationExecutor buildOperationProcessor) {
+        return wrap(artifacts, buildOperationProcessor, null);
+    }
+
+    public static ParallelResolveArtifactSet wrap(ResolvedArtifactSet artifacts, BuildOperationExecutor buildOperationProcessor, @Nullable ArtifactDownloadScheduler downloadScheduler) {
         if (artifacts == ResolvedArtifactSet.EMPTY) {
             return EMPTY;
         }
-        return new VisitingSet(artifacts, buildOperationProcessor);
+        return new VisitingSet(artifacts, buildOperationProcessor, downloadScheduler);
     }
 
     private static class EmptySet extends ParallelResolveArtifactSet {
@@ -48,10 +58,12 @@ public abstract class ParallelResolveArtifactSet {
     private static class VisitingSet extends ParallelResolveArtifactSet {
         private final ResolvedArtifactSet artifacts;
         private final BuildOperationExecutor buildOperationProcessor;
+        private final ArtifactDownloadScheduler downloadScheduler;
 
-        VisitingSet(ResolvedArtifactSet artifacts, BuildOperationExecutor buildOperationProcessor) {
+        VisitingSet(ResolvedArtifactSet artifacts, BuildOperationExecutor buildOperationProcessor, @Nullable ArtifactDownloadScheduler downloadScheduler) {
             this.artifacts = artifacts;
             this.buildOperationProcessor = buildOperationProcessor;
+            this.downloadScheduler = downloadScheduler;
         }
 
         public void visit(final ArtifactVisitor visitor) {
@@ -101,7 +113,62 @@ public abstract class ParallelResolveArtifactSet {
 
             @Override
             public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
-                result = artifacts.startVisit(buildOperationQueue, new AsyncArtifactListenerAdapter(visitor));
+                if (downloadScheduler == null) {
+                    result = artifacts.startVisit(buildOperationQueue, new AsyncArtifactListenerAdapter(visitor));
+                    return;
+                }
+
+                // Collect the downloads while the remaining work starts in the build operation queue, then download while that work runs
+                DownloadCollectingQueue downloadCollectingQueue = new DownloadCollectingQueue(buildOperationQueue);
+                result = artifacts.startVisit(downloadCollectingQueue, new AsyncArtifactListenerAdapter(visitor));
+                downloadScheduler.downloadAll(downloadCollectingQueue.takeDownloads());
+            }
+        }
+
+        /**
+         * Diverts artifact downloads away from the build operation queue, until the downloads are taken. All other operations are passed through to the delegate.
+         */
+        private static class DownloadCollectingQueue implements BuildOperationQueue<RunnableBuildOperation> {
+            private final BuildOperationQueue<RunnableBuildOperation> delegate;
+            private List<ArtifactDownloadScheduler.Download> downloads = new ArrayList<ArtifactDownloadScheduler.Download>();
+
+            DownloadCollectingQueue(BuildOperationQueue<RunnableBuildOperation> delegate) {
+                this.delegate = delegate;
+            }
+
+            synchronized List<ArtifactDownloadScheduler.Download> takeDownloads() {
+                List<ArtifactDownloadScheduler.Download> result = downloads;
+                downloads = null;
+                return result;
+            }
+
+            @Override
+            public void add(RunnableBuildOperation operation) {
+                if (operation instanceof ArtifactDownloadScheduler.Download) {
+                    synchronized (this) {
+                        if (downloads != null) {
+                            downloads.add((ArtifactDownloadScheduler.Download) operation);
+                            return;
+                        }
+                    }
+                }
+                // Downloads added after the downloads have been taken are run by the build operation workers
+                delegate.add(operation);
+            }
+
+            @Override
+            public void cancel() {
+                delegate.cancel();
+            }
+
+            @Override
+            public void waitForCompletion() throws MultipleBuildOperationFailures {
+                delegate.waitForCompletion();
+            }
+
+            @Override
+            public void setLogLocation(String logLocation) {
+                delegate.setLogLocation(logLocation);
             }
         }
     }
@@ -16,16 +16,37 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
 
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import org.gradle.api.artifacts.ModuleIdentifier;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 abstract class AbstractCompositeExclusion extends AbstractModuleExclusion {
     private int hashCode = -1;
 
+    // Composite exclusions are shared between many edges of the graph, and are queried for the same modules over and over again
+    private final Map<ModuleIdentifier, Boolean> excludedModules = Maps.newConcurrentMap();
+
     abstract Collection<AbstractModuleExclusion> getFilters();
 
+    @Override
+    public final boolean excludeModule(ModuleIdentifier module) {
+        Boolean excluded = excludedModules.get(module);
+        if (excluded == null) {
+            excluded = doExcludeModule(module);
+            excludedModules.put(module, excluded);
+        }
+        return excluded;
+    }
+
+    /**
+     * Calculates whether the given module is excluded. The result is memoized by {@link #excludeModule(ModuleIdentifier)}.
+     */
+    protected abstract boolean doExcludeModule(ModuleIdentifier module);
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
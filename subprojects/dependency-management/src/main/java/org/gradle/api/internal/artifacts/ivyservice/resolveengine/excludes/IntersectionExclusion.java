@@ -59,7 +59,8 @@ class IntersectionExclusion extends AbstractCompositeExclusion {
         return true;
     }
 
-    public boolean excludeModule(ModuleIdentifier element) {
+    @Override
+    protected boolean doExcludeModule(ModuleIdentifier element) {
         for (AbstractModuleExclusion excludeSpec : excludeSpecs) {
             if (excludeSpec.excludeModule(element)) {
                 return true;
@@ -21,6 +21,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.internal.Cast;
 import org.gradle.internal.component.model.Exclude;
 import org.gradle.internal.component.model.IvyArtifactName;
 
@@ -45,6 +46,10 @@ import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.exclude
  * uses this to avoid traversing the dependency graph of a particular version that has already been traversed when a new incoming edge is added (eg a newly discovered dependency) and when an incoming
  * edge is removed (eg a conflict evicts a version that depends on the given version). </p>
  *
+ * <p>Exclusions created by this class are hash-consed: structurally equal exclusions are represented by the same instance. This allows the identity based caches
+ * used when merging exclusions, and the results of composite exclusions memoized per module (see {@link AbstractCompositeExclusion#excludeModule}), to be shared
+ * by all the paths of the dependency graph that end up with the same exclusion.</p>
+ *
  * <ul> <li>When a module dependency has multiple exclusions, then the resulting exclusion is the _intersection_ of those exclusions (module is excluded if excluded by _any_).</li> <li>When a module
  * is depended on via a transitive path, then the resulting exclusion is the _intersection_ of the exclusions on each leg of the path (module is excluded if excluded by _any_).</li> <li>When a module
  * is depended on via multiple paths in the graph, then the resulting exclusion is the _union_ of the exclusions on each of those paths (module is excluded if excluded by _all_).</li> </ul>
@@ -60,6 +65,7 @@ public class ModuleExclusions {
     private final Map<List<Exclude>, AbstractModuleExclusion> excludeAnyCache = Maps.newConcurrentMap();
     private final Map<Set<AbstractModuleExclusion>, ImmutableModuleExclusionSet> exclusionSetCache = Maps.newConcurrentMap();
     private final Map<AbstractModuleExclusion[], Map<AbstractModuleExclusion[], MergeOperation>> mergeOperationCache = Maps.newIdentityHashMap();
+    private final Map<AbstractModuleExclusion, AbstractModuleExclusion> internedExclusions = Maps.newConcurrentMap();
     private final Object mergeOperationLock = new Object();
 
     public ModuleExclusions(ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
@@ -89,6 +95,20 @@ public class ModuleExclusions {
         return moduleExclusion;
     }
 
+    /**
+     * Returns the canonical instance for the given exclusion.
+     */
+    private <T extends AbstractModuleExclusion> T intern(T exclusion) {
+        AbstractModuleExclusion interned = internedExclusions.get(exclusion);
+        if (interned == null) {
+            interned = internedExclusions.putIfAbsent(exclusion, exclusion);
+            if (interned == null) {
+                return exclusion;
+            }
+        }
+        return Cast.uncheckedCast(interned);
+    }
+
     private ImmutableModuleExclusionSet asImmutable(Set<AbstractModuleExclusion> excludes) {
         ImmutableModuleExclusionSet cached = exclusionSetCache.get(excludes);
         if (cached == null) {
@@ -130,15 +150,15 @@ public class ModuleExclusions {
         for (Exclude exclude : excludes) {
             exclusions.add(forExclude(exclude));
         }
-        exclusion = new IntersectionExclusion(asImmutable(exclusions));
+        exclusion = intern(new IntersectionExclusion(asImmutable(exclusions)));
         excludeAnyCache.put(excludes, exclusion);
         return exclusion;
     }
 
-    private static AbstractModuleExclusion forExclude(Exclude rule) {
+    private AbstractModuleExclusion forExclude(Exclude rule) {
         // For custom ivy pattern matchers, don't inspect the rule any more deeply: this prevents us from doing smart merging later
         if (!PatternMatchers.isExactMatcher(rule.getMatcher())) {
-            return new IvyPatternMatcherExcludeRuleSpec(rule);
+            return intern(new IvyPatternMatcherExcludeRuleSpec(rule));
         }
 
         ModuleIdentifier moduleId = rule.getModuleId();
@@ -150,16 +170,16 @@ public class ModuleExclusions {
         // Build a strongly typed (mergeable) exclude spec for each supplied rule
         if (anyArtifact) {
             if (!anyOrganisation && !anyModule) {
-                return new ModuleIdExcludeSpec(moduleId);
+                return intern(new ModuleIdExcludeSpec(moduleId));
             } else if (!anyModule) {
-                return new ModuleNameExcludeSpec(moduleId.getName());
+                return intern(new ModuleNameExcludeSpec(moduleId.getName()));
             } else if (!anyOrganisation) {
-                return new GroupNameExcludeSpec(moduleId.getGroup());
+                return intern(new GroupNameExcludeSpec(moduleId.getGroup()));
             } else {
                 return EXCLUDE_ALL_MODULES_SPEC;
             }
         } else {
-            return new ArtifactExcludeSpec(moduleId, artifact);
+            return intern(new ArtifactExcludeSpec(moduleId, artifact));
         }
     }
 
@@ -191,7 +211,7 @@ public class ModuleExclusions {
         ((AbstractModuleExclusion) one).unpackIntersection(builder);
         ((AbstractModuleExclusion) two).unpackIntersection(builder);
 
-        return new IntersectionExclusion(asImmutable(builder));
+        return intern(new IntersectionExclusion(asImmutable(builder)));
     }
 
     /**
@@ -232,7 +252,7 @@ public class ModuleExclusions {
         if (specs.size() == 1) {
             return specs.get(0);
         }
-        return new UnionExclusion(specs);
+        return intern(new UnionExclusion(specs));
     }
 
     /**
@@ -306,7 +326,7 @@ public class ModuleExclusions {
         if (merged.isEmpty()) {
             exclusion = ModuleExclusions.EXCLUDE_NONE;
         } else {
-            exclusion = new IntersectionExclusion(asImmutable(merged));
+            exclusion = intern(new IntersectionExclusion(asImmutable(merged)));
         }
         mergeCache.put(merge, exclusion);
         return exclusion;
@@ -365,7 +385,7 @@ public class ModuleExclusions {
         } else if (spec2 instanceof ModuleNameExcludeSpec) {
             // Intersection of group & module name exclude only excludes module with matching group + name
             ModuleNameExcludeSpec moduleNameExcludeSpec = (ModuleNameExcludeSpec) spec2;
-            merged.add(new ModuleIdExcludeSpec(moduleIdentifierFactory.module(spec1.group, moduleNameExcludeSpec.module)));
+            merged.add(intern(new ModuleIdExcludeSpec(moduleIdentifierFactory.module(spec1.group, moduleNameExcludeSpec.module))));
         } else if (spec2 instanceof ModuleIdExcludeSpec) {
             // Intersection of group + module id exclude only excludes the module id if the excluded groups match
             ModuleIdExcludeSpec moduleIdExcludeSpec = (ModuleIdExcludeSpec) spec2;
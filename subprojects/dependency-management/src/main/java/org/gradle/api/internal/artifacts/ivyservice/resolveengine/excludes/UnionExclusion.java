@@ -55,7 +55,8 @@ class UnionExclusion extends AbstractCompositeExclusion {
         return false;
     }
 
-    public boolean excludeModule(ModuleIdentifier element) {
+    @Override
+    protected boolean doExcludeModule(ModuleIdentifier element) {
         for (AbstractModuleExclusion spec : filters) {
             if (!spec.excludeModule(element)) {
                 return false;
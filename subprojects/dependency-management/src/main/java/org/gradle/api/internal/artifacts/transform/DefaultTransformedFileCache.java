@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.hash.HashCode;
 import org.gradle.api.Action;
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData;
+import org.gradle.api.internal.changedetection.state.FileSnapshot;
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
 import org.gradle.api.internal.changedetection.state.Snapshot;
@@ -47,29 +48,43 @@ import java.io.File;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_META_DATA;
 import static org.gradle.api.internal.artifacts.ivyservice.CacheLayout.TRANSFORMS_STORE;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
+/**
+ * A persistent cache of transform results, shared by all builds that use the same Gradle user home.
+ *
+ * <p>Results for regular input files are addressed by the name and content of the input file, so that the same transform applied to identical files at different locations
+ * (for example, the same AAR referenced by several projects) is only executed once. Directory inputs are still addressed by their location.</p>
+ *
+ * <p>Output directories are touched whenever they are used by a build, and entries that have not been used for {@code maxRetentionDays} are periodically removed.</p>
+ */
 public class DefaultTransformedFileCache implements TransformedFileCache, Stoppable, RootBuildLifecycleListener {
+    public static final String MAX_RETENTION_DAYS_PROPERTY = "org.gradle.internal.transforms.maxRetentionDays";
+    public static final int DEFAULT_MAX_RETENTION_DAYS = 30;
+
     private final PersistentCache cache;
     private final PersistentIndexedCache<HashCode, List<File>> indexedCache;
+    private final File filesOutputDirectory;
     private final FileStore<String> fileStore;
     private final ProducerGuard<HashCode> producing = ProducerGuard.adaptive();
     private final Map<HashCode, List<File>> resultHashToResult = new ConcurrentHashMap<HashCode, List<File>>();
     private final FileSystemSnapshotter fileSystemSnapshotter;
 
-    public DefaultTransformedFileCache(ArtifactCacheMetaData artifactCacheMetaData, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, FileSystemSnapshotter fileSystemSnapshotter) {
+    public DefaultTransformedFileCache(ArtifactCacheMetaData artifactCacheMetaData, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory cacheDecoratorFactory, FileSystemSnapshotter fileSystemSnapshotter, int maxRetentionDays) {
         this.fileSystemSnapshotter = fileSystemSnapshotter;
         File transformsStoreDirectory = artifactCacheMetaData.getTransformsStoreDirectory();
-        File filesOutputDirectory = new File(transformsStoreDirectory, TRANSFORMS_STORE.getKey());
+        filesOutputDirectory = new File(transformsStoreDirectory, TRANSFORMS_STORE.getKey());
         fileStore = new PathKeyFileStore(filesOutputDirectory);
         cache = cacheRepository
                 .cache(transformsStoreDirectory)
                 .withCrossVersionCache(CacheBuilder.LockTarget.DefaultTarget)
                 .withDisplayName("Artifact transforms cache")
                 .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .withCleanup(new UnusedTransformOutputsCleanup(filesOutputDirectory, TimeUnit.DAYS.toMillis(maxRetentionDays)))
                 .open();
         String cacheName = TRANSFORMS_META_DATA.getKey() + "/results";
         PersistentIndexedCacheParameters<HashCode, List<File>> cacheParameters = new PersistentIndexedCacheParameters<HashCode, List<File>>(cacheName, new HashCodeSerializer(), new ListSerializer<File>(BaseSerializerFactory.FILE_SERIALIZER))
@@ -95,10 +110,17 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
     @Override
     public List<File> getResult(final File inputFile, HashCode inputsHash, final BiFunction<List<File>, File, File> transformer) {
         // Collect up hash of the input files and of the transform's configuration params and implementation to calculate the key
-        Snapshot inputFileSnapshot = fileSystemSnapshotter.snapshotAll(inputFile);
         DefaultBuildCacheHasher hasher = new DefaultBuildCacheHasher();
         hasher.putHash(inputsHash);
-        inputFileSnapshot.appendToHasher(hasher);
+        if (inputFile.isFile()) {
+            // Address regular files by name and content only, so that identical files in different locations share the result
+            FileSnapshot inputFileSnapshot = fileSystemSnapshotter.snapshotSelf(inputFile);
+            hasher.putString(inputFile.getName());
+            hasher.putHash(inputFileSnapshot.getContent().getContentMd5());
+        } else {
+            Snapshot inputFileSnapshot = fileSystemSnapshotter.snapshotAll(inputFile);
+            inputFileSnapshot.appendToHasher(hasher);
+        }
         final HashCode resultHash = hasher.hash();
 
         // Apply locking so that only this process is writing to the file store and only a single thread is running this particular transform
@@ -106,7 +128,7 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
             @Override
             public List<File> create() {
                 List<File> files = resultHashToResult.get(resultHash);
-                if (files != null) {
+                if (files != null && belongsTo(files, inputFile)) {
                     return files;
                 }
 
@@ -114,19 +136,11 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
                     @Override
                     public List<File> create() {
                         List<File> files = indexedCache.get(resultHash);
-                        if (files != null) {
-                            boolean allExist = true;
-                            for (File file : files) {
-                                if (!file.exists()) {
-                                    allExist = false;
-                                    break;
-                                }
-                            }
-                            if (allExist) {
-                                return files;
-                            }
-                            // Else, recreate outputs
+                        if (files != null && isReusable(files, inputFile)) {
+                            markUsed(files);
+                            return files;
                         }
+                        // Else, recreate outputs
 
                         // File store takes care of cleaning up on failure/crash
                         String key = inputFile.getName() + "/" + resultHash;
@@ -148,6 +162,50 @@ public class DefaultTransformedFileCache implements TransformedFileCache, Stoppa
         });
     }
 
+    /**
+     * A cached result can be reused when all of its files still exist and are either owned by this cache or belong to the input file being transformed.
+     * A result that refers to some other input file is not reused, as that file was only identical in content to the requested input.
+     */
+    private boolean isReusable(List<File> files, File inputFile) {
+        for (File file : files) {
+            if (!file.exists()) {
+                return false;
+            }
+        }
+        return belongsTo(files, inputFile);
+    }
+
+    /**
+     * Returns true when all of the given files are either owned by this cache or belong to the given input file.
+     */
+    private boolean belongsTo(List<File> files, File inputFile) {
+        for (File file : files) {
+            if (!isWithin(file, filesOutputDirectory) && !isWithin(file, inputFile)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWithin(File file, File dir) {
+        String path = file.getAbsolutePath();
+        String dirPath = dir.getAbsolutePath();
+        return path.equals(dirPath) || path.startsWith(dirPath + File.separator);
+    }
+
+    /**
+     * Records that the output directories of the given result were used by this build, so that they are retained by {@link UnusedTransformOutputsCleanup}.
+     */
+    private void markUsed(List<File> files) {
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            File entryDir = UnusedTransformOutputsCleanup.entryDirFor(filesOutputDirectory, file);
+            if (entryDir != null) {
+                entryDir.setLastModified(now);
+            }
+        }
+    }
+
     private static class TransformAction implements Action<File> {
         private final BiFunction<List<File>, File, File> transformer;
         private final File inputFile;
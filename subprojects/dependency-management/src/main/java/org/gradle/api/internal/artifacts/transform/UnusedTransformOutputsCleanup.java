@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform;
+
+import org.gradle.api.Action;
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.PersistentCache;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+
+/**
+ * Removes transform output directories that have not been used for some time.
+ *
+ * <p>The file store is laid out as {@code <input-file-name>/<result-hash>}. Each result directory is touched by {@link DefaultTransformedFileCache} when it is used,
+ * so its modification time reflects the last time a build used it.</p>
+ */
+class UnusedTransformOutputsCleanup implements Action<PersistentCache> {
+    private static final Logger LOGGER = Logging.getLogger(UnusedTransformOutputsCleanup.class);
+
+    private final File filesOutputDirectory;
+    private final long maxAgeMillis;
+
+    UnusedTransformOutputsCleanup(File filesOutputDirectory, long maxAgeMillis) {
+        this.filesOutputDirectory = filesOutputDirectory;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @Override
+    public void execute(PersistentCache persistentCache) {
+        File[] inputNameDirs = filesOutputDirectory.listFiles();
+        if (inputNameDirs == null) {
+            return;
+        }
+        long minLastUsed = System.currentTimeMillis() - maxAgeMillis;
+        int removed = 0;
+        for (File inputNameDir : inputNameDirs) {
+            File[] entryDirs = inputNameDir.listFiles();
+            if (entryDirs == null) {
+                continue;
+            }
+            int remaining = entryDirs.length;
+            for (File entryDir : entryDirs) {
+                if (entryDir.lastModified() < minLastUsed) {
+                    try {
+                        GFileUtils.forceDelete(entryDir);
+                        removed++;
+                        remaining--;
+                    } catch (Exception e) {
+                        LOGGER.debug("Could not clean up transform output " + entryDir, e);
+                    }
+                }
+            }
+            if (remaining == 0) {
+                inputNameDir.delete();
+            }
+        }
+        LOGGER.info("{} removed {} transform results not used in the last {} days.", persistentCache, removed, maxAgeMillis / (24 * 60 * 60 * 1000L));
+    }
+
+    /**
+     * Returns the result directory in the given file store that contains the given file, or null when the file is not located in the store.
+     */
+    @Nullable
+    static File entryDirFor(File filesOutputDirectory, File file) {
+        File current = file.getAbsoluteFile();
+        File storeDir = filesOutputDirectory.getAbsoluteFile();
+        while (current != null) {
+            File parent = current.getParentFile();
+            if (parent != null && storeDir.equals(parent.getParentFile())) {
+                return current;
+            }
+            current = parent;
+        }
+        return null;
+    }
+}
@@ -17,7 +17,6 @@
 package org.gradle.internal.component.external.model;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Lists;
 import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
@@ -273,7 +272,6 @@ abstract class AbstractModuleComponentResolveMetadata implements ModuleComponent
         private final boolean visible;
         private final Set<String> hierarchy;
         private final List<Exclude> excludes;
-        private ModuleExclusion exclusions;
 
         private DefaultConfigurationMetadata(ModuleComponentIdentifier componentId, String name, boolean transitive, boolean visible, List<DefaultConfigurationMetadata> parents, List<Exclude> excludes) {
             this.componentId = componentId;
@@ -389,24 +387,11 @@ abstract class AbstractModuleComponentResolveMetadata implements ModuleComponent
 
         @Override
         public ModuleExclusion getExclusions(ModuleExclusions moduleExclusions) {
-            if (exclusions == null) {
-                exclusions = filterExcludes(moduleExclusions, excludes);
+            if (excludes.isEmpty()) {
+                return ModuleExclusions.excludeNone();
             }
-            return exclusions;
-        }
-
-        private ModuleExclusion filterExcludes(ModuleExclusions exclusions, Iterable<Exclude> excludes) {
-            Set<String> hierarchy = getHierarchy();
-            List<Exclude> filtered = Lists.newArrayList();
-            for (Exclude exclude : excludes) {
-                for (String config : exclude.getConfigurations()) {
-                    if (hierarchy.contains(config)) {
-                        filtered.add(exclude);
-                        break;
-                    }
-                }
-            }
-            return exclusions.excludeAny(filtered);
+            // Cached by the build scoped exclusions rather than by this configuration, as the metadata may be reused by later builds
+            return moduleExclusions.excludeAny(excludes, getHierarchy());
         }
 
         @Override
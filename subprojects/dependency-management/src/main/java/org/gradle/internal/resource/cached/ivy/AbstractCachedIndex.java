@@ -18,7 +18,6 @@ package org.gradle.internal.resource.cached.ivy;
 
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.cache.PersistentIndexedCache;
-import org.gradle.internal.Factory;
 import org.gradle.internal.resource.cached.CachedItem;
 import org.gradle.internal.serialize.Serializer;
 
@@ -54,19 +53,16 @@ public abstract class AbstractCachedIndex<K, V extends CachedItem> {
     public V lookup(final K key) {
         assertKeyNotNull(key);
 
-        return cacheLockingManager.useCache(new Factory<V>() {
-            public V create() {
-                V found = getPersistentCache().get(key);
-                if (found == null) {
-                    return null;
-                } else if (found.isMissing() || found.getCachedFile().exists()) {
-                    return found;
-                } else {
-                    clear(key);
-                    return null;
-                }
-            }
-        });
+        // Reading the index does not require the lock
+        V found = getPersistentCache().get(key);
+        if (found == null) {
+            return null;
+        } else if (found.isMissing() || found.getCachedFile().exists()) {
+            return found;
+        } else {
+            clear(key);
+            return null;
+        }
     }
 
     protected void storeInternal(final K key, final V entry) {
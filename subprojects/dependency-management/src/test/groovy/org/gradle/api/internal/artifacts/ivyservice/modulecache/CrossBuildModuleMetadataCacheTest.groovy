@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import org.gradle.internal.component.model.ModuleSource
+import spock.lang.Specification
+
+class CrossBuildModuleMetadataCacheTest extends Specification {
+    def cache = new CrossBuildModuleMetadataCache(10)
+    def key = new ModuleComponentAtRepositoryKey("repo", DefaultModuleComponentIdentifier.newId("org", "module", "1.0"))
+    def metadata = Stub(ModuleComponentResolveMetadata)
+
+    def "returns metadata for unchanged cache entry"() {
+        def entry = entry(false, 100, 1)
+
+        when:
+        cache.put(key, entry, metadata)
+
+        then:
+        cache.get(key, entry).is(metadata)
+        cache.get(key, entry(false, 100, 1)).is(metadata)
+        cache.hitCount == 2
+        cache.missCount == 0
+    }
+
+    def "discards metadata when cache entry has changed"() {
+        given:
+        cache.put(key, entry(false, 100, 1), metadata)
+
+        expect:
+        cache.get(key, entry(false, 101, 1)) == null
+        cache.size() == 0
+        cache.get(key, entry(false, 100, 1)) == null
+        cache.missCount == 2
+
+        when:
+        cache.put(key, entry(false, 100, 1), metadata)
+
+        then:
+        cache.get(key, entry(false, 100, 2)) == null
+        cache.size() == 0
+    }
+
+    def "does not retain metadata for changing modules"() {
+        def entry = entry(true, 100, 1)
+
+        when:
+        cache.put(key, entry, metadata)
+
+        then:
+        cache.size() == 0
+        cache.get(key, entry) == null
+    }
+
+    def "does not retain more than the maximum number of entries"() {
+        when:
+        20.times {
+            cache.put(new ModuleComponentAtRepositoryKey("repo", DefaultModuleComponentIdentifier.newId("org", "module", "$it")), entry(false, 100, 1), metadata)
+        }
+
+        then:
+        cache.size() <= 10
+    }
+
+    def "resets statistics at the end of each build session"() {
+        def entry = entry(false, 100, 1)
+        cache.put(key, entry, metadata)
+        cache.get(key, entry)
+        cache.get(new ModuleComponentAtRepositoryKey("other", key.componentId), entry)
+
+        expect:
+        cache.hitCount == 1
+        cache.missCount == 1
+
+        when:
+        cache.beforeComplete()
+
+        then:
+        cache.hitCount == 0
+        cache.missCount == 0
+        cache.get(key, entry).is(metadata)
+    }
+
+    def entry(boolean changing, long timestamp, int hash) {
+        return new ModuleMetadataCacheEntry(ModuleMetadataCacheEntry.TYPE_PRESENT, changing, timestamp, BigInteger.valueOf(hash), Stub(ModuleSource))
+    }
+}
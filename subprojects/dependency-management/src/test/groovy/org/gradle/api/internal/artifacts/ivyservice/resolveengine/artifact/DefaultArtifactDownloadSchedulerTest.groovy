@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact
+
+import org.gradle.internal.logging.progress.ProgressLogger
+import org.gradle.internal.logging.progress.ProgressLoggerFactory
+import org.gradle.internal.operations.BuildOperationContext
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.progress.BuildOperationDescriptor
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class DefaultArtifactDownloadSchedulerTest extends ConcurrentSpec {
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def progressLogger = Mock(ProgressLogger)
+    def progressLoggerFactory = Stub(ProgressLoggerFactory) {
+        newOperation(_) >> progressLogger
+    }
+
+    def "runs all downloads and reports progress"() {
+        def scheduler = new DefaultArtifactDownloadScheduler(executorFactory, buildOperationExecutor, progressLoggerFactory, 4)
+        def downloads = (1..6).collect { new TestDownload("repo${it % 2}", "a$it") }
+
+        when:
+        scheduler.downloadAll(downloads)
+
+        then:
+        downloads.every { it.ran }
+        buildOperationExecutor.operations*.displayName as Set == (1..6).collect { "Resolve a$it" } as Set
+
+        and:
+        1 * progressLogger.start("Download artifacts", "Downloading artifacts") >> progressLogger
+        6 * progressLogger.progress(_)
+        1 * progressLogger.completed()
+    }
+
+    def "interleaves downloads from different repositories"() {
+        def scheduler = new DefaultArtifactDownloadScheduler(executorFactory, buildOperationExecutor, progressLoggerFactory, 1)
+        def order = []
+        def downloads = [
+            new TestDownload("repo1", "a1", order),
+            new TestDownload("repo1", "a2", order),
+            new TestDownload("repo1", "a3", order),
+            new TestDownload("repo2", "b1", order),
+            new TestDownload(null, "c1", order),
+            new TestDownload("repo2", "b2", order)
+        ]
+
+        when:
+        scheduler.downloadAll(downloads)
+
+        then:
+        order == ["a1", "b1", "c1", "a2", "b2", "a3"]
+    }
+
+    def "runs single download in calling thread"() {
+        def scheduler = new DefaultArtifactDownloadScheduler(executorFactory, buildOperationExecutor, progressLoggerFactory, 4)
+        def download = new TestDownload("repo", "a")
+
+        when:
+        scheduler.downloadAll([download])
+
+        then:
+        download.ran
+        download.thread == Thread.currentThread()
+        0 * progressLogger._
+    }
+
+    def "rethrows failure once all downloads have completed"() {
+        def scheduler = new DefaultArtifactDownloadScheduler(executorFactory, buildOperationExecutor, progressLoggerFactory, 2)
+        def failure = new RuntimeException("broken")
+        def downloads = [new TestDownload("repo", "a"), new TestDownload("repo", "b", [], failure), new TestDownload("repo", "c")]
+
+        when:
+        scheduler.downloadAll(downloads)
+
+        then:
+        def e = thrown(RuntimeException)
+        e == failure
+        downloads.every { it.ran }
+    }
+
+    def "rejects invalid concurrency limit"() {
+        when:
+        new DefaultArtifactDownloadScheduler(executorFactory, buildOperationExecutor, progressLoggerFactory, 0)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Maximum number of concurrent downloads must be at least 1, was 0"
+    }
+
+    static class TestDownload implements ArtifactDownloadScheduler.Download {
+        final String repositoryId
+        final String name
+        final List<String> order
+        final RuntimeException failure
+        volatile boolean ran
+        volatile Thread thread
+
+        TestDownload(String repositoryId, String name, List<String> order = [], RuntimeException failure = null) {
+            this.repositoryId = repositoryId
+            this.name = name
+            this.order = order
+            this.failure = failure
+        }
+
+        @Override
+        void run(BuildOperationContext context) {
+            ran = true
+            thread = Thread.currentThread()
+            synchronized (order) {
+                order << name
+            }
+            if (failure != null) {
+                throw failure
+            }
+        }
+
+        @Override
+        BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Resolve $name")
+        }
+    }
+}
@@ -758,6 +758,38 @@ class DefaultModuleExclusionTest extends Specification {
         union(intersection, simpleExclude)
     }
 
+    def "structurally equal specs are represented by the same instance"() {
+        def rule1 = excludeRule("org", "module")
+        def rule2 = excludeRule("org", "module2")
+        def rule3 = excludeGroupRule("org2")
+        def spec1 = excludeAny(rule1, rule2)
+        def spec2 = excludeAny(excludeRule("org", "module2"), excludeRule("org", "module"))
+        def spec3 = excludeAny(rule3)
+
+        expect:
+        spec1.is(spec2)
+        intersect(spec1, spec3).is(intersect(spec2, excludeAny(excludeGroupRule("org2"))))
+        union(spec1, spec3).is(union(spec2, spec3))
+    }
+
+    def "memoizes result of module exclusion for composite specs"() {
+        def spec = Mock(AbstractModuleExclusion)
+        def intersection = new IntersectionExclusion(new ImmutableModuleExclusionSet([spec] as Set))
+
+        when:
+        def excluded1 = intersection.excludeModule(moduleId("org", "module"))
+        def excluded2 = intersection.excludeModule(moduleId("org", "module"))
+        def excluded3 = intersection.excludeModule(moduleId("org", "other"))
+
+        then:
+        excluded1
+        excluded2
+        !excluded3
+        1 * spec.excludeModule(moduleId("org", "module")) >> true
+        1 * spec.excludeModule(moduleId("org", "other")) >> false
+        0 * spec.excludeModule(_)
+    }
+
     ModuleExclusion union(ModuleExclusion spec, ModuleExclusion otherRule) {
         moduleExclusions.union(spec, otherRule)
     }
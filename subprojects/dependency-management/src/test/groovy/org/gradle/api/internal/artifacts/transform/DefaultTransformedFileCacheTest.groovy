@@ -19,6 +19,8 @@ package org.gradle.api.internal.artifacts.transform
 import com.google.common.hash.HashCode
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot
+import org.gradle.api.internal.changedetection.state.FileContentSnapshot
+import org.gradle.api.internal.changedetection.state.FileSnapshot
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory
 import org.gradle.cache.internal.CacheScopeMapping
@@ -46,7 +48,7 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         scopeMapping.getBaseDirectory(_, _, _) >> tmpDir.testDirectory
         scopeMapping.getRootDirectory(_) >> tmpDir.testDirectory
         artifactCacheMetaData.transformsStoreDirectory >> tmpDir.file("output")
-        cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter)
+        cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter, 30)
     }
 
     def "reuses result for given inputs and transform"() {
@@ -88,7 +90,7 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         result == [inputFile]
 
         and:
-        1 * snapshotter.snapshotAll(inputFile) >> snapshot(HashCode.fromInt(234))
+        1 * snapshotter.snapshotSelf(inputFile) >> fileSnapshot(HashCode.fromInt(234))
         1 * transform.apply(inputFile, _) >>  { File file, File dir -> [file] }
         0 * snapshotter._
         0 * transform._
@@ -100,9 +102,102 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         result2 == result
 
         and:
-        1 * snapshotter.snapshotAll(inputFile) >> snapshot(HashCode.fromInt(234))
+        1 * snapshotter.snapshotSelf(inputFile) >> fileSnapshot(HashCode.fromInt(234))
+        0 * transform._
+        0 * snapshotter._
+    }
+
+    def "reuses result for input files with the same name and content in different locations"() {
+        def transform = Mock(BiFunction)
+        def inputFile1 = tmpDir.file("dir1/a").createFile()
+        def inputFile2 = tmpDir.file("dir2/a").createFile()
+
+        when:
+        def result = cache.getResult(inputFile1, HashCode.fromInt(123), transform)
+
+        then:
+        result*.name == ["a.1"]
+
+        and:
+        1 * snapshotter.snapshotSelf(inputFile1) >> fileSnapshot(HashCode.fromInt(234))
+        1 * transform.apply(inputFile1, _) >>  { File file, File dir -> def r = new File(dir, "a.1"); r.text = "result"; [r] }
+        0 * snapshotter._
         0 * transform._
+
+        when:
+        cache.beforeComplete()
+        def result2 = cache.getResult(inputFile2, HashCode.fromInt(123), transform)
+
+        then:
+        result2 == result
+
+        and:
+        1 * snapshotter.snapshotSelf(inputFile2) >> fileSnapshot(HashCode.fromInt(234))
         0 * snapshotter._
+        0 * transform._
+    }
+
+    def "does not reuse result that refers to an input file in a different location"() {
+        def transform = Mock(BiFunction)
+        def inputFile1 = tmpDir.file("dir1/a").createFile()
+        def inputFile2 = tmpDir.file("dir2/a").createFile()
+
+        given:
+        _ * snapshotter.snapshotSelf(_) >> fileSnapshot(HashCode.fromInt(234))
+        1 * transform.apply(inputFile1, _) >>  { File file, File dir -> [file] }
+        cache.getResult(inputFile1, HashCode.fromInt(123), transform)
+        cache.beforeComplete()
+
+        when:
+        def result = cache.getResult(inputFile2, HashCode.fromInt(123), transform)
+
+        then:
+        result == [inputFile2]
+
+        and:
+        1 * transform.apply(inputFile2, _) >>  { File file, File dir -> [file] }
+        0 * transform._
+    }
+
+    def "does not reuse in-memory result that refers to an input file in a different location in the same build"() {
+        def transform = Mock(BiFunction)
+        def inputFile1 = tmpDir.file("dir1/a").createFile()
+        def inputFile2 = tmpDir.file("dir2/a").createFile()
+
+        given:
+        _ * snapshotter.snapshotSelf(_) >> fileSnapshot(HashCode.fromInt(234))
+        1 * transform.apply(inputFile1, _) >>  { File file, File dir -> [file] }
+        cache.getResult(inputFile1, HashCode.fromInt(123), transform)
+
+        when:
+        def result = cache.getResult(inputFile2, HashCode.fromInt(123), transform)
+
+        then:
+        result == [inputFile2]
+
+        and:
+        1 * transform.apply(inputFile2, _) >>  { File file, File dir -> [file] }
+        0 * transform._
+    }
+
+    def "reuses in-memory result for input files with the same name and content in different locations in the same build"() {
+        def transform = Mock(BiFunction)
+        def inputFile1 = tmpDir.file("dir1/a").createFile()
+        def inputFile2 = tmpDir.file("dir2/a").createFile()
+
+        given:
+        _ * snapshotter.snapshotSelf(_) >> fileSnapshot(HashCode.fromInt(234))
+        1 * transform.apply(inputFile1, _) >>  { File file, File dir -> def r = new File(dir, "a.1"); r.text = "result"; [r] }
+        def result = cache.getResult(inputFile1, HashCode.fromInt(123), transform)
+
+        when:
+        def result2 = cache.getResult(inputFile2, HashCode.fromInt(123), transform)
+
+        then:
+        result2 == result
+
+        and:
+        0 * transform._
     }
 
     def "applies transform once when requested concurrently by multiple threads"() {
@@ -291,7 +386,7 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         def result = cache.getResult(inputFile, HashCode.fromInt(123), transform)
 
         when:
-        def cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter)
+        def cache = new DefaultTransformedFileCache(artifactCacheMetaData, cacheRepo, decorator, snapshotter, 30)
         result.first().delete()
         def result2 = cache.getResult(inputFile, HashCode.fromInt(123), transform)
 
@@ -304,6 +399,14 @@ class DefaultTransformedFileCacheTest extends ConcurrentSpec {
         0 * transform._
     }
 
+    def fileSnapshot(HashCode hashCode) {
+        FileSnapshot snapshot = Stub(FileSnapshot)
+        FileContentSnapshot content = Stub(FileContentSnapshot)
+        content.contentMd5 >> hashCode
+        snapshot.content >> content
+        snapshot
+    }
+
     def snapshot(HashCode hashCode) {
         FileCollectionSnapshot snapshot = Stub(FileCollectionSnapshot)
         snapshot.appendToHasher(_) >> { BuildCacheHasher hasher -> hasher.putHash(hashCode) }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import org.gradle.cache.PersistentCache
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class UnusedTransformOutputsCleanupTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def filesDir = tmpDir.createDir("files-1.1")
+    def cleanup = new UnusedTransformOutputsCleanup(filesDir, TimeUnit.DAYS.toMillis(30))
+
+    def "removes result directories that have not been used within the retention period"() {
+        def oldResult = filesDir.file("a.jar/1234/a.jar.txt").createFile()
+        def recentResult = filesDir.file("a.jar/5678/a.jar.txt").createFile()
+        def otherOldResult = filesDir.file("b.jar/1234/b.jar.txt").createFile()
+        oldResult.parentFile.lastModified = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31)
+        otherOldResult.parentFile.lastModified = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31)
+
+        when:
+        cleanup.execute(Stub(PersistentCache))
+
+        then:
+        !oldResult.parentFile.exists()
+        recentResult.exists()
+        !filesDir.file("b.jar").exists()
+    }
+
+    def "locates result directory for file in store"() {
+        expect:
+        UnusedTransformOutputsCleanup.entryDirFor(filesDir, filesDir.file("a.jar/1234/a.jar.txt")) == filesDir.file("a.jar/1234")
+        UnusedTransformOutputsCleanup.entryDirFor(filesDir, filesDir.file("a.jar/1234/nested/a.class")) == filesDir.file("a.jar/1234")
+        UnusedTransformOutputsCleanup.entryDirFor(filesDir, tmpDir.file("other/a.jar")) == null
+    }
+}
@@ -143,6 +143,31 @@ abstract class AbstractModuleComponentResolveMetadataTest extends Specification
         exclusions.is(config.getExclusions(moduleExclusions))
     }
 
+    def "builds exclude rules for each instance of module exclusions"() {
+        given:
+        def moduleExclusions = new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory())
+        def otherModuleExclusions = new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory())
+        configuration("compile")
+        def rule = exclude("one", ["compile"])
+
+        expect:
+        def config = metadata.getConfiguration("compile")
+
+        def exclusions = config.getExclusions(moduleExclusions)
+        def otherExclusions = config.getExclusions(otherModuleExclusions)
+        exclusions.is(moduleExclusions.excludeAny(rule))
+        otherExclusions.is(otherModuleExclusions.excludeAny(rule))
+        !otherExclusions.is(exclusions)
+    }
+
+    def "excludes nothing for configuration without exclude rules"() {
+        given:
+        configuration("compile")
+
+        expect:
+        metadata.getConfiguration("compile").getExclusions(new ModuleExclusions(new DefaultImmutableModuleIdentifierFactory())) == ModuleExclusions.excludeNone()
+    }
+
     def "can make a copy with different source"() {
         given:
         configuration("compile")
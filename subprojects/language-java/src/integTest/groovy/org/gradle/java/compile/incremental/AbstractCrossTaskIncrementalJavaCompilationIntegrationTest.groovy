@@ -165,10 +165,8 @@ abstract class AbstractCrossTaskIncrementalJavaCompilationIntegrationTest extend
         impl.noneRecompiled()
     }
 
-    @NotYetImplemented
-    //  Can re-enable with compiler plugins. See gradle/gradle#1474
     def "deletion of jar with non-private constant causes rebuild if constant is used"() {
-        java api: ["class A { public final static int x = 1; }"], impl: ["class X { int x() { return 1;} }", "class Y {}"]
+        java api: ["class A { public final static int x = 1; }"], impl: ["class X { int foo() { return A.x; } }", "class Y {}"]
         impl.snapshot { run "compileJava" }
 
         when:
@@ -177,14 +175,13 @@ abstract class AbstractCrossTaskIncrementalJavaCompilationIntegrationTest extend
                 configurations.compile.dependencies.clear() //so that api jar is no longer on classpath
             }
         """
-        run "impl:compileJava"
 
         then:
-        impl.recompiledClasses("X")
+        // X only references the inlined value of the constant, so it fails only when it is recompiled
+        fails "impl:compileJava"
+        failure.assertHasCause("Compilation failed; see the compiler error output for details.")
     }
 
-    @NotYetImplemented
-    //  Can re-enable with compiler plugins. See gradle/gradle#1474
     def "changing an unused non-private constant doesn't cause full rebuild"() {
         java api: ["class A {}", "class B { final static int x = 1; }"], impl: ["class ImplA extends A {}", "class ImplB extends B {}"]
         impl.snapshot { run "compileJava" }
@@ -197,43 +194,29 @@ abstract class AbstractCrossTaskIncrementalJavaCompilationIntegrationTest extend
         impl.recompiledClasses('ImplB')
     }
 
-    // This test describes the current behavior, not the intended one, expressed by the test just above
-    def "changing an unused non-private constant causes full rebuild"() {
-        java api: ["class A {}", "class B { final static int x = 1; }"], impl: ["class ImplA extends A {}", "class ImplB extends B {}"]
-        impl.snapshot { run "compileJava" }
-
-        when:
-        java api: ["class B { /* change */ }"]
-        run "impl:compileJava"
-
-        then:
-        impl.recompiledClasses('ImplA', 'ImplB')
-    }
-
     @Unroll
     def "change in an upstream class with non-private constant causes rebuild if same constant is used (#constantType)"() {
-        java api: ["class A {}", "class B { final static $constantType x = $constantValue; }"], impl: ["class ImplA extends A { $constantType foo() { return $constantValue; }}", "class ImplB {int foo() { return 2; }}"]
+        java api: ["class A {}", "class B { final static $constantType x = $constantValue; }"], impl: ["class ImplA extends A { $constantType foo() { return B.x; }}", "class ImplB {int foo() { return 2; }}"]
         impl.snapshot { run "compileJava" }
 
         when:
-        java api: ["class B { /* change */ }"]
+        java api: ["class B { final static $constantType x = $newValue; /* change value */ ; void blah() { /* avoid flakiness by changing compiled file length*/ } }"]
         run "impl:compileJava"
 
         then:
-        // impl.recompiledClasses('ImplA') //  Can re-enable with compiler plugins. See gradle/gradle#1474
-        impl.recompiledClasses('ImplA', 'ImplB')
+        impl.recompiledClasses('ImplA')
 
         where:
-        constantType | constantValue
-        'boolean'    | 'false'
-        'byte'       | '(byte) 125'
-        'short'      | '(short) 666'
-        'int'        | '55542'
-        'long'       | '5L'
-        'float'      | '6f'
-        'double'     | '7d'
-        'String'     | '"foo"'
-        'String'     | '"foo" + "bar"'
+        constantType | constantValue   | newValue
+        'boolean'    | 'false'         | 'true'
+        'byte'       | '(byte) 125'    | '(byte) 126'
+        'short'      | '(short) 666'   | '(short) 555'
+        'int'        | '55542'         | '444'
+        'long'       | '5L'            | '689L'
+        'float'      | '6f'            | '6.5f'
+        'double'     | '7d'            | '7.2d'
+        'String'     | '"foo"'         | '"bar"'
+        'String'     | '"foo" + "bar"' | '"bar"'
     }
 
     @Unroll
@@ -307,7 +290,7 @@ abstract class AbstractCrossTaskIncrementalJavaCompilationIntegrationTest extend
 
     def "recompiles in case of conflicting changing constant values"() {
         java api: ["class A { final static int x = 3; }", "class B { final static int x = 3; final static int y = -2; }"],
-            impl: ["class X { int foo() { return 3; }}", "class Y {int foo() { return -2; }}"]
+            impl: ["class X { int foo() { return A.x; }}", "class Y {int foo() { return B.y; }}", "class Z {}"]
         impl.snapshot { run "compileJava" }
 
         when:
@@ -620,7 +603,7 @@ abstract class AbstractCrossTaskIncrementalJavaCompilationIntegrationTest extend
         run("impl:compileJava")
 
         then:
-        impl.recompiledClasses('B', 'C', 'C$Inner', 'D', 'D$Inner', 'E', 'E$1', 'F', 'F$Inner')
+        impl.recompiledClasses('C', 'C$Inner', 'D', 'D$Inner', 'E', 'E$1', 'F', 'F$Inner')
 
         where:
         visibility << ['public', 'private' , '']
@@ -691,7 +674,7 @@ abstract class AbstractCrossTaskIncrementalJavaCompilationIntegrationTest extend
 
     def "recompiles dependent class in case a constant is switched"() {
         java api: ["class A { public static final int FOO = 10; public static final int BAR = 20; }"],
-            impl: ['class B { void foo() { int x = 10; } }', 'class C { void foo() { int x = 20; } }']
+            impl: ['class B { void foo() { int x = A.FOO; } }', 'class C { void foo() { int x = A.BAR; } }', 'class D {}']
         impl.snapshot { run 'compileJava' }
 
         when:
@@ -245,20 +245,18 @@ class SourceIncrementalJavaCompilationIntegrationTest extends AbstractIntegratio
         outputs.recompiledClasses 'B'
     }
 
-    def "changed class with used non-private constant incurs full rebuild"() {
-        java "class A { int foo() { return 1; } }", "class B { final static int x = 1;}"
+    def "changed class with used non-private constant recompiles the classes using it"() {
+        java "class A { int foo() { return B.x; } }", "class B { final static int x = 1;}", "class C { int foo() { return 1; } }"
         outputs.snapshot { run "compileJava" }
 
         when:
-        java "class B { /* change */ }"
+        java "class B { final static int x = 2;}"
         run "compileJava"
 
         then:
         outputs.recompiledClasses 'B', 'A'
     }
 
-    @NotYetImplemented
-    //  Can re-enable with compiler plugins. See gradle/gradle#1474
     def "changing an unused non-private constant incurs partial rebuild"() {
         java "class A { int foo() { return 2; } }", "class B { final static int x = 1;}"
         outputs.snapshot { run "compileJava" }
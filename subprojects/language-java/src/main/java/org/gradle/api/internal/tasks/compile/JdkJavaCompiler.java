@@ -16,6 +16,7 @@
 package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.internal.tasks.compile.files.CachingClasspathJavaFileManager;
 import org.gradle.api.internal.tasks.compile.files.SourcepathIgnoringJavaFileManager;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.CompileOptions;
@@ -45,26 +46,35 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
-        if (!success) {
-            throw new CompilationFailedException();
-        }
-
-        return new SimpleWorkResult(true);
-    }
-
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
         List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
         JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
         CompileOptions compileOptions = spec.getCompileOptions();
         StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSource());
         JavaFileManager fileManager = standardFileManager;
+        CachingClasspathJavaFileManager cachingFileManager = null;
+        if (CachingClasspathJavaFileManager.isEnabled()) {
+            cachingFileManager = new CachingClasspathJavaFileManager(fileManager, spec.getCompileClasspath());
+            fileManager = cachingFileManager;
+        }
         if (emptySourcepathIn(options)) {
-            fileManager = new SourcepathIgnoringJavaFileManager(standardFileManager);
+            fileManager = new SourcepathIgnoringJavaFileManager(fileManager);
         }
-        return compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+
+        boolean success;
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+            success = task.call();
+        } finally {
+            if (cachingFileManager != null) {
+                cachingFileManager.closeArchives();
+            }
+        }
+        if (!success) {
+            throw new CompilationFailedException();
+        }
+
+        return new SimpleWorkResult(true);
     }
 
     private static boolean emptySourcepathIn(List<String> options) {
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The names of the files in a class path archive, grouped by package, along with the class path declared by the manifest of the archive.
+ */
+class ArchiveIndex {
+    static final ArchiveIndex EMPTY = new ArchiveIndex(Collections.<String, PackageEntries>emptyMap(), Collections.<File>emptyList());
+
+    private final Map<String, PackageEntries> packages;
+    private final List<File> manifestClassPath;
+
+    private ArchiveIndex(Map<String, PackageEntries> packages, List<File> manifestClassPath) {
+        this.packages = packages;
+        this.manifestClassPath = manifestClassPath;
+    }
+
+    static ArchiveIndex read(File archive) throws IOException {
+        ZipFile zipFile = new ZipFile(archive);
+        try {
+            Map<String, List<ZipEntry>> entriesByPackage = new HashMap<String, List<ZipEntry>>();
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String packageName = packageNameOf(entry.getName());
+                List<ZipEntry> packageEntries = entriesByPackage.get(packageName);
+                if (packageEntries == null) {
+                    packageEntries = new ArrayList<ZipEntry>();
+                    entriesByPackage.put(packageName, packageEntries);
+                }
+                packageEntries.add(entry);
+            }
+
+            Map<String, PackageEntries> packages = new HashMap<String, PackageEntries>(entriesByPackage.size());
+            for (Map.Entry<String, List<ZipEntry>> entry : entriesByPackage.entrySet()) {
+                packages.put(entry.getKey(), new PackageEntries(entry.getValue()));
+            }
+            return new ArchiveIndex(packages, readManifestClassPath(archive, zipFile));
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    private static String packageNameOf(String entryName) {
+        int separator = entryName.lastIndexOf('/');
+        return separator < 0 ? "" : entryName.substring(0, separator).replace('/', '.');
+    }
+
+    private static List<File> readManifestClassPath(File archive, ZipFile zipFile) throws IOException {
+        ZipEntry manifestEntry = zipFile.getEntry(JarFile.MANIFEST_NAME);
+        if (manifestEntry == null) {
+            return Collections.emptyList();
+        }
+        InputStream inputStream = zipFile.getInputStream(manifestEntry);
+        String classPath;
+        try {
+            classPath = new Manifest(inputStream).getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+        } finally {
+            inputStream.close();
+        }
+        if (classPath == null) {
+            return Collections.emptyList();
+        }
+        // Resolve the entries the same way javac does
+        List<File> files = new ArrayList<File>();
+        for (String path : classPath.trim().split("\\s+")) {
+            if (path.length() == 0) {
+                continue;
+            }
+            File file = new File(path);
+            if (!file.isAbsolute() && archive.getParentFile() != null) {
+                file = new File(archive.getParentFile(), path).getAbsoluteFile();
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * Returns the entries of the given package, and of its sub-packages when {@code recurse} is true.
+     */
+    List<PackageEntries> getPackages(String packageName, boolean recurse) {
+        if (!recurse) {
+            PackageEntries entries = packages.get(packageName);
+            return entries == null ? Collections.<PackageEntries>emptyList() : Collections.singletonList(entries);
+        }
+        List<PackageEntries> result = new ArrayList<PackageEntries>();
+        String prefix = packageName + ".";
+        for (Map.Entry<String, PackageEntries> entry : packages.entrySet()) {
+            if (packageName.length() == 0 || entry.getKey().equals(packageName) || entry.getKey().startsWith(prefix)) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    List<File> getManifestClassPath() {
+        return manifestClassPath;
+    }
+
+    int getEntryCount() {
+        int count = 0;
+        for (PackageEntries entries : packages.values()) {
+            count += entries.size();
+        }
+        return count;
+    }
+
+    /**
+     * The files in a single package. Stores the entry names and timestamps in arrays to keep the index compact.
+     */
+    static class PackageEntries {
+        private final String[] entryNames;
+        private final long[] lastModified;
+
+        PackageEntries(List<ZipEntry> entries) {
+            entryNames = new String[entries.size()];
+            lastModified = new long[entries.size()];
+            for (int i = 0; i < entryNames.length; i++) {
+                ZipEntry entry = entries.get(i);
+                entryNames[i] = entry.getName();
+                lastModified[i] = entry.getTime();
+            }
+        }
+
+        int size() {
+            return entryNames.length;
+        }
+
+        String getEntryName(int index) {
+            return entryNames[index];
+        }
+
+        long getLastModified(int index) {
+            return lastModified[index];
+        }
+    }
+}
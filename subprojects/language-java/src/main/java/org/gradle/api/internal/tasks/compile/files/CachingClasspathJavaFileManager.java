@@ -0,0 +1,380 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.files;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import org.gradle.internal.UncheckedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Lists the contents of the class path using indexes of the class path archives that are kept across compilations, rather than having javac open
+ * and scan every archive for every compilation. An archive is opened only when javac reads a class from it, and is closed again once the compilation
+ * has finished, so that no archive is held open between compilations.
+ *
+ * <p>The index of an archive is reused for as long as the length and last modified time of the archive do not change.</p>
+ */
+public class CachingClasspathJavaFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.java.compile.cacheClasspath";
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingClasspathJavaFileManager.class);
+    private static final long MAX_CACHED_ENTRIES = 500000;
+    private static final Cache<ArchiveKey, ArchiveIndex> ARCHIVE_INDEXES = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_CACHED_ENTRIES)
+        .weigher(new Weigher<ArchiveKey, ArchiveIndex>() {
+            @Override
+            public int weigh(ArchiveKey key, ArchiveIndex value) {
+                return value.getEntryCount() + 1;
+            }
+        })
+        .build();
+
+    private final List<File> classpath;
+    private final Map<File, ZipFile> openArchives = new HashMap<File, ZipFile>();
+    private List<ClasspathElement> classpathElements;
+
+    public CachingClasspathJavaFileManager(JavaFileManager fileManager, List<File> classpath) {
+        super(fileManager);
+        this.classpath = classpath == null ? Collections.<File>emptyList() : classpath;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+        // Sources are read using the encoding known to the standard file manager, so leave them to it
+        if (!location.equals(StandardLocation.CLASS_PATH) || kinds.contains(JavaFileObject.Kind.SOURCE)) {
+            return super.list(location, packageName, kinds, recurse);
+        }
+        List<JavaFileObject> result = new ArrayList<JavaFileObject>();
+        for (ClasspathElement element : getClasspathElements()) {
+            element.list(packageName, kinds, recurse, result);
+        }
+        return result;
+    }
+
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+        if (file instanceof ClasspathFileObject) {
+            return ((ClasspathFileObject) file).binaryName;
+        }
+        return super.inferBinaryName(location, file);
+    }
+
+    @Override
+    public boolean isSameFile(FileObject a, FileObject b) {
+        if (a instanceof ClasspathFileObject || b instanceof ClasspathFileObject) {
+            return a.toUri().equals(b.toUri());
+        }
+        return super.isSameFile(a, b);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeArchives();
+        super.close();
+    }
+
+    /**
+     * Closes the archives opened to read classes from. The index of each archive is retained.
+     */
+    public void closeArchives() {
+        for (Map.Entry<File, ZipFile> entry : openArchives.entrySet()) {
+            try {
+                entry.getValue().close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close class path archive " + entry.getKey(), e);
+            }
+        }
+        openArchives.clear();
+    }
+
+    private List<ClasspathElement> getClasspathElements() {
+        if (classpathElements == null) {
+            List<ClasspathElement> elements = new ArrayList<ClasspathElement>();
+            Set<File> seen = new HashSet<File>();
+            for (File file : classpath) {
+                addClasspathElement(file.getAbsoluteFile(), seen, elements);
+            }
+            classpathElements = elements;
+        }
+        return classpathElements;
+    }
+
+    private void addClasspathElement(File file, Set<File> seen, List<ClasspathElement> elements) {
+        if (!seen.add(file)) {
+            return;
+        }
+        if (file.isDirectory()) {
+            elements.add(new DirectoryElement(file));
+        } else if (file.isFile()) {
+            ArchiveIndex index = indexOf(file);
+            elements.add(new ArchiveElement(file, index));
+            // Like javac, add the class path declared by the archive straight after the archive
+            for (File manifestEntry : index.getManifestClassPath()) {
+                addClasspathElement(manifestEntry, seen, elements);
+            }
+        }
+    }
+
+    private static ArchiveIndex indexOf(final File archive) {
+        ArchiveKey key = new ArchiveKey(archive, archive.length(), archive.lastModified());
+        try {
+            return ARCHIVE_INDEXES.get(key, new Callable<ArchiveIndex>() {
+                @Override
+                public ArchiveIndex call() throws Exception {
+                    try {
+                        return ArchiveIndex.read(archive);
+                    } catch (ZipException e) {
+                        // javac ignores files on the class path that are not archives
+                        LOGGER.debug("Ignoring class path entry {} as it is not an archive.", archive);
+                        return ArchiveIndex.EMPTY;
+                    }
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    private ZipFile openArchive(File archive) throws IOException {
+        ZipFile zipFile = openArchives.get(archive);
+        if (zipFile == null) {
+            zipFile = new ZipFile(archive);
+            openArchives.put(archive, zipFile);
+        }
+        return zipFile;
+    }
+
+    private static JavaFileObject.Kind kindOf(String fileName) {
+        for (JavaFileObject.Kind kind : JavaFileObject.Kind.values()) {
+            if (kind != JavaFileObject.Kind.OTHER && fileName.endsWith(kind.extension)) {
+                return kind;
+            }
+        }
+        return JavaFileObject.Kind.OTHER;
+    }
+
+    private static String binaryNameOf(String packageName, String fileName) {
+        int extension = fileName.lastIndexOf('.');
+        String simpleName = extension < 0 ? fileName : fileName.substring(0, extension);
+        return packageName.length() == 0 ? simpleName : packageName + "." + simpleName;
+    }
+
+    private interface ClasspathElement {
+        void list(String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse, List<JavaFileObject> result);
+    }
+
+    private class ArchiveElement implements ClasspathElement {
+        private final File archive;
+        private final ArchiveIndex index;
+
+        ArchiveElement(File archive, ArchiveIndex index) {
+            this.archive = archive;
+            this.index = index;
+        }
+
+        @Override
+        public void list(String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse, List<JavaFileObject> result) {
+            for (ArchiveIndex.PackageEntries entries : index.getPackages(packageName, recurse)) {
+                for (int i = 0; i < entries.size(); i++) {
+                    String entryName = entries.getEntryName(i);
+                    int separator = entryName.lastIndexOf('/');
+                    String fileName = entryName.substring(separator + 1);
+                    JavaFileObject.Kind kind = kindOf(fileName);
+                    if (kinds.contains(kind)) {
+                        String entryPackage = separator < 0 ? "" : entryName.substring(0, separator).replace('/', '.');
+                        result.add(new ArchiveFileObject(archive, entryName, fileName, binaryNameOf(entryPackage, fileName), kind, entries.getLastModified(i)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static class DirectoryElement implements ClasspathElement {
+        private final File dir;
+
+        DirectoryElement(File dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        public void list(String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse, List<JavaFileObject> result) {
+            File packageDir = packageName.length() == 0 ? dir : new File(dir, packageName.replace('.', File.separatorChar));
+            listDirectory(packageDir, packageName, kinds, recurse, result);
+        }
+
+        private void listDirectory(File packageDir, String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse, List<JavaFileObject> result) {
+            File[] files = packageDir.listFiles();
+            if (files == null) {
+                return;
+            }
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    if (recurse) {
+                        listDirectory(file, packageName.length() == 0 ? file.getName() : packageName + "." + file.getName(), kinds, true, result);
+                    }
+                    continue;
+                }
+                JavaFileObject.Kind kind = kindOf(file.getName());
+                if (kinds.contains(kind)) {
+                    result.add(new DirectoryFileObject(file, binaryNameOf(packageName, file.getName()), kind));
+                }
+            }
+        }
+    }
+
+    private abstract static class ClasspathFileObject extends SimpleJavaFileObject {
+        final String fileName;
+        final String binaryName;
+
+        ClasspathFileObject(URI uri, String fileName, String binaryName, Kind kind) {
+            super(uri, kind);
+            this.fileName = fileName;
+            this.binaryName = binaryName;
+        }
+
+        @Override
+        public boolean isNameCompatible(String simpleName, Kind kind) {
+            return kind == getKind() && fileName.equals(simpleName + kind.extension);
+        }
+    }
+
+    private class ArchiveFileObject extends ClasspathFileObject {
+        private final File archive;
+        private final String entryName;
+        private final long lastModified;
+
+        ArchiveFileObject(File archive, String entryName, String fileName, String binaryName, Kind kind, long lastModified) {
+            super(toJarUri(archive, entryName), fileName, binaryName, kind);
+            this.archive = archive;
+            this.entryName = entryName;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public String getName() {
+            return archive.getPath() + "(" + entryName + ")";
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            ZipFile zipFile = openArchive(archive);
+            ZipEntry entry = zipFile.getEntry(entryName);
+            if (entry == null) {
+                throw new FileNotFoundException(getName());
+            }
+            return zipFile.getInputStream(entry);
+        }
+
+        @Override
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private static URI toJarUri(File archive, String entryName) {
+        try {
+            return new URI("jar", archive.toURI() + "!/" + entryName, null);
+        } catch (URISyntaxException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static class DirectoryFileObject extends ClasspathFileObject {
+        private final File file;
+
+        DirectoryFileObject(File file, String binaryName, Kind kind) {
+            super(file.toURI(), file.getName(), binaryName, kind);
+            this.file = file;
+        }
+
+        @Override
+        public String getName() {
+            return file.getPath();
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            return new FileInputStream(file);
+        }
+
+        @Override
+        public long getLastModified() {
+            return file.lastModified();
+        }
+    }
+
+    private static class ArchiveKey {
+        private final File archive;
+        private final long length;
+        private final long lastModified;
+
+        ArchiveKey(File archive, long length, long lastModified) {
+            this.archive = archive;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ArchiveKey other = (ArchiveKey) o;
+            return length == other.length && lastModified == other.lastModified && archive.equals(other.archive);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(archive, length, lastModified);
+        }
+    }
+}
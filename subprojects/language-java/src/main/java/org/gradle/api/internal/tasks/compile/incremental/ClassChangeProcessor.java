@@ -63,6 +63,7 @@ public class ClassChangeProcessor {
             spec.setFullRebuildCause(actualDependents.getDescription(), input.getFile());
         } else {
             spec.getClassNames().addAll(actualDependents.getDependentClasses());
+            spec.getChangedConstants().addAll(actualDependents.getChangedConstants());
         }
     }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
+import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.gradle.internal.FileUtils.hasExtension;
+
+/**
+ * Finds the source classes that use constants whose value may have changed.
+ *
+ * <p>The compiler inlines the values of constants, so a class using a constant does not reference the class declaring it in its byte code.
+ * A source class can only use a constant by naming it, though, so it is enough to look for the names of the changed constants in the
+ * identifiers of each source file. Comments and literals are skipped, and any identifier with the name of a changed constant is considered
+ * a use, which may recompile a few more classes than necessary but never too few.</p>
+ *
+ * <p>A class using a changed constant in the initializer of one of its own constants may change the value of that constant as well, so the
+ * constants declared by each class found are looked for in turn.</p>
+ */
+class ConstantReferenceFinder {
+
+    private final SourceToNameConverter sourceToNameConverter;
+    private final PreviousCompilation previousCompilation;
+
+    public ConstantReferenceFinder(SourceToNameConverter sourceToNameConverter, PreviousCompilation previousCompilation) {
+        this.sourceToNameConverter = sourceToNameConverter;
+        this.previousCompilation = previousCompilation;
+    }
+
+    public void addReferencingClasses(Iterable<File> sources, Charset encoding, RecompilationSpec spec) {
+        Set<String> changedConstants = new HashSet<String>(spec.getChangedConstants());
+        Set<String> candidates = new HashSet<String>(previousCompilation.getAllConstantNames());
+        candidates.addAll(changedConstants);
+
+        Map<String, Set<String>> referencesByClass = new LinkedHashMap<String, Set<String>>();
+        for (File source : sources) {
+            if (!hasExtension(source, ".java")) {
+                continue;
+            }
+            Set<String> references = findReferences(source, encoding, candidates);
+            if (!references.isEmpty()) {
+                referencesByClass.put(sourceToNameConverter.getClassName(source), references);
+            }
+        }
+
+        Set<String> referencingClasses = new HashSet<String>();
+        boolean found = true;
+        while (found) {
+            found = false;
+            for (Map.Entry<String, Set<String>> entry : referencesByClass.entrySet()) {
+                String className = entry.getKey();
+                if (!referencingClasses.contains(className) && !Collections.disjoint(entry.getValue(), changedConstants)) {
+                    referencingClasses.add(className);
+                    changedConstants.addAll(previousCompilation.getConstantNamesDeclaredIn(className));
+                    found = true;
+                }
+            }
+        }
+        spec.getClassNames().addAll(referencingClasses);
+    }
+
+    private static Set<String> findReferences(File source, Charset encoding, Set<String> candidates) {
+        String text;
+        try {
+            text = Files.toString(source, encoding);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return findReferences(text, candidates);
+    }
+
+    static Set<String> findReferences(String text, Set<String> candidates) {
+        if (text.indexOf("\\u") >= 0) {
+            text = translateUnicodeEscapes(text);
+        }
+        Set<String> references = null;
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if (ch == '/' && pos + 1 < length && text.charAt(pos + 1) == '/') {
+                pos = skipTo(text, "\n", pos + 2);
+            } else if (ch == '/' && pos + 1 < length && text.charAt(pos + 1) == '*') {
+                pos = skipTo(text, "*/", pos + 2);
+            } else if (ch == '"' || ch == '\'') {
+                pos = skipLiteral(text, ch, pos + 1);
+            } else if (Character.isJavaIdentifierStart(ch)) {
+                int start = pos;
+                pos++;
+                while (pos < length && Character.isJavaIdentifierPart(text.charAt(pos))) {
+                    pos++;
+                }
+                String identifier = text.substring(start, pos);
+                if (candidates.contains(identifier)) {
+                    if (references == null) {
+                        references = new HashSet<String>();
+                    }
+                    references.add(identifier);
+                }
+            } else if (Character.isDigit(ch)) {
+                // skip numeric literals, so that suffixes and hex digits are not taken for identifiers
+                pos++;
+                while (pos < length && Character.isJavaIdentifierPart(text.charAt(pos))) {
+                    pos++;
+                }
+            } else {
+                pos++;
+            }
+        }
+        return references == null ? Collections.<String>emptySet() : references;
+    }
+
+    private static int skipTo(String text, String end, int pos) {
+        int index = text.indexOf(end, pos);
+        return index < 0 ? text.length() : index + end.length();
+    }
+
+    private static int skipLiteral(String text, char quote, int pos) {
+        int length = text.length();
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if (ch == '\\') {
+                pos += 2;
+            } else if (ch == quote || ch == '\n') {
+                return pos + 1;
+            } else {
+                pos++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Translates unicode escapes the way the compiler does before tokenizing the source, so that identifiers using them are recognized.
+     */
+    private static String translateUnicodeEscapes(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            char ch = text.charAt(pos);
+            if (ch != '\\') {
+                result.append(ch);
+                pos++;
+                continue;
+            }
+            if (pos + 1 < length && text.charAt(pos + 1) == '\\') {
+                // an escaped backslash cannot start a unicode escape
+                result.append("\\\\");
+                pos += 2;
+                continue;
+            }
+            int hexStart = pos + 1;
+            while (hexStart < length && text.charAt(hexStart) == 'u') {
+                hexStart++;
+            }
+            if (hexStart > pos + 1 && hexStart + 4 <= length) {
+                try {
+                    result.append((char) Integer.parseInt(text.substring(hexStart, hexStart + 4), 16));
+                    pos = hexStart + 4;
+                    continue;
+                } catch (NumberFormatException e) {
+                    // not a valid escape, leave it to the compiler to report
+                }
+            }
+            result.append(ch);
+            pos++;
+        }
+        return result.toString();
+    }
+}
@@ -42,5 +42,6 @@ class JavaChangeProcessor {
             return;
         }
         spec.getClassNames().addAll(actualDependents.getDependentClasses());
+        spec.getChangedConstants().addAll(actualDependents.getChangedConstants());
     }
 }
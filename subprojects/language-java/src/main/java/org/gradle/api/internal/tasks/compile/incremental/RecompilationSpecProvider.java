@@ -20,6 +20,7 @@ import org.gradle.api.Action;
 import org.gradle.api.internal.changedetection.rules.ChangeType;
 import org.gradle.api.internal.changedetection.rules.FileChange;
 import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarChangeProcessor;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
@@ -30,6 +31,7 @@ import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.internal.util.Alignment;
 
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,7 +48,7 @@ public class RecompilationSpecProvider {
         this.fileOperations = fileOperations;
     }
 
-    public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot) {
+    public RecompilationSpec provideRecompilationSpec(JavaCompileSpec compileSpec, IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot) {
         //creating an action that will be executed against all changes
         RecompilationSpec spec = new RecompilationSpec();
         JarChangeProcessor jarChangeProcessor = new JarChangeProcessor(fileOperations, jarClasspathSnapshot, previousCompilation);
@@ -62,6 +64,11 @@ public class RecompilationSpecProvider {
             return action.spec;
         }
         inputs.removed(action);
+        if (action.spec.getFullRebuildCause() == null && !action.spec.getChangedConstants().isEmpty()) {
+            String encoding = compileSpec.getCompileOptions().getEncoding();
+            ConstantReferenceFinder constantReferenceFinder = new ConstantReferenceFinder(sourceToNameConverter, previousCompilation);
+            constantReferenceFinder.addReferencingClasses(compileSpec.getSource(), encoding != null ? Charset.forName(encoding) : Charset.defaultCharset(), action.spec);
+        }
         return action.spec;
     }
 
@@ -54,7 +54,7 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
     public WorkResult execute(JavaCompileSpec spec) {
         Timer clock = Timers.startTimer();
         JarClasspathSnapshot jarClasspathSnapshot = jarClasspathSnapshotProvider.getJarClasspathSnapshot(spec.getCompileClasspath());
-        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot);
+        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(spec, inputs, previousCompilation, jarClasspathSnapshot);
 
         if (recompilationSpec.isFullRebuildNeeded()) {
             LOG.info("Full recompilation is required because {}. Analysis took {}.", recompilationSpec.getFullRebuildCause(), clock.getElapsed());
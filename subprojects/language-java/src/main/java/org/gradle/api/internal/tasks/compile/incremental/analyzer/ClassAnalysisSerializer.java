@@ -39,9 +39,10 @@ public class ClassAnalysisSerializer extends AbstractSerializer<ClassAnalysis> {
         boolean relatedToAll = decoder.readBoolean();
         Set<String> classes = stringSetSerializer.read(decoder);
         Set<Integer> constants = integerSetSerializer.read(decoder);
+        Set<String> constantNames = stringSetSerializer.read(decoder);
         Set<Integer> literals = integerSetSerializer.read(decoder);
         Set<String> superTypes = stringSetSerializer.read(decoder);
-        return new ClassAnalysis(className, classes, relatedToAll, constants, literals, superTypes);
+        return new ClassAnalysis(className, classes, relatedToAll, constants, constantNames, literals, superTypes);
     }
 
     @Override
@@ -50,6 +51,7 @@ public class ClassAnalysisSerializer extends AbstractSerializer<ClassAnalysis> {
         encoder.writeBoolean(value.isDependencyToAll());
         stringSetSerializer.write(encoder, value.getClassDependencies());
         integerSetSerializer.write(encoder, value.getConstants());
+        stringSetSerializer.write(encoder, value.getConstantNames());
         integerSetSerializer.write(encoder, value.getLiterals());
         stringSetSerializer.write(encoder, value.getSuperTypes());
     }
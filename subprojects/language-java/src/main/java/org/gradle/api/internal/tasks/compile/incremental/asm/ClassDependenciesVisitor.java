@@ -42,6 +42,7 @@ public class ClassDependenciesVisitor extends ClassVisitor {
     private final LiteralAdapter literalAdapter;
     private final AnnotationVisitor annotationVisitor;
     private final Set<Integer> constants;
+    private final Set<String> constantNames;
     private final Set<Integer> literals;
     private final Set<String> superTypes;
     private final Set<String> types;
@@ -50,12 +51,13 @@ public class ClassDependenciesVisitor extends ClassVisitor {
     private boolean dependencyToAll;
 
     public ClassDependenciesVisitor(Set<Integer> constantsCollector) {
-        this(constantsCollector, null, null, null, null);
+        this(constantsCollector, null, null, null, null, null);
     }
 
-    private ClassDependenciesVisitor(Set<Integer> constantsCollector, Set<Integer> literalsCollector, Set<String> types, Predicate<String> typeFilter, ClassReader reader) {
+    private ClassDependenciesVisitor(Set<Integer> constantsCollector, Set<String> constantNamesCollector, Set<Integer> literalsCollector, Set<String> types, Predicate<String> typeFilter, ClassReader reader) {
         super(API);
         this.constants = constantsCollector;
+        this.constantNames = constantNamesCollector;
         this.literals = literalsCollector;
         this.types = types;
         this.superTypes = types == null ? null : Sets.<String>newHashSet();
@@ -69,11 +71,12 @@ public class ClassDependenciesVisitor extends ClassVisitor {
 
     public static ClassAnalysis analyze(String className, ClassReader reader) {
         Set<Integer> constants = Sets.newHashSet();
+        Set<String> constantNames = Sets.newHashSet();
         Set<Integer> literals = Sets.newHashSet();
         Set<String> classDependencies = Sets.newHashSet();
-        ClassDependenciesVisitor visitor = new ClassDependenciesVisitor(constants, literals, classDependencies, new ClassRelevancyFilter(className), reader);
+        ClassDependenciesVisitor visitor = new ClassDependenciesVisitor(constants, constantNames, literals, classDependencies, new ClassRelevancyFilter(className), reader);
         reader.accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-        return new ClassAnalysis(className, classDependencies, visitor.isDependencyToAll(), constants, literals, visitor.getSuperTypes());
+        return new ClassAnalysis(className, classDependencies, visitor.isDependencyToAll(), constants, constantNames, literals, visitor.getSuperTypes());
     }
 
     public static Set<Integer> retrieveConstants(ClassReader reader) {
@@ -156,6 +159,10 @@ public class ClassDependenciesVisitor extends ClassVisitor {
             // otherwise we miss the case where a class defines several constants with the same value, or when
             // two values are switched
             constants.add((name + '|' + value).hashCode()); //non-private const
+            if (constantNames != null) {
+                // the compiler inlines the value, so the name is all that is left to find the classes using the constant
+                constantNames.add(name);
+            }
         }
         return null;
     }
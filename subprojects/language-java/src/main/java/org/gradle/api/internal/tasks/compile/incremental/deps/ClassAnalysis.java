@@ -26,14 +26,16 @@ public class ClassAnalysis {
     private final Set<String> classDependencies;
     private final boolean dependencyToAll;
     private final Set<Integer> constants;
+    private final Set<String> constantNames;
     private final Set<Integer> literals;
     private final Set<String> superTypes;
 
-    public ClassAnalysis(String className, Set<String> classDependencies, boolean dependencyToAll, Set<Integer> constants, Set<Integer> literals, Set<String> superTypes) {
+    public ClassAnalysis(String className, Set<String> classDependencies, boolean dependencyToAll, Set<Integer> constants, Set<String> constantNames, Set<Integer> literals, Set<String> superTypes) {
         this.className = className;
         this.classDependencies = classDependencies;
         this.dependencyToAll = dependencyToAll;
         this.constants = constants;
+        this.constantNames = constantNames;
         this.literals = literals;
         this.superTypes = superTypes;
     }
@@ -50,6 +52,13 @@ public class ClassAnalysis {
         return constants;
     }
 
+    /**
+     * Returns the names of the non-private constants declared by this class.
+     */
+    public Set<String> getConstantNames() {
+        return constantNames;
+    }
+
     public Set<Integer> getLiterals() {
         return literals;
     }
@@ -34,6 +34,7 @@ public class ClassDependentsAccumulator {
     private final Map<String, String> filePathToClassName = new HashMap<String, String>();
     private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
     private final Multimap<String, Integer> classesToConstants = HashMultimap.create();
+    private final Multimap<String, String> classesToConstantNames = HashMultimap.create();
     private final Multimap<Integer, String> literalsToClasses = HashMultimap.create();
     private final Set<String> seenClasses = Sets.newHashSet();
     private final Multimap<String, String> parentToChildren = HashMultimap.create();
@@ -47,10 +48,10 @@ public class ClassDependentsAccumulator {
     }
 
     public void addClass(ClassAnalysis classAnalysis) {
-        addClass(classAnalysis.getClassName(), classAnalysis.isDependencyToAll(), classAnalysis.getClassDependencies(), classAnalysis.getConstants(), classAnalysis.getLiterals(), classAnalysis.getSuperTypes());
+        addClass(classAnalysis.getClassName(), classAnalysis.isDependencyToAll(), classAnalysis.getClassDependencies(), classAnalysis.getConstants(), classAnalysis.getConstantNames(), classAnalysis.getLiterals(), classAnalysis.getSuperTypes());
     }
 
-    public void addClass(String className, boolean dependencyToAll, Iterable<String> classDependencies, Set<Integer> constants, Set<Integer> literals, Set<String> superTypes) {
+    public void addClass(String className, boolean dependencyToAll, Iterable<String> classDependencies, Set<Integer> constants, Set<String> constantNames, Set<Integer> literals, Set<String> superTypes) {
         if (seenClasses.contains(className)) {
             // same classes may be found in different classpath trees/jars
             // and we keep only the first one
@@ -60,6 +61,7 @@ public class ClassDependentsAccumulator {
         for (Integer constant : constants) {
             classesToConstants.put(className, constant);
         }
+        classesToConstantNames.putAll(className, constantNames);
         for (Integer literal : literals) {
             literalsToClasses.put(literal, className);
         }
@@ -105,11 +107,15 @@ public class ClassDependentsAccumulator {
         return classesToConstants;
     }
 
+    public Multimap<String, String> getClassesToConstantNames() {
+        return classesToConstantNames;
+    }
+
     public Multimap<Integer, String> getLiteralsToClasses() {
         return literalsToClasses;
     }
 
     public ClassSetAnalysisData getAnalysis() {
-        return new ClassSetAnalysisData(filePathToClassName, getDependentsMap(), getClassesToConstants(), getLiteralsToClasses(), parentToChildren);
+        return new ClassSetAnalysisData(filePathToClassName, getDependentsMap(), getClassesToConstants(), getClassesToConstantNames(), getLiteralsToClasses(), parentToChildren);
     }
 }
@@ -18,7 +18,9 @@ package org.gradle.api.internal.tasks.compile.incremental.deps;
 
 import com.google.common.collect.Sets;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 public class ClassSetAnalysis {
@@ -29,10 +31,13 @@ public class ClassSetAnalysis {
         this.data = data;
     }
 
-    public DependentsSet getRelevantDependents(Iterable<String> classes, Set<Integer> constants) {
+    /**
+     * Returns the dependents of all the given classes, along with the given constants whose value may have changed.
+     */
+    public DependentsSet getRelevantDependents(Iterable<String> classes, Set<String> changedConstants) {
         Set<String> result = null;
         for (String cls : classes) {
-            DependentsSet d = getRelevantDependents(cls, constants);
+            DependentsSet d = getRelevantDependents(cls, Collections.<Integer>emptySet());
             if (d.isDependencyToAll()) {
                 return d;
             }
@@ -43,36 +48,62 @@ public class ClassSetAnalysis {
             if (result == null) {
                 result = Sets.newLinkedHashSet();
             }
-            for (String dependentClass : dependentClasses) {
-                result.add(dependentClass);
-                Set<String> children = data.classesToChildren.get(dependentClass);
-                if (children != null && children.contains(cls)) {
-                    System.out.println("children = " + children);
-                }
-            }
             result.addAll(dependentClasses);
         }
-        return result == null ? DefaultDependentsSet.EMPTY : new DefaultDependentsSet(result);
+        if (result == null && changedConstants.isEmpty()) {
+            return DefaultDependentsSet.EMPTY;
+        }
+        return new DefaultDependentsSet(result == null ? Collections.<String>emptySet() : result, changedConstants);
     }
 
+    /**
+     * Returns the dependents of the given class. When some of the constants previously declared by the class have changed,
+     * the names of its constants are included in the result, so that the classes which inlined them can be recompiled as well.
+     */
     public DependentsSet getRelevantDependents(String className, Set<Integer> constants) {
         DependentsSet deps = data.getDependents(className);
         if (deps != null && deps.isDependencyToAll()) {
             return deps;
         }
-        if (deps == null && constants.isEmpty()) {
+        Set<String> changedConstants = constants.isEmpty() ? Collections.<String>emptySet() : data.getConstantNames(className);
+        if (deps == null && changedConstants.isEmpty()) {
             return DefaultDependentsSet.EMPTY;
         }
-        if (!constants.isEmpty()) {
-            return DependencyToAll.INSTANCE;
-        }
         Set<String> result = new HashSet<String>();
-        if (deps != null && !deps.isDependencyToAll()) {
+        if (deps != null) {
             recurseDependents(new HashSet<String>(), result, deps.getDependentClasses());
         }
         result.remove(className);
-        return new DefaultDependentsSet(result);
+        return new DefaultDependentsSet(result, changedConstants);
+    }
+
+    /**
+     * Returns the names of the constants declared by the given top level class and its nested classes.
+     */
+    public Set<String> getConstantNamesDeclaredIn(String topLevelClassName) {
+        Set<String> result = null;
+        String nestedClassPrefix = topLevelClassName + "$";
+        for (Map.Entry<String, Set<String>> entry : data.classesToConstantNames.entrySet()) {
+            String className = entry.getKey();
+            if (className.equals(topLevelClassName) || className.startsWith(nestedClassPrefix)) {
+                if (result == null) {
+                    result = new HashSet<String>();
+                }
+                result.addAll(entry.getValue());
+            }
+        }
+        return result == null ? Collections.<String>emptySet() : result;
+    }
 
+    /**
+     * Returns the names of all the constants declared by the classes of this analysis.
+     */
+    public Set<String> getAllConstantNames() {
+        Set<String> result = new HashSet<String>();
+        for (Set<String> names : data.classesToConstantNames.values()) {
+            result.addAll(names);
+        }
+        return result;
     }
 
     public boolean isDependencyToAll(String className) {
@@ -31,22 +31,25 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.gradle.internal.serialize.BaseSerializerFactory.INTEGER_SERIALIZER;
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
 
 public class ClassSetAnalysisData {
     final Map<String, String> filePathToClassName;
     final Map<String, DependentsSet> dependents;
     final Map<String, Set<Integer>> classesToConstants;
+    final Map<String, Set<String>> classesToConstantNames;
     final Map<Integer, Set<String>> literalsToClasses;
     final Map<String, Set<String>> classesToChildren;
 
-    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Multimap<String, Integer> classesToConstants, Multimap<Integer, String> literalsToClasses, Multimap<String, String> classesToChildren) {
-        this(filePathToClassName, dependents, asMap(classesToConstants), asMap(literalsToClasses), asMap(classesToChildren));
+    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Multimap<String, Integer> classesToConstants, Multimap<String, String> classesToConstantNames, Multimap<Integer, String> literalsToClasses, Multimap<String, String> classesToChildren) {
+        this(filePathToClassName, dependents, asMap(classesToConstants), asMap(classesToConstantNames), asMap(literalsToClasses), asMap(classesToChildren));
     }
 
-    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, Set<Integer>> classesToConstants, Map<Integer, Set<String>> literalsToClasses, Map<String, Set<String>> classesToChildren) {
+    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, Set<Integer>> classesToConstants, Map<String, Set<String>> classesToConstantNames, Map<Integer, Set<String>> literalsToClasses, Map<String, Set<String>> classesToChildren) {
         this.filePathToClassName = filePathToClassName;
         this.dependents = dependents;
         this.classesToConstants = classesToConstants;
+        this.classesToConstantNames = classesToConstantNames;
         this.literalsToClasses = literalsToClasses;
         this.classesToChildren = classesToChildren;
     }
@@ -75,6 +78,11 @@ public class ClassSetAnalysisData {
         return integers;
     }
 
+    public Set<String> getConstantNames(String className) {
+        Set<String> names = classesToConstantNames.get(className);
+        return names == null ? Collections.<String>emptySet() : names;
+    }
+
     public Set<String> getChildren(String className) {
         Set<String> children = classesToChildren.get(className);
         return children == null ? Collections.<String>emptySet() : children;
@@ -82,6 +90,7 @@ public class ClassSetAnalysisData {
 
     public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
         private static final SetSerializer<Integer> INTEGER_SET_SERIALIZER = new SetSerializer<Integer>(INTEGER_SERIALIZER, false);
+        private static final SetSerializer<String> STRING_SET_SERIALIZER = new SetSerializer<String>(STRING_SERIALIZER, false);
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
@@ -112,6 +121,14 @@ public class ClassSetAnalysisData {
                 classesToConstantsBuilder.put(className, constants);
             }
 
+            count = decoder.readSmallInt();
+            ImmutableMap.Builder<String, Set<String>> classesToConstantNamesBuilder = ImmutableMap.builder();
+            for (int i = 0; i < count; i++) {
+                String className = readClassName(decoder, classNameMap);
+                Set<String> names = STRING_SET_SERIALIZER.read(decoder);
+                classesToConstantNamesBuilder.put(className, names);
+            }
+
             count = decoder.readSmallInt();
             ImmutableMap.Builder<Integer, Set<String>> literalsToClassesBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
@@ -136,7 +153,7 @@ public class ClassSetAnalysisData {
                 classNameToChildren.put(parent, namesBuilder.build());
             }
 
-            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), literalsToClassesBuilder.build(), classNameToChildren.build());
+            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), classesToConstantNamesBuilder.build(), literalsToClassesBuilder.build(), classNameToChildren.build());
         }
 
         @Override
@@ -163,6 +180,12 @@ public class ClassSetAnalysisData {
                 INTEGER_SET_SERIALIZER.write(encoder, entry.getValue());
             }
 
+            encoder.writeSmallInt(value.classesToConstantNames.size());
+            for (Map.Entry<String, Set<String>> entry : value.classesToConstantNames.entrySet()) {
+                writeClassName(entry.getKey(), classNameMap, encoder);
+                STRING_SET_SERIALIZER.write(encoder, entry.getValue());
+            }
+
             encoder.writeSmallInt(value.literalsToClasses.size());
             for (Map.Entry<Integer, Set<String>> entry : value.literalsToClasses.entrySet()) {
                 encoder.writeInt(entry.getKey());
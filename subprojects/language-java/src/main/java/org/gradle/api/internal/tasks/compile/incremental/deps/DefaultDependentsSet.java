@@ -26,9 +26,15 @@ public class DefaultDependentsSet implements DependentsSet {
     public static final DependentsSet EMPTY = new DefaultDependentsSet(Collections.<String>emptySet());
 
     private final Set<String> dependentClasses;
+    private final Set<String> changedConstants;
 
     public DefaultDependentsSet(Set<String> dependentClasses) {
+        this(dependentClasses, Collections.<String>emptySet());
+    }
+
+    public DefaultDependentsSet(Set<String> dependentClasses, Set<String> changedConstants) {
         this.dependentClasses = dependentClasses;
+        this.changedConstants = changedConstants;
     }
 
     @Override
@@ -36,6 +42,11 @@ public class DefaultDependentsSet implements DependentsSet {
         return dependentClasses;
     }
 
+    @Override
+    public Set<String> getChangedConstants() {
+        return changedConstants;
+    }
+
     @Override
     public boolean isDependencyToAll() {
         return false;
@@ -36,6 +36,11 @@ public class DependencyToAll implements DependentsSet {
         throw new UnsupportedOperationException("This instance of dependents set does not have dependent classes information.");
     }
 
+    @Override
+    public Set<String> getChangedConstants() {
+        throw new UnsupportedOperationException("This instance of dependents set does not have changed constants information.");
+    }
+
     @Override
     public boolean isDependencyToAll() {
         return true;
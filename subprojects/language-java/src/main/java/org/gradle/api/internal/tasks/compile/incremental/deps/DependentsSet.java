@@ -22,6 +22,12 @@ import java.util.Set;
 
 public interface DependentsSet {
     Set<String> getDependentClasses();
+
+    /**
+     * Names of constants whose value may have changed. The compiler inlines constant values, so classes using these constants
+     * do not show up as dependents and need to be located by name instead.
+     */
+    Set<String> getChangedConstants();
     boolean isDependencyToAll();
     @Nullable String getDescription();
 }
@@ -15,21 +15,31 @@
  */
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.Maps;
 import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.objectweb.asm.ClassReader;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Map;
 
 class DefaultJarSnapshotter {
+    // Classes that are not part of the ABI (local and private classes) can change without affecting any class outside the jar
+    private static final HashCode NOT_IN_ABI = Hashing.md5().hashString("not in ABI", Charsets.UTF_8);
+
     private final FileHasher hasher;
     private final ClassDependenciesAnalyzer analyzer;
 
@@ -40,6 +50,8 @@ class DefaultJarSnapshotter {
 
     public JarSnapshot createSnapshot(HashCode hash, JarArchive jarArchive) {
         final Map<String, HashCode> hashes = Maps.newHashMap();
+        final Map<String, HashCode> abiHashes = Maps.newHashMap();
+        final ApiClassExtractor apiClassExtractor = new ApiClassExtractor(Collections.<String>emptySet());
         final ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
 
         jarArchive.contents.visit(new FileVisitor() {
@@ -51,10 +63,12 @@ class DefaultJarSnapshotter {
                     return;
                 }
 
-                HashCode classFileHash;
+                byte[] classBytes;
                 InputStream inputStream = fileDetails.open();
                 try {
-                    classFileHash = hasher.hash(inputStream);
+                    classBytes = ByteStreams.toByteArray(inputStream);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 } finally {
                     try {
                         inputStream.close();
@@ -62,14 +76,30 @@ class DefaultJarSnapshotter {
                         throw new UncheckedIOException(e);
                     }
                 }
+                HashCode classFileHash = hasher.hash(new ByteArrayInputStream(classBytes));
 
                 ClassAnalysis analysis = analyzer.getClassAnalysis(classFileHash, fileDetails);
                 accumulator.addClass(analysis);
 
                 hashes.put(analysis.getClassName(), classFileHash);
+                abiHashes.put(analysis.getClassName(), hashAbi(apiClassExtractor, classBytes, classFileHash));
             }
         });
 
-        return new JarSnapshot(new JarSnapshotData(hash, hashes, accumulator.getAnalysis()));
+        return new JarSnapshot(new JarSnapshotData(hash, hashes, abiHashes, accumulator.getAnalysis()));
+    }
+
+    private static HashCode hashAbi(ApiClassExtractor apiClassExtractor, byte[] classBytes, HashCode classFileHash) {
+        try {
+            ClassReader reader = new ClassReader(classBytes);
+            if (!apiClassExtractor.shouldExtractApiClassFrom(reader)) {
+                return NOT_IN_ABI;
+            }
+            byte[] apiClass = apiClassExtractor.extractApiClassFrom(reader);
+            return apiClass == null ? NOT_IN_ABI : Hashing.md5().hashBytes(apiClass);
+        } catch (RuntimeException e) {
+            // Not a class file we can make sense of, so treat any change to it as an ABI change
+            return classFileHash;
+        }
     }
 }
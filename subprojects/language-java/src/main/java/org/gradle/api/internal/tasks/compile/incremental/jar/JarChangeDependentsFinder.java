@@ -62,8 +62,8 @@ public class JarChangeDependentsFinder {
             if (allClasses.isDependencyToAll()) {
                 return new DependencyToAll("at least one of the classes of removed jar '" + jarArchive.file.getName() + "' requires it");
             }
-            //recompile all dependents of all the classes from jar
-            return previousCompilation.getDependents(allClasses.getDependentClasses(), previous.getAllConstants(allClasses));
+            //recompile all dependents of all the classes from jar, and all users of their constants
+            return previousCompilation.getDependents(allClasses.getDependentClasses(), previous.getAllConstantNames(allClasses));
         }
 
         if (jarChangeDetails.isModified()) {
@@ -104,7 +104,7 @@ public class JarChangeDependentsFinder {
                     }
                 });
             }
-            return previousCompilation.getDependents(dependentClasses, currentSnapshot.getRelevantConstants(previous, dependentClasses));
+            return previousCompilation.getDependents(dependentClasses, currentSnapshot.getChangedConstantNames(previous, dependentClasses));
         }
 
         throw new IllegalArgumentException("Unknown input file details provided: " + jarChangeDetails);
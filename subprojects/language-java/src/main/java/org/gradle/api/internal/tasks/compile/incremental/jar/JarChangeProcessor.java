@@ -39,5 +39,6 @@ public class JarChangeProcessor {
             return;
         }
         spec.getClassNames().addAll(actualDependents.getDependentClasses());
+        spec.getChangedConstants().addAll(actualDependents.getChangedConstants());
     }
 }
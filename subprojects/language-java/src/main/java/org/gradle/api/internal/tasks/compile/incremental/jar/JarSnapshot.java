@@ -49,20 +49,25 @@ public class JarSnapshot {
         return new DefaultDependentsSet(result);
     }
 
-    public Set<Integer> getAllConstants(DependentsSet dependents) {
-        Set<Integer> result = Sets.newHashSet();
+    public Set<String> getAllConstantNames(DependentsSet dependents) {
+        Set<String> result = Sets.newHashSet();
         for (String cn : dependents.getDependentClasses()) {
-            result.addAll(data.data.getConstants(cn));
+            result.addAll(data.data.getConstantNames(cn));
         }
         return result;
     }
 
-    public Set<Integer> getRelevantConstants(JarSnapshot other, Set<String> affectedClasses) {
-        Set<Integer> result = Sets.newHashSet();
+    /**
+     * Returns the names of the constants of the given classes that were declared in the other snapshot and have since been changed or removed.
+     */
+    public Set<String> getChangedConstantNames(JarSnapshot other, Set<String> affectedClasses) {
+        Set<String> result = Sets.newHashSet();
         for (String affectedClass : affectedClasses) {
             Set<Integer> previous = other.getData().data.getConstants(affectedClass);
             Set<Integer> current = data.data.getConstants(affectedClass);
-            result.addAll(Sets.difference(previous, current));
+            if (!current.containsAll(previous)) {
+                result.addAll(other.getData().data.getConstantNames(affectedClass));
+            }
         }
         return result;
     }
@@ -79,7 +84,7 @@ public class JarSnapshot {
             String otherClassName = otherClass.getKey();
             HashCode otherClassBytes = otherClass.getValue();
             HashCode thisClsBytes = getHashes().get(otherClassName);
-            if (thisClsBytes == null || !thisClsBytes.equals(otherClassBytes)) {
+            if (thisClsBytes == null || (!thisClsBytes.equals(otherClassBytes) && !isSameAbi(other, otherClassName))) {
                 //removed since or changed since
                 affected.add(otherClassName);
                 DependentsSet dependents = other.getAnalysis().getRelevantDependents(otherClassName, Collections.<Integer>emptySet());
@@ -92,6 +97,12 @@ public class JarSnapshot {
         return new DefaultDependentsSet(affected);
     }
 
+    private boolean isSameAbi(JarSnapshot other, String className) {
+        // a class whose ABI did not change can only have changed its method bodies or private members, which do not affect its dependents
+        HashCode thisAbi = data.abiHashes.get(className);
+        return thisAbi != null && thisAbi.equals(other.data.abiHashes.get(className));
+    }
+
     private Set<String> addedSince(JarSnapshot other) {
         Set<String> addedClasses = new HashSet<String>(getClasses());
         addedClasses.removeAll(other.getClasses());
@@ -46,14 +46,16 @@ public class JarSnapshotDataSerializer extends AbstractSerializer<JarSnapshotDat
     public JarSnapshotData read(Decoder decoder) throws Exception {
         HashCode hash = hashCodeSerializer.read(decoder);
         Map<String, HashCode> hashes = mapSerializer.read(decoder);
+        Map<String, HashCode> abiHashes = mapSerializer.read(decoder);
         ClassSetAnalysisData data = analysisSerializer.read(decoder);
-        return new JarSnapshotData(hash, hashes, data);
+        return new JarSnapshotData(hash, hashes, abiHashes, data);
     }
 
     @Override
     public void write(Encoder encoder, JarSnapshotData value) throws Exception {
         hashCodeSerializer.write(encoder, value.hash);
         mapSerializer.write(encoder, value.hashes);
+        mapSerializer.write(encoder, value.abiHashes);
         analysisSerializer.write(encoder, value.data);
     }
 
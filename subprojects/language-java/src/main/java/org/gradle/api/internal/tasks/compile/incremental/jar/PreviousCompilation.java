@@ -38,8 +38,8 @@ public class PreviousCompilation {
         this.jarSnapshotCache = jarSnapshotCache;
     }
 
-    public DependentsSet getDependents(Set<String> allClasses, Set<Integer> constants) {
-        return analysis.getRelevantDependents(allClasses, constants);
+    public DependentsSet getDependents(Set<String> allClasses, Set<String> changedConstants) {
+        return analysis.getRelevantDependents(allClasses, changedConstants);
     }
 
     public String getClassName(String path) {
@@ -59,6 +59,14 @@ public class PreviousCompilation {
         return analysis.getRelevantDependents(className, constants);
     }
 
+    public Set<String> getConstantNamesDeclaredIn(String topLevelClassName) {
+        return analysis.getConstantNamesDeclaredIn(topLevelClassName);
+    }
+
+    public Set<String> getAllConstantNames() {
+        return analysis.getAllConstantNames();
+    }
+
     public Map<File, JarSnapshot> getJarSnapshots() {
         if (jarSnapshots == null) {
             JarClasspathSnapshotData data = classpathSnapshotStore.get();
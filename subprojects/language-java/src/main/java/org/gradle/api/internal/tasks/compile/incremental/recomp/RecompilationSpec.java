@@ -18,17 +18,27 @@ package org.gradle.api.internal.tasks.compile.incremental.recomp;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class RecompilationSpec {
 
     private final Collection<String> classesToCompile = new NormalizingClassNamesSet();
+    private final Set<String> changedConstants = new HashSet<String>();
     private String fullRebuildCause;
 
     public Collection<String> getClassNames() {
         return classesToCompile;
     }
 
+    /**
+     * Names of the constants that may have changed. Source classes referencing any of them need to be recompiled as well.
+     */
+    public Set<String> getChangedConstants() {
+        return changedConstants;
+    }
+
     public boolean isFullRebuildNeeded() {
         return fullRebuildCause != null;
     }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.files
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaFileManager
+import javax.tools.JavaFileObject
+import javax.tools.StandardLocation
+
+class CachingClasspathJavaFileManagerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def delegate = Mock(JavaFileManager)
+
+    def "lists classes from archives and directories in class path order"() {
+        def classesDir = tmpDir.createDir("classes")
+        classesDir.file("org/gradle/Dir.class").text = "dir"
+        classesDir.file("org/gradle/nested/Nested.class").text = "nested"
+        def jar = jar("lib.jar", ["org/gradle/Jar.class": "jar", "org/gradle/readme.txt": "text"])
+        def fileManager = new CachingClasspathJavaFileManager(delegate, [jar, classesDir])
+
+        when:
+        def files = fileManager.list(StandardLocation.CLASS_PATH, "org.gradle", EnumSet.of(JavaFileObject.Kind.CLASS), false) as List
+
+        then:
+        files.collect { fileManager.inferBinaryName(StandardLocation.CLASS_PATH, it) } == ["org.gradle.Jar", "org.gradle.Dir"]
+        files.collect { it.openInputStream().text } == ["jar", "dir"]
+        files.every { it.isNameCompatible(fileManager.inferBinaryName(StandardLocation.CLASS_PATH, it).tokenize('.').last(), JavaFileObject.Kind.CLASS) }
+        0 * delegate._
+
+        when:
+        def recursive = fileManager.list(StandardLocation.CLASS_PATH, "org", EnumSet.of(JavaFileObject.Kind.CLASS), true) as List
+
+        then:
+        recursive.collect { fileManager.inferBinaryName(StandardLocation.CLASS_PATH, it) } as Set == ["org.gradle.Jar", "org.gradle.Dir", "org.gradle.nested.Nested"] as Set
+
+        cleanup:
+        fileManager?.close()
+    }
+
+    def "follows the class path declared by the manifest of an archive"() {
+        def other = jar("other.jar", ["org/gradle/Other.class": "other"])
+        def jar = jar("lib.jar", ["META-INF/MANIFEST.MF": "Manifest-Version: 1.0\nClass-Path: other.jar missing.jar\n\n", "org/gradle/Jar.class": "jar"])
+        def fileManager = new CachingClasspathJavaFileManager(delegate, [jar])
+
+        when:
+        def files = fileManager.list(StandardLocation.CLASS_PATH, "org.gradle", EnumSet.of(JavaFileObject.Kind.CLASS), false) as List
+
+        then:
+        files.collect { fileManager.inferBinaryName(StandardLocation.CLASS_PATH, it) } == ["org.gradle.Jar", "org.gradle.Other"]
+
+        cleanup:
+        fileManager?.close()
+    }
+
+    def "reindexes an archive when it changes"() {
+        def jar = jar("lib.jar", ["org/gradle/First.class": "first"])
+        def fileManager = new CachingClasspathJavaFileManager(delegate, [jar])
+        fileManager.list(StandardLocation.CLASS_PATH, "org.gradle", EnumSet.of(JavaFileObject.Kind.CLASS), false)
+        fileManager.close()
+
+        when:
+        jar.delete()
+        jar("lib.jar", ["org/gradle/First.class": "first", "org/gradle/Second.class": "second"])
+        jar.setLastModified(jar.lastModified() + 2000)
+        fileManager = new CachingClasspathJavaFileManager(delegate, [jar])
+        def files = fileManager.list(StandardLocation.CLASS_PATH, "org.gradle", EnumSet.of(JavaFileObject.Kind.CLASS), false) as List
+
+        then:
+        files.collect { fileManager.inferBinaryName(StandardLocation.CLASS_PATH, it) } as Set == ["org.gradle.First", "org.gradle.Second"] as Set
+
+        cleanup:
+        fileManager?.close()
+    }
+
+    def "delegates listing of other locations and of sources"() {
+        def fileManager = new CachingClasspathJavaFileManager(delegate, [])
+        def result = []
+
+        when:
+        def platform = fileManager.list(StandardLocation.PLATFORM_CLASS_PATH, "java.lang", EnumSet.of(JavaFileObject.Kind.CLASS), false)
+        def sources = fileManager.list(StandardLocation.CLASS_PATH, "org.gradle", EnumSet.of(JavaFileObject.Kind.SOURCE), false)
+
+        then:
+        1 * delegate.list(StandardLocation.PLATFORM_CLASS_PATH, "java.lang", _, false) >> result
+        1 * delegate.list(StandardLocation.CLASS_PATH, "org.gradle", _, false) >> result
+        platform.is(result)
+        sources.is(result)
+    }
+
+    def jar(String name, Map<String, String> entries) {
+        def contents = tmpDir.createDir("${name}-contents")
+        entries.each { path, text ->
+            contents.file(path).text = text
+        }
+        def jar = tmpDir.file(name)
+        contents.zipTo(jar)
+        return jar
+    }
+}
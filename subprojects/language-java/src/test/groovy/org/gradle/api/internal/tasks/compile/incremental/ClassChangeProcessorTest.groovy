@@ -46,12 +46,14 @@ class ClassChangeProcessorTest extends Specification {
         def recompilationSpec = new RecompilationSpec()
         1 * previousCompilation.getDependents(_ as String, _ as Set) >> { dependentsSet }
         1 * dependentsSet.getDependentClasses() >> { asSet('org/gradle/MainClass', 'org/gradle/OtherClass') }
+        1 * dependentsSet.getChangedConstants() >> { asSet('SOME_CONSTANT') }
 
         when:
         classChangeProcessor.processChange(inputFileDetails, recompilationSpec)
 
         then:
         recompilationSpec.getClassNames() == asSet('org/gradle/OtherClass', 'org/gradle/MainClass')
+        recompilationSpec.getChangedConstants() == asSet('SOME_CONSTANT')
     }
 
     def "marks full rebuild given a class that is dependency to all"() {
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import com.google.common.base.Charsets
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation
+import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ConstantReferenceFinderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def sourceToNameConverter = Mock(SourceToNameConverter)
+    def previousCompilation = Mock(PreviousCompilation)
+    @Subject finder = new ConstantReferenceFinder(sourceToNameConverter, previousCompilation)
+
+    def "finds identifiers outside of comments and literals"() {
+        expect:
+        ConstantReferenceFinder.findReferences(source, ["X", "Y"] as Set) == references as Set
+
+        where:
+        source                                   | references
+        "class A { int a = B.X; }"               | ["X"]
+        "class A { int a = X + Y; }"             | ["X", "Y"]
+        "class A { int XY = 1; }"                | []
+        "class A { // X\n int a = Y; }"          | ["Y"]
+        "class A { /* X \n */ int a; }"          | []
+        'class A { String a = "X \\" Y"; }'      | []
+        "class A { char a = 'X'; }"              | []
+        "class A { long a = 0X1L; }"             | []
+        'class A { int a = B.\\u0058; }'         | ["X"]
+        'class A { String a = "\\\\u0058"; }'    | []
+    }
+
+    def "adds classes referencing changed constants and the users of their own constants"() {
+        def a = source("A.java", "class A { static final int A_CONSTANT = B.X + 1; }")
+        def b = source("B.java", "class B { static final int X = 1; }")
+        def c = source("C.java", "class C { int c = A_CONSTANT; }")
+        def d = source("D.java", "class D { int d = Y; }")
+        def spec = new RecompilationSpec()
+        spec.changedConstants.add("X")
+
+        when:
+        finder.addReferencingClasses([a, b, c, d], Charsets.UTF_8, spec)
+
+        then:
+        1 * previousCompilation.getAllConstantNames() >> (["X", "Y", "A_CONSTANT"] as Set)
+        1 * previousCompilation.getConstantNamesDeclaredIn("A") >> (["A_CONSTANT"] as Set)
+        1 * previousCompilation.getConstantNamesDeclaredIn("B") >> (["X"] as Set)
+        1 * previousCompilation.getConstantNamesDeclaredIn("C") >> ([] as Set)
+        _ * sourceToNameConverter.getClassName(_) >> { File f -> f.name - ".java" }
+        0 * _
+
+        and:
+        spec.classNames as Set == ["A", "B", "C"] as Set
+    }
+
+    def source(String name, String text) {
+        def file = temp.file(name)
+        file.text = text
+        return file
+    }
+}
@@ -70,6 +70,7 @@ class DefaultClassDependenciesAnalyzerTest extends Specification {
         analysis.classDependencies == [UsedByNonPrivateConstantsClass.name] as Set
         !analysis.dependencyToAll
         analysis.constants == ['X|1'.hashCode()] as Set
+        analysis.constantNames == ['X'] as Set
         analysis.literals == [] as Set
 
         when:
@@ -79,6 +80,7 @@ class DefaultClassDependenciesAnalyzerTest extends Specification {
         analysis.classDependencies.isEmpty()
         !analysis.dependencyToAll
         analysis.constants == ['X|1'.hashCode()] as Set
+        analysis.constantNames == ['X'] as Set
         analysis.literals == [] as Set
 
         when:
@@ -88,6 +90,7 @@ class DefaultClassDependenciesAnalyzerTest extends Specification {
         analysis.classDependencies == [HasNonPrivateConstants.name] as Set
         !analysis.dependencyToAll
         analysis.constants == [] as Set
+        analysis.constantNames == [] as Set
         analysis.literals == [] as Set
     }
 
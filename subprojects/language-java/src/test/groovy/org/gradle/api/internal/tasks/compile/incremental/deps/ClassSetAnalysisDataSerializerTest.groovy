@@ -32,6 +32,7 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
             ["A.class": "A", "B.class": "B"],
             ["A": dependents("B", "C"), "B": new DefaultDependentsSet(["C"] as Set), "C": dependents(), "D": new DependencyToAll(),],
             [C: [1, 2] as Set, D: [] as Set],
+            [C: ['X', 'Y'] as Set],
             [3: ['A', 'B'] as Set, 4: ['D'] as Set],
             ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
         )
@@ -53,6 +54,7 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         read.dependents["D"] instanceof DependencyToAll
         read.filePathToClassName == ["A.class": "A", "B.class": "B"]
         read.classesToConstants == [C: [1,2] as Set, D: [] as Set]
+        read.classesToConstantNames == [C: ['X', 'Y'] as Set]
         read.literalsToClasses == [3: ['A', 'B'] as Set, 4: ['D'] as Set]
         read.classesToChildren == ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
     }
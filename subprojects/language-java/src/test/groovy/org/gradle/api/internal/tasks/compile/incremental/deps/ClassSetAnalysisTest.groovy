@@ -16,7 +16,6 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps
 
-import groovy.transform.NotYetImplemented
 import spock.lang.Specification
 
 import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
@@ -25,9 +24,10 @@ class ClassSetAnalysisTest extends Specification {
 
     ClassSetAnalysis analysis(Map<String, DependentsSet> dependents,
                               Map<String, Set<Integer>> classToConstants = [:],
+                              Map<String, Set<String>> classToConstantNames = [:],
                               Map<Integer, Set<String>> literalToClasses = [:],
                               Map<String, Set<String>> classesToChildren = [:]) {
-        new ClassSetAnalysis(new ClassSetAnalysisData([:], dependents, classToConstants, literalToClasses, classesToChildren))
+        new ClassSetAnalysis(new ClassSetAnalysisData([:], dependents, classToConstants, classToConstantNames, literalToClasses, classesToChildren))
     }
 
     def "returns empty analysis"() {
@@ -181,22 +181,62 @@ class ClassSetAnalysisTest extends Specification {
         !a.isDependencyToAll("Unknown")
     }
 
-    @NotYetImplemented
-    //  Can re-enable with compiler plugins. See gradle/gradle#1474
-    def "adds classes with literals as dependents"() {
-        def a = analysis([:], [A: [1,2] as Set], [1: ['B', 'C'] as Set, 2: ['D'] as Set])
+    def "provides names of constants of class when its constants have changed"() {
+        def a = analysis(["A": dependents("B"), "B": dependents()], [A: [1, 2] as Set], [A: ['X', 'Y'] as Set])
 
         when:
-        def deps = a.getRelevantDependents(['A'], [1] as Set)
+        def deps = a.getRelevantDependents('A', [1] as Set)
 
         then:
-        deps.dependentClasses == ['B', 'C'] as Set
+        !deps.dependencyToAll
+        deps.dependentClasses == ['B'] as Set
+        deps.changedConstants == ['X', 'Y'] as Set
 
         when:
-        deps = a.getRelevantDependents('A', [2] as Set)
+        deps = a.getRelevantDependents('A', [] as Set)
 
         then:
-        deps.dependentClasses == ['D'] as Set
+        deps.dependentClasses == ['B'] as Set
+        deps.changedConstants.isEmpty()
+    }
+
+    def "provides changed constants of class without dependents"() {
+        def a = analysis([:], [A: [1] as Set], [A: ['X'] as Set])
+
+        when:
+        def deps = a.getRelevantDependents('A', [1] as Set)
+
+        then:
+        deps.dependentClasses.isEmpty()
+        deps.changedConstants == ['X'] as Set
+    }
+
+    def "provides given changed constants along with dependents of all input classes"() {
+        def a = analysis(["A": dependents("B"), "B": dependents()])
+
+        when:
+        def deps = a.getRelevantDependents(['A'], ['X'] as Set)
+
+        then:
+        deps.dependentClasses == ['B'] as Set
+        deps.changedConstants == ['X'] as Set
+
+        when:
+        deps = a.getRelevantDependents(['C'], ['X'] as Set)
+
+        then:
+        deps.dependentClasses.isEmpty()
+        deps.changedConstants == ['X'] as Set
+    }
+
+    def "knows names of constants declared by a class and its nested classes"() {
+        def a = analysis([:], [:], [A: ['X'] as Set, 'A$B': ['Y'] as Set, AB: ['Z'] as Set])
+
+        expect:
+        a.getConstantNamesDeclaredIn('A') == ['X', 'Y'] as Set
+        a.getConstantNamesDeclaredIn('AB') == ['Z'] as Set
+        a.getConstantNamesDeclaredIn('C').isEmpty()
+        a.allConstantNames == ['X', 'Y', 'Z'] as Set
     }
 
     private static DependentsSet dependentSet(boolean dependencyToAll, Collection<String> dependentClasses) {
@@ -82,6 +82,8 @@ class DefaultJarSnapshotterTest extends Specification {
 
         and:
         snapshot.hashes == ["Foo": f1Hash, "com.Foo2": f2Hash]
+        // not valid class files, so any change is an ABI change
+        snapshot.data.abiHashes == ["Foo": f1Hash, "com.Foo2": f2Hash]
         snapshot.analysis
     }
 }
@@ -28,8 +28,8 @@ class JarSnapshotTest extends Specification {
 
     def analysis = Stub(ClassSetAnalysisData)
 
-    private JarSnapshot snapshot(Map<String, HashCode> hashes, ClassSetAnalysisData a) {
-        new JarSnapshot(new JarSnapshotData(HashCode.fromString("1234"), hashes, a))
+    private JarSnapshot snapshot(Map<String, HashCode> hashes, ClassSetAnalysisData a, Map<String, HashCode> abiHashes = [:]) {
+        new JarSnapshot(new JarSnapshotData(HashCode.fromString("1234"), hashes, abiHashes, a))
     }
 
     private DependentsSet altered(JarSnapshot s1, JarSnapshot s2) {
@@ -62,6 +62,33 @@ class JarSnapshotTest extends Specification {
         altered(s2, s1).dependentClasses == ["B", "C"] as Set
     }
 
+    def "ignores changed classes with the same ABI"() {
+        JarSnapshot s1 = snapshot(["A": HashCode.fromString("aa"), "B": HashCode.fromString("bb")], analysis, ["A": HashCode.fromString("0a"), "B": HashCode.fromString("0b")])
+        JarSnapshot s2 = snapshot(["A": HashCode.fromString("aaaa"), "B": HashCode.fromString("bbbb")], analysis, ["A": HashCode.fromString("0a"), "B": HashCode.fromString("0c")])
+
+        expect:
+        altered(s1, s2).dependentClasses == ["B"] as Set
+        altered(s2, s1).dependentClasses == ["B"] as Set
+    }
+
+    def "knows changed constants of affected classes"() {
+        def analysis1 = Mock(ClassSetAnalysisData)
+        def analysis2 = Mock(ClassSetAnalysisData)
+        JarSnapshot s1 = snapshot(["A": HashCode.fromString("aa"), "B": HashCode.fromString("bb")], analysis1)
+        JarSnapshot s2 = snapshot(["A": HashCode.fromString("aaaa"), "B": HashCode.fromString("bbbb")], analysis2)
+
+        analysis1.getConstants("A") >> ([1, 2] as Set)
+        analysis1.getConstants("B") >> ([3] as Set)
+        analysis1.getConstantNames("A") >> (["X", "Y"] as Set)
+        analysis1.getConstantNames("B") >> (["Z"] as Set)
+        analysis2.getConstants("A") >> ([1, 4] as Set)
+        analysis2.getConstants("B") >> ([3, 5] as Set)
+
+        expect:
+        s2.getChangedConstantNames(s1, ["A", "B"] as Set) == ["X", "Y"] as Set
+        s1.getAllConstantNames(dependents("A", "B")) == ["X", "Y", "Z"] as Set
+    }
+
     def "knows when transitive class is affected transitively via class change"() {
         def analysis = Mock(ClassSetAnalysisData)
         JarSnapshot s1 = snapshot(["A": HashCode.fromString("aa"), "B": HashCode.fromString("bb"), "C": HashCode.fromString("cc")], analysis)
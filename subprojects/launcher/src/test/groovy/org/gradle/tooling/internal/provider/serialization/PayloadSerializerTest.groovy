@@ -43,6 +43,28 @@ class PayloadSerializerTest extends AbstractClassGraphSpec {
         "some value" | _
     }
 
+    def "writes equal strings only once"() {
+        def path = "/some/path/to/a/dependency.jar"
+        def single = [path]
+        def copies = (1..1000).collect { new String(path) }
+
+        when:
+        def serializedSingle = originator.serialize(single)
+        def serializedCopies = originator.serialize(copies)
+        def received = receiver.deserialize(serializedCopies)
+
+        then:
+        received == copies
+        size(serializedCopies) < size(serializedSingle) + 1000 * path.length()
+
+        and:
+        received.every { it.is(received[0]) }
+    }
+
+    private static int size(SerializedPayload payload) {
+        payload.serializedModel.sum { it.length } as int
+    }
+
     def "implementation classpath travels with object"() {
         def payloadClass = isolated(CustomPayload, PayloadInterface).loadClass(CustomPayload.name)
         def original = payloadClass.newInstance(value: 'value')
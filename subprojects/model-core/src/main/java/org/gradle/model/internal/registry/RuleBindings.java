@@ -261,8 +261,7 @@ class RuleBindings {
 
         public void nodeRemoved(ModelNodeInternal node) {
             // This could be more efficient; assume that removal happens much less often than addition
-            for (ModelNode.State state : ModelNode.State.values()) {
-                Map<String, List<RuleBinder>> byState = getByState(state);
+            for (Map<String, List<RuleBinder>> byState : boundAtState.values()) {
                 List<RuleBinder> remove = byState.remove(node.getPath().toString());
                 if (remove != null) {
                     for (RuleBinder rule : remove) {
@@ -294,14 +293,22 @@ class RuleBindings {
          * Returns rules for given target at state.
          */
         public Collection<RuleBinder> get(NodeAtState nodeAtState) {
-            return getByPath(getByState(nodeAtState.state), nodeAtState.path.toString());
+            // Called for every node and state reached while transitioning the graph, so don't create entries for nodes without rules
+            Map<String, List<RuleBinder>> byState = boundAtState.get(nodeAtState.state);
+            if (byState == null) {
+                return Collections.emptyList();
+            }
+            List<RuleBinder> ruleBinders = byState.get(nodeAtState.path.toString());
+            return ruleBinders == null ? Collections.<RuleBinder>emptyList() : ruleBinders;
         }
 
         public void remove(ModelNodeInternal node, RuleBinder ruleBinder) {
             unbind(ruleBinder, node);
-            for (ModelNode.State state : ModelNode.State.values()) {
-                Map<String, List<RuleBinder>> byState = getByState(state);
-                getByPath(byState, node.getPath().toString()).clear();
+            for (Map<String, List<RuleBinder>> byState : boundAtState.values()) {
+                List<RuleBinder> ruleBinders = byState.get(node.getPath().toString());
+                if (ruleBinders != null) {
+                    ruleBinders.clear();
+                }
             }
         }
 
@@ -256,6 +256,26 @@ class RuleBindingsTest extends RegistrySpec {
         bindings.getRulesWithInput(nodeAtState("path", ModelNode.State.Created)) as List == []
     }
 
+    def "locates rules added after looking up rules with subject"() {
+        given:
+        def node = node("a", String)
+        addNode(node)
+
+        expect:
+        bindings.getRulesWithSubject(nodeAtState("a", ModelNode.State.Mutated)) as List == []
+        bindings.getRulesWithInput(nodeAtState("a", ModelNode.State.Mutated)) as List == []
+
+        when:
+        def rule1 = rule("a", ModelNode.State.Mutated)
+        def rule2 = rule("other") { it.inputReference("a", ModelNode.State.Mutated) }
+        bindings.add(rule1)
+        bindings.add(rule2)
+
+        then:
+        bindings.getRulesWithSubject(nodeAtState("a", ModelNode.State.Mutated)) as List == [rule1]
+        bindings.getRulesWithInput(nodeAtState("a", ModelNode.State.Mutated)) as List == [rule2]
+    }
+
     def "matches rules on path"() {
         given:
         def node1 = node("a")
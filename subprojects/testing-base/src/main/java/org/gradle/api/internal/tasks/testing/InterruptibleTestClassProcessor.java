@@ -0,0 +1,30 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing;
+
+/**
+ * A {@link TestClassProcessor} that runs in the build process and can abandon its work before it has completed. Test class processors that run in the
+ * test worker process are stopped by stopping the worker, and do not implement this interface.
+ */
+public interface InterruptibleTestClassProcessor extends TestClassProcessor {
+    /**
+     * Stops any processing as soon as possible, abandoning the test classes that have not been completed yet. May be called from any thread,
+     * at any time after {@link #startProcessing(TestResultProcessor)}. The processor may still send results for a short time afterwards.
+     * {@link #stop()} is still called after this method.
+     */
+    void stopNow();
+}
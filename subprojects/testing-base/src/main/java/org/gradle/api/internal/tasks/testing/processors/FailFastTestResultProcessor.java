@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stops test execution as soon as a test fails.
+ *
+ * <p>Once the first failure has been reported, the test class processor is asked to stop immediately and no further tests are started. Tests that were
+ * already running are allowed to report their results, if they can. Any test that never completes is reported as skipped by
+ * {@link #completeOutstanding(long)}.</p>
+ */
+public class FailFastTestResultProcessor implements TestResultProcessor {
+    private final TestResultProcessor delegate;
+    private final InterruptibleTestClassProcessor processor;
+    private final Set<Object> outstanding = new LinkedHashSet<Object>();
+    private final Set<Object> failed = new HashSet<Object>();
+    private boolean stopped;
+
+    public FailFastTestResultProcessor(TestResultProcessor delegate, InterruptibleTestClassProcessor processor) {
+        this.delegate = delegate;
+        this.processor = processor;
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            outstanding.add(test.getId());
+        }
+        delegate.started(test, event);
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        boolean stopNow;
+        synchronized (this) {
+            if (!outstanding.remove(testId)) {
+                return;
+            }
+            boolean testFailed = event.getResultType() == TestResult.ResultType.FAILURE || (event.getResultType() == null && failed.contains(testId));
+            failed.remove(testId);
+            stopNow = testFailed && !stopped;
+            if (stopNow) {
+                stopped = true;
+            }
+        }
+        delegate.completed(testId, event);
+        if (stopNow) {
+            processor.stopNow();
+        }
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        synchronized (this) {
+            if (!outstanding.contains(testId)) {
+                return;
+            }
+        }
+        delegate.output(testId, event);
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        synchronized (this) {
+            if (!outstanding.contains(testId)) {
+                return;
+            }
+            failed.add(testId);
+        }
+        delegate.failure(testId, result);
+    }
+
+    /**
+     * Reports any test that was started but has not completed as skipped. Should be called once the test class processor has stopped.
+     */
+    public void completeOutstanding(long endTime) {
+        List<Object> testIds;
+        synchronized (this) {
+            testIds = new ArrayList<Object>(outstanding);
+            outstanding.clear();
+            failed.clear();
+        }
+        // Complete the most recently started tests first, so that each test completes before its parent
+        Collections.reverse(testIds);
+        for (Object testId : testIds) {
+            delegate.completed(testId, new TestCompleteEvent(endTime, TestResult.ResultType.SKIPPED));
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.tasks.testing.processors;
 
 import org.gradle.internal.Factory;
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
@@ -27,26 +28,82 @@ import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.dispatch.DispatchException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors.
+ *
+ * <p>When no durations are known from previous executions, uses a simple round-robin algorithm to assign test classes to processors as they are discovered.</p>
+ *
+ * <p>When durations are known, dispatches each test class to the processor that is predicted to become idle first. The longest test classes, one per processor,
+ * and the classes with no recorded duration, which are assumed to take the average time, are dispatched as soon as they are found, so that tests start while
+ * the remaining classes are still being found. The remaining classes are collected and dispatched longest-first once all classes have been found. This avoids
+ * a single processor running several slow test classes and finishing long after the others.</p>
  */
-public class MaxNParallelTestClassProcessor implements TestClassProcessor {
+public class MaxNParallelTestClassProcessor implements InterruptibleTestClassProcessor {
     private final int maxProcessors;
-    private final Factory<TestClassProcessor> factory;
+    private final Factory<InterruptibleTestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final Map<String, Long> previousDurations;
+    private final Set<String> longestTestClasses;
+    private final long averageDuration;
+    private final long[] predictedLoad;
+    private final List<TestClassRunInfo> pendingTestClasses = new ArrayList<TestClassRunInfo>();
     private TestResultProcessor resultProcessor;
     private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
+    private final List<InterruptibleTestClassProcessor> rawProcessors = new CopyOnWriteArrayList<InterruptibleTestClassProcessor>();
+    private volatile boolean stoppedNow;
     private Actor resultProcessorActor;
 
-    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<InterruptibleTestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, Collections.<String, Long>emptyMap());
+    }
+
+    /**
+     * @param previousDurations the duration in milliseconds of each test class, as recorded by previous executions.
+     */
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<InterruptibleTestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> previousDurations) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.previousDurations = previousDurations;
+        this.longestTestClasses = longestTestClasses(previousDurations, maxProcessors);
+        this.averageDuration = averageDuration(previousDurations);
+        this.predictedLoad = new long[maxProcessors > 1 ? maxProcessors : 0];
+    }
+
+    private static Set<String> longestTestClasses(Map<String, Long> durations, int count) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(durations.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+        Set<String> longest = new HashSet<String>();
+        for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(count, entries.size()))) {
+            longest.add(entry.getKey());
+        }
+        return longest;
+    }
+
+    private static long averageDuration(Map<String, Long> durations) {
+        if (durations.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (Long duration : durations.values()) {
+            total += duration;
+        }
+        return total / durations.size();
     }
 
     @Override
@@ -58,14 +115,23 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
+        if (stoppedNow) {
+            return;
+        }
+        if (maxProcessors > 1 && !previousDurations.isEmpty()) {
+            Long duration = previousDurations.get(testClass.getTestClassName());
+            if (duration == null) {
+                dispatchToLeastLoaded(testClass, averageDuration);
+            } else if (longestTestClasses.contains(testClass.getTestClassName())) {
+                dispatchToLeastLoaded(testClass, duration);
+            } else {
+                pendingTestClasses.add(testClass);
+            }
+            return;
+        }
         TestClassProcessor processor;
         if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
-            actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
+            processor = startProcessor();
         } else {
             processor = processors.get(pos);
             pos = (pos + 1) % processors.size();
@@ -73,12 +139,69 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         processor.processTestClass(testClass);
     }
 
+    private TestClassProcessor startProcessor() {
+        InterruptibleTestClassProcessor rawProcessor = factory.create();
+        rawProcessors.add(rawProcessor);
+        if (stoppedNow) {
+            rawProcessor.stopNow();
+        }
+        Actor actor = actorFactory.createActor(rawProcessor);
+        TestClassProcessor processor = actor.getProxy(TestClassProcessor.class);
+        actors.add(actor);
+        processors.add(processor);
+        processor.startProcessing(resultProcessor);
+        return processor;
+    }
+
+    private void dispatchLongestFirst() {
+        // Stable sort, so classes with the same duration keep the order in which they were found
+        Collections.sort(pendingTestClasses, new Comparator<TestClassRunInfo>() {
+            @Override
+            public int compare(TestClassRunInfo o1, TestClassRunInfo o2) {
+                return previousDurations.get(o2.getTestClassName()).compareTo(previousDurations.get(o1.getTestClassName()));
+            }
+        });
+        for (TestClassRunInfo testClass : pendingTestClasses) {
+            if (stoppedNow) {
+                break;
+            }
+            dispatchToLeastLoaded(testClass, previousDurations.get(testClass.getTestClassName()));
+        }
+        pendingTestClasses.clear();
+    }
+
+    private void dispatchToLeastLoaded(TestClassRunInfo testClass, long predictedDuration) {
+        // Processors that have not been started yet have no load, and are started in order
+        int leastLoaded = 0;
+        for (int i = 1; i < predictedLoad.length; i++) {
+            if (predictedLoad[i] < predictedLoad[leastLoaded]) {
+                leastLoaded = i;
+            }
+        }
+        TestClassProcessor processor = leastLoaded < processors.size() ? processors.get(leastLoaded) : startProcessor();
+        processor.processTestClass(testClass);
+        // Count each class as taking at least 1ms, so that classes with no measurable duration are still spread across the processors
+        predictedLoad[leastLoaded] += Math.max(predictedDuration, 1);
+    }
+
     @Override
     public void stop() {
         try {
+            if (!pendingTestClasses.isEmpty()) {
+                dispatchLongestFirst();
+            }
             CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
     }
+
+    @Override
+    public void stopNow() {
+        stoppedNow = true;
+        // Bypass the actors, as these may be busy dispatching test classes to the processors
+        for (InterruptibleTestClassProcessor processor : rawProcessors) {
+            processor.stopNow();
+        }
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.specs.Spec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reorders test classes so that those most likely to fail run first.
+ *
+ * <p>Test classes that failed in the previous execution are dispatched as soon as they are found. The remaining classes are held back until
+ * detection has finished, and then dispatched with the classes that have changed since the previous execution ahead of the others.</p>
+ */
+public class PrioritizingTestClassProcessor implements InterruptibleTestClassProcessor {
+    private final InterruptibleTestClassProcessor delegate;
+    private final Set<String> previouslyFailed;
+    private final Spec<String> changed;
+    private final List<TestClassRunInfo> changedClasses = new ArrayList<TestClassRunInfo>();
+    private final List<TestClassRunInfo> otherClasses = new ArrayList<TestClassRunInfo>();
+
+    public PrioritizingTestClassProcessor(InterruptibleTestClassProcessor delegate, Set<String> previouslyFailed, Spec<String> changed) {
+        this.delegate = delegate;
+        this.previouslyFailed = previouslyFailed;
+        this.changed = changed;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        String className = testClass.getTestClassName();
+        if (previouslyFailed.contains(className)) {
+            delegate.processTestClass(testClass);
+        } else if (changed.isSatisfiedBy(className)) {
+            changedClasses.add(testClass);
+        } else {
+            otherClasses.add(testClass);
+        }
+    }
+
+    @Override
+    public void stop() {
+        try {
+            for (TestClassRunInfo testClass : changedClasses) {
+                delegate.processTestClass(testClass);
+            }
+            for (TestClassRunInfo testClass : otherClasses) {
+                delegate.processTestClass(testClass);
+            }
+        } finally {
+            changedClasses.clear();
+            otherClasses.clear();
+            delegate.stop();
+        }
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+}
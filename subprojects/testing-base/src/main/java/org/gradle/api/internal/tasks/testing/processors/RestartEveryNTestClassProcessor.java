@@ -17,18 +17,19 @@
 package org.gradle.api.internal.tasks.testing.processors;
 
 import org.gradle.internal.Factory;
-import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 
-public class RestartEveryNTestClassProcessor implements TestClassProcessor {
-    private final Factory<TestClassProcessor> factory;
+public class RestartEveryNTestClassProcessor implements InterruptibleTestClassProcessor {
+    private final Factory<InterruptibleTestClassProcessor> factory;
     private final long restartEvery;
     private long testCount;
-    private TestClassProcessor processor;
+    private volatile InterruptibleTestClassProcessor processor;
+    private volatile boolean stoppedNow;
     private TestResultProcessor resultProcessor;
 
-    public RestartEveryNTestClassProcessor(Factory<TestClassProcessor> factory, long restartEvery) {
+    public RestartEveryNTestClassProcessor(Factory<InterruptibleTestClassProcessor> factory, long restartEvery) {
         this.factory = factory;
         this.restartEvery = restartEvery;
     }
@@ -40,9 +41,16 @@ public class RestartEveryNTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
+        if (stoppedNow) {
+            return;
+        }
         if (processor == null) {
             processor = factory.create();
             processor.startProcessing(resultProcessor);
+            if (stoppedNow) {
+                // stopNow() may have been called while the processor was being created
+                processor.stopNow();
+            }
         }
         processor.processTestClass(testClass);
         testCount++;
@@ -58,6 +66,15 @@ public class RestartEveryNTestClassProcessor implements TestClassProcessor {
         }
     }
 
+    @Override
+    public void stopNow() {
+        stoppedNow = true;
+        InterruptibleTestClassProcessor current = processor;
+        if (current != null) {
+            current.stopNow();
+        }
+    }
+
     private void endBatch() {
         try {
             processor.stop();
@@ -23,14 +23,22 @@ import org.gradle.internal.time.TimeProvider;
 
 public class TestMainAction implements Runnable {
     private final Runnable detector;
-    private final TestClassProcessor processor;
+    private final InterruptibleTestClassProcessor processor;
     private final TestResultProcessor resultProcessor;
     private final TimeProvider timeProvider;
     private final Object testTaskOperationId;
     private final Object rootTestSuiteId;
     private final String displayName;
+    private final boolean failFast;
 
-    public TestMainAction(Runnable detector, TestClassProcessor processor, TestResultProcessor resultProcessor, TimeProvider timeProvider, Object testTaskOperationId, Object rootTestSuiteId, String displayName) {
+    public TestMainAction(Runnable detector, InterruptibleTestClassProcessor processor, TestResultProcessor resultProcessor, TimeProvider timeProvider, Object testTaskOperationId, Object rootTestSuiteId, String displayName) {
+        this(detector, processor, resultProcessor, timeProvider, testTaskOperationId, rootTestSuiteId, displayName, false);
+    }
+
+    /**
+     * @param failFast when true, stops processing test classes after the first test failure.
+     */
+    public TestMainAction(Runnable detector, InterruptibleTestClassProcessor processor, TestResultProcessor resultProcessor, TimeProvider timeProvider, Object testTaskOperationId, Object rootTestSuiteId, String displayName, boolean failFast) {
         this.detector = detector;
         this.processor = processor;
         this.resultProcessor = new AttachParentTestResultProcessor(resultProcessor);
@@ -38,18 +46,26 @@ public class TestMainAction implements Runnable {
         this.testTaskOperationId = testTaskOperationId;
         this.rootTestSuiteId = rootTestSuiteId;
         this.displayName = displayName;
+        this.failFast = failFast;
     }
 
     @Override
     public void run() {
         RootTestSuiteDescriptor suite = new RootTestSuiteDescriptor(rootTestSuiteId, displayName, testTaskOperationId);
         resultProcessor.started(suite, new TestStartEvent(timeProvider.getCurrentTime()));
+        FailFastTestResultProcessor failFastProcessor = failFast ? new FailFastTestResultProcessor(resultProcessor, processor) : null;
         try {
-            processor.startProcessing(resultProcessor);
+            processor.startProcessing(failFastProcessor != null ? failFastProcessor : resultProcessor);
             try {
                 detector.run();
             } finally {
-                processor.stop();
+                try {
+                    processor.stop();
+                } finally {
+                    if (failFastProcessor != null) {
+                        failFastProcessor.completeOutstanding(timeProvider.getCurrentTime());
+                    }
+                }
             }
         } finally {
             resultProcessor.completed(suite.getId(), new TestCompleteEvent(timeProvider.getCurrentTime()));
@@ -17,14 +17,17 @@
 package org.gradle.api.internal.tasks.testing.worker;
 
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.classpath.ModuleRegistry;
-import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecException;
 import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
@@ -33,8 +36,10 @@ import org.gradle.util.CollectionUtils;
 import java.io.File;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class ForkingTestClassProcessor implements TestClassProcessor {
+public class ForkingTestClassProcessor implements InterruptibleTestClassProcessor {
     private final WorkerLeaseRegistry.WorkerLease currentWorkerLease;
     private final WorkerProcessFactory workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
@@ -42,12 +47,23 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final TestWorkerPool workerPool;
     private RemoteTestClassProcessor remoteProcessor;
+    private PooledTestWorker pooledWorker;
+    private final Lock lock = new ReentrantLock();
+    private volatile boolean stoppedNow;
     private WorkerProcess workerProcess;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
 
     public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry) {
+        this(parentWorkerLease, workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, null);
+    }
+
+    /**
+     * @param workerPool When not null, the tests are run in a worker process from the given pool, and the worker process is returned to the pool when finished.
+     */
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, @Nullable TestWorkerPool workerPool) {
         this.currentWorkerLease = parentWorkerLease;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
@@ -55,6 +71,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.classPath = classPath;
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
+        this.workerPool = workerPool;
     }
 
     @Override
@@ -64,12 +81,30 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
-        if (remoteProcessor == null) {
-            completion = currentWorkerLease.startChild();
-            remoteProcessor = forkProcess();
-        }
+        lock.lock();
+        try {
+            if (stoppedNow) {
+                return;
+            }
+
+            if (workerPool != null) {
+                if (pooledWorker == null) {
+                    completion = currentWorkerLease.startChild();
+                    pooledWorker = reserveWorker();
+                }
+                pooledWorker.processTestClass(testClass);
+                return;
+            }
 
-        remoteProcessor.processTestClass(testClass);
+            if (remoteProcessor == null) {
+                completion = currentWorkerLease.startChild();
+                remoteProcessor = forkProcess();
+            }
+
+            remoteProcessor.processTestClass(testClass);
+        } finally {
+            lock.unlock();
+        }
     }
 
     RemoteTestClassProcessor forkProcess() {
@@ -93,6 +128,26 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         return remoteProcessor;
     }
 
+    PooledTestWorker reserveWorker() {
+        List<URL> implementationClasspath = getTestWorkerImplementationClasspath();
+        TestWorkerForkOptions forkOptions = new TestWorkerForkOptions(options, implementationClasspath);
+        PooledTestWorker worker = workerPool.reserveIdleWorker(forkOptions);
+        if (worker == null) {
+            WorkerProcessBuilder builder = workerFactory.create(new ReusableTestWorker());
+            builder.setBaseName("Gradle Test Executor");
+            builder.setImplementationClasspath(implementationClasspath);
+            options.copyTo(builder.getJavaCommand());
+            builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+            buildConfigAction.execute(builder);
+            worker = workerPool.reserveNewWorker(forkOptions, builder);
+        }
+
+        List<URL> applicationClasspath = new DefaultClassPath(classPath).getAsURLs();
+        List<URL> frameworkClasspath = moduleRegistry.getModule("gradle-testing-jvm").getImplementationClasspath().getAsURLs();
+        worker.startSession(new TestWorkerSession(applicationClasspath, frameworkClasspath, processorFactory), resultProcessor);
+        return worker;
+    }
+
     List<URL> getTestWorkerImplementationClasspath() {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core").getImplementationClasspath().getAsURLs(),
@@ -115,13 +170,57 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void stop() {
+        if (pooledWorker != null) {
+            try {
+                if (stoppedNow) {
+                    workerPool.discard(pooledWorker);
+                } else {
+                    pooledWorker.endSession();
+                    workerPool.release(pooledWorker);
+                }
+            } catch (RuntimeException e) {
+                workerPool.discard(pooledWorker);
+                if (!stoppedNow) {
+                    throw e;
+                }
+            } finally {
+                completion.leaseFinish();
+            }
+        }
         if (remoteProcessor != null) {
             try {
-                remoteProcessor.stop();
+                lock.lock();
+                try {
+                    if (!stoppedNow) {
+                        remoteProcessor.stop();
+                    }
+                } finally {
+                    lock.unlock();
+                }
                 workerProcess.waitForStop();
+            } catch (ExecException e) {
+                // The worker process is expected to exit abnormally when it has been killed
+                if (!stoppedNow) {
+                    throw e;
+                }
             } finally {
                 completion.leaseFinish();
             }
         }
     }
+
+    @Override
+    public void stopNow() {
+        lock.lock();
+        try {
+            stoppedNow = true;
+            if (pooledWorker != null) {
+                pooledWorker.stopNow();
+            } else if (workerProcess != null) {
+                workerProcess.stopNow();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 }
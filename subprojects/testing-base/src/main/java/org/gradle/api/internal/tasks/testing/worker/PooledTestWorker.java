@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker process that is kept alive between test tasks by {@link TestWorkerPool}. Each test task uses the worker for one session.
+ */
+public class PooledTestWorker implements Stoppable {
+    private final TestWorkerForkOptions forkOptions;
+    private final LogLevel logLevel;
+    private final WorkerProcess workerProcess;
+    private final SessionResultProcessor sessionResultProcessor = new SessionResultProcessor();
+    private final CountDownLatch processStopped = new CountDownLatch(1);
+    private RemoteReusableTestWorker remoteWorker;
+    private volatile Throwable processFailure;
+    private int uses;
+
+    PooledTestWorker(TestWorkerForkOptions forkOptions, LogLevel logLevel, WorkerProcess workerProcess) {
+        this.forkOptions = forkOptions;
+        this.logLevel = logLevel;
+        this.workerProcess = workerProcess;
+    }
+
+    void start() {
+        workerProcess.start();
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestResultProcessor.class, sessionResultProcessor);
+        remoteWorker = connection.addOutgoing(RemoteReusableTestWorker.class);
+        connection.connect();
+    }
+
+    /**
+     * Waits for the worker process to exit. This is called from a dedicated thread, so that a session does not wait forever for a worker that has crashed.
+     */
+    void waitForProcess() {
+        try {
+            workerProcess.waitForStop();
+        } catch (Throwable t) {
+            processFailure = t;
+        } finally {
+            processStopped.countDown();
+            sessionResultProcessor.workerStopped();
+        }
+    }
+
+    public boolean isCompatibleWith(TestWorkerForkOptions forkOptions) {
+        return this.forkOptions.equals(forkOptions);
+    }
+
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public boolean isStopped() {
+        return processStopped.getCount() == 0;
+    }
+
+    public int getUses() {
+        return uses;
+    }
+
+    public void startSession(TestWorkerSession session, TestResultProcessor resultProcessor) {
+        uses++;
+        sessionResultProcessor.startSession(resultProcessor);
+        remoteWorker.startSession(session);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        remoteWorker.processTestClass(testClass);
+    }
+
+    /**
+     * Ends the current session and blocks until all results of the session have been received.
+     */
+    public void endSession() {
+        remoteWorker.endSession();
+        sessionResultProcessor.waitForSessionCompleted();
+        if (isStopped()) {
+            // The worker exited while running the tests of this session
+            rethrowProcessFailure();
+        }
+    }
+
+    /**
+     * Kills the worker process, abandoning the current session.
+     */
+    public void stopNow() {
+        workerProcess.stopNow();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStopped()) {
+            remoteWorker.stop();
+        }
+        try {
+            processStopped.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        rethrowProcessFailure();
+    }
+
+    private void rethrowProcessFailure() {
+        if (processFailure != null) {
+            throw UncheckedException.throwAsUncheckedException(processFailure);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PooledTestWorker{forkOptions=" + forkOptions + ", uses=" + uses + "}";
+    }
+
+    /**
+     * Forwards the results of the current session to the result processor of the test task, and notices when the worker has finished the session.
+     */
+    private static class SessionResultProcessor implements TestResultProcessor {
+        private final Object lock = new Object();
+        private TestResultProcessor delegate;
+        private Object workerSuiteId;
+        private boolean sessionCompleted;
+        private boolean workerStopped;
+
+        void startSession(TestResultProcessor delegate) {
+            synchronized (lock) {
+                this.delegate = delegate;
+                workerSuiteId = null;
+                sessionCompleted = false;
+            }
+        }
+
+        void waitForSessionCompleted() {
+            synchronized (lock) {
+                while (!sessionCompleted && !workerStopped) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+                delegate = null;
+            }
+        }
+
+        void workerStopped() {
+            synchronized (lock) {
+                workerStopped = true;
+                lock.notifyAll();
+            }
+        }
+
+        private TestResultProcessor getDelegate() {
+            synchronized (lock) {
+                return delegate;
+            }
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            TestResultProcessor delegate;
+            synchronized (lock) {
+                if (test instanceof WorkerTestClassProcessor.WorkerTestSuiteDescriptor) {
+                    workerSuiteId = test.getId();
+                }
+                delegate = this.delegate;
+            }
+            delegate.started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            getDelegate().completed(testId, event);
+            synchronized (lock) {
+                if (testId.equals(workerSuiteId)) {
+                    sessionCompleted = true;
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            getDelegate().output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            getDelegate().failure(testId, result);
+        }
+    }
+}
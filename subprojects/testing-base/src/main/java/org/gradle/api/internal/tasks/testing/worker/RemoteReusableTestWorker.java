@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+
+/**
+ * The protocol used to drive a test worker process that can run the tests of several test tasks, one session at a time.
+ *
+ * @see RemoteTestClassProcessor
+ */
+public interface RemoteReusableTestWorker {
+    /**
+     * Starts a new session using the given test classpath and test framework. Does not block.
+     */
+    void startSession(TestWorkerSession session);
+
+    /**
+     * Does not block.
+     */
+    void processTestClass(TestClassRunInfo testClass);
+
+    /**
+     * Finishes the current session. The worker signals the end of the session by completing the worker test suite. Does not block.
+     */
+    void endSession();
+
+    /**
+     * Stops the worker process. Does not block.
+     */
+    void stop();
+}
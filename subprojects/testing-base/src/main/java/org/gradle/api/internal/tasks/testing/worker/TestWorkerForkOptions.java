@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.base.Objects;
+import org.gradle.process.JavaForkOptions;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The options a test worker process was started with. Two test tasks can share a test worker only when their options are equal.
+ * The test classpath is not part of these options, as it is provided to the worker for each session.
+ */
+public class TestWorkerForkOptions {
+    private final String executable;
+    private final List<String> jvmArgs;
+    private final Map<String, String> environment;
+    private final File workingDir;
+    private final List<URL> implementationClasspath;
+
+    public TestWorkerForkOptions(JavaForkOptions options, Collection<URL> implementationClasspath) {
+        this.executable = options.getExecutable();
+        this.jvmArgs = new ArrayList<String>(options.getAllJvmArgs());
+        this.environment = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, Object> entry : options.getEnvironment().entrySet()) {
+            environment.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        this.workingDir = options.getWorkingDir();
+        this.implementationClasspath = new ArrayList<URL>(implementationClasspath);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        TestWorkerForkOptions other = (TestWorkerForkOptions) obj;
+        return Objects.equal(executable, other.executable)
+            && jvmArgs.equals(other.jvmArgs)
+            && environment.equals(other.environment)
+            && Objects.equal(workingDir, other.workingDir)
+            && implementationClasspath.toString().equals(other.implementationClasspath.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(executable, jvmArgs, environment, workingDir);
+    }
+
+    @Override
+    public String toString() {
+        return "{executable=" + executable + ", jvmArgs=" + jvmArgs + ", workingDir=" + workingDir + "}";
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.logging.LoggingManagerInternal;
+import org.gradle.internal.logging.events.LogLevelChangeEvent;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps test worker processes alive after a test task has finished with them, so that later test tasks with the same fork options can reuse them
+ * instead of starting new processes. Idle workers are kept in order of release, and the least recently used ones are stopped when there are too many.
+ */
+public class TestWorkerPool implements Stoppable {
+    /**
+     * Enables reuse of test worker processes. Workers are only reused by test tasks that do not use {@code forkEvery}.
+     */
+    public static final String REUSE_WORKERS_PROPERTY = "org.gradle.internal.testing.reuseWorkers";
+    public static final String MAX_IDLE_WORKERS_PROPERTY = "org.gradle.internal.testing.maxIdleWorkers";
+
+    private static final Logger LOGGER = Logging.getLogger(TestWorkerPool.class);
+
+    private final Object lock = new Object();
+    private final List<PooledTestWorker> allWorkers = new ArrayList<PooledTestWorker>();
+    private final List<PooledTestWorker> idleWorkers = new ArrayList<PooledTestWorker>();
+    private final ManagedExecutor processWatcher;
+    private final LoggingManagerInternal loggingManager;
+    private final OutputEventListener logLevelChangeEventListener;
+    private final int maxIdleWorkers;
+    private LogLevel currentLogLevel;
+
+    public TestWorkerPool(ExecutorFactory executorFactory, LoggingManagerInternal loggingManager, int maxIdleWorkers) {
+        this.processWatcher = executorFactory.create("Test worker process watcher");
+        this.loggingManager = loggingManager;
+        this.maxIdleWorkers = maxIdleWorkers;
+        this.logLevelChangeEventListener = new LogLevelChangeEventListener();
+        loggingManager.addOutputEventListener(logLevelChangeEventListener);
+        this.currentLogLevel = loggingManager.getLevel();
+    }
+
+    public boolean isEnabled() {
+        return Boolean.getBoolean(REUSE_WORKERS_PROPERTY);
+    }
+
+    @Nullable
+    public PooledTestWorker reserveIdleWorker(TestWorkerForkOptions forkOptions) {
+        List<PooledTestWorker> workersToStop = new ArrayList<PooledTestWorker>();
+        PooledTestWorker reserved = null;
+        synchronized (lock) {
+            Iterator<PooledTestWorker> it = idleWorkers.iterator();
+            while (it.hasNext()) {
+                PooledTestWorker candidate = it.next();
+                if (candidate.isStopped()) {
+                    it.remove();
+                    allWorkers.remove(candidate);
+                } else if (candidate.isCompatibleWith(forkOptions)) {
+                    it.remove();
+                    if (candidate.getLogLevel() != currentLogLevel) {
+                        LOGGER.info("Log level has changed, stopping idle test worker with out-of-date log level.");
+                        allWorkers.remove(candidate);
+                        workersToStop.add(candidate);
+                    } else {
+                        reserved = candidate;
+                        break;
+                    }
+                }
+            }
+        }
+        stopWorkers(workersToStop);
+        return reserved;
+    }
+
+    public PooledTestWorker reserveNewWorker(TestWorkerForkOptions forkOptions, WorkerProcessBuilder builder) {
+        final PooledTestWorker worker;
+        synchronized (lock) {
+            worker = new PooledTestWorker(forkOptions, currentLogLevel, builder.build());
+        }
+        worker.start();
+        processWatcher.execute(new Runnable() {
+            @Override
+            public void run() {
+                worker.waitForProcess();
+            }
+        });
+        synchronized (lock) {
+            allWorkers.add(worker);
+        }
+        return worker;
+    }
+
+    /**
+     * Returns a worker whose session has completed successfully to the pool.
+     */
+    public void release(PooledTestWorker worker) {
+        List<PooledTestWorker> workersToStop = new ArrayList<PooledTestWorker>();
+        synchronized (lock) {
+            if (worker.isStopped()) {
+                allWorkers.remove(worker);
+                return;
+            }
+            idleWorkers.add(worker);
+            while (idleWorkers.size() > maxIdleWorkers) {
+                PooledTestWorker leastRecentlyUsed = idleWorkers.remove(0);
+                allWorkers.remove(leastRecentlyUsed);
+                workersToStop.add(leastRecentlyUsed);
+            }
+        }
+        stopWorkers(workersToStop);
+    }
+
+    /**
+     * Stops a worker that could not complete its session.
+     */
+    public void discard(PooledTestWorker worker) {
+        synchronized (lock) {
+            allWorkers.remove(worker);
+            idleWorkers.remove(worker);
+        }
+        try {
+            worker.stop();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not stop test worker.", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        List<PooledTestWorker> workersToStop;
+        synchronized (lock) {
+            workersToStop = new ArrayList<PooledTestWorker>(allWorkers);
+            allWorkers.clear();
+            idleWorkers.clear();
+            loggingManager.removeOutputEventListener(logLevelChangeEventListener);
+        }
+        CompositeStoppable.stoppable(workersToStop).add(processWatcher).stop();
+    }
+
+    private void stopWorkers(List<PooledTestWorker> workersToStop) {
+        if (!workersToStop.isEmpty()) {
+            LOGGER.debug("Stopping {} idle test worker(s).", workersToStop.size());
+            CompositeStoppable.stoppable(workersToStop).stop();
+        }
+    }
+
+    private class LogLevelChangeEventListener implements OutputEventListener {
+        @Override
+        public void onOutput(OutputEvent event) {
+            if (event instanceof LogLevelChangeEvent) {
+                LogLevelChangeEvent logLevelChangeEvent = (LogLevelChangeEvent) event;
+                synchronized (lock) {
+                    currentLogLevel = logLevelChangeEvent.getNewLogLevel();
+                }
+            }
+        }
+    }
+}
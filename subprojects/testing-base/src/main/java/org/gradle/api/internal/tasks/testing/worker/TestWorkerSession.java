@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The test classpath and test framework for a single session of a {@link ReusableTestWorker}.
+ *
+ * <p>The processor factory is carried in serialized form, so that the worker can deserialize it using the classloader of the session rather than the classloader of the worker.</p>
+ */
+public class TestWorkerSession implements Serializable {
+    private final List<URL> applicationClasspath;
+    private final List<URL> frameworkClasspath;
+    private final byte[] serializedProcessorFactory;
+
+    public TestWorkerSession(List<URL> applicationClasspath, List<URL> frameworkClasspath, WorkerTestClassProcessorFactory processorFactory) {
+        this.applicationClasspath = new ArrayList<URL>(applicationClasspath);
+        this.frameworkClasspath = new ArrayList<URL>(frameworkClasspath);
+        this.serializedProcessorFactory = serialize(processorFactory);
+    }
+
+    /**
+     * The classpath of the tests, followed by the implementation of the test framework integration.
+     */
+    public List<URL> getSessionClasspath() {
+        List<URL> classpath = new ArrayList<URL>(applicationClasspath.size() + frameworkClasspath.size());
+        classpath.addAll(applicationClasspath);
+        classpath.addAll(frameworkClasspath);
+        return classpath;
+    }
+
+    public WorkerTestClassProcessorFactory getProcessorFactory(ClassLoader sessionClassLoader) {
+        try {
+            ObjectInputStream inputStream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(serializedProcessorFactory), sessionClassLoader);
+            try {
+                return (WorkerTestClassProcessorFactory) inputStream.readObject();
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static byte[] serialize(WorkerTestClassProcessorFactory processorFactory) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+            outputStream.writeObject(processorFactory);
+            outputStream.close();
+            return bytes.toByteArray();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import spock.lang.Specification
+
+class FailFastTestResultProcessorTest extends Specification {
+    private final TestResultProcessor delegate = Mock()
+    private final InterruptibleTestClassProcessor testClassProcessor = Mock()
+    private final FailFastTestResultProcessor processor = new FailFastTestResultProcessor(delegate, testClassProcessor)
+    private final testClass = new DefaultTestClassDescriptor("class", "Class")
+    private final test1 = new DefaultTestDescriptor("test1", "Class", "test1")
+    private final test2 = new DefaultTestDescriptor("test2", "Class", "test2")
+
+    def "forwards events while tests pass"() {
+        def output = Stub(TestOutputEvent)
+
+        when:
+        processor.started(testClass, new TestStartEvent(100))
+        processor.started(test1, new TestStartEvent(100, "class"))
+        processor.output("test1", output)
+        processor.completed("test1", new TestCompleteEvent(200, TestResult.ResultType.SUCCESS))
+        processor.completed("class", new TestCompleteEvent(200))
+        processor.completeOutstanding(300)
+
+        then:
+        1 * delegate.started(testClass, _)
+        1 * delegate.started(test1, _)
+        1 * delegate.output("test1", output)
+        1 * delegate.completed("test1", _)
+        1 * delegate.completed("class", _)
+        0 * testClassProcessor._
+        0 * delegate._
+    }
+
+    def "stops test class processor when a test fails"() {
+        def failure = new RuntimeException()
+
+        when:
+        processor.started(testClass, new TestStartEvent(100))
+        processor.started(test1, new TestStartEvent(100, "class"))
+        processor.failure("test1", failure)
+        processor.completed("test1", new TestCompleteEvent(200))
+
+        then:
+        1 * delegate.started(testClass, _)
+        1 * delegate.started(test1, _)
+        1 * delegate.failure("test1", failure)
+        1 * delegate.completed("test1", _)
+        then:
+        1 * testClassProcessor.stopNow()
+        0 * _._
+    }
+
+    def "ignores tests started after the failure and completes outstanding tests as skipped"() {
+        given:
+        processor.started(testClass, new TestStartEvent(100))
+        processor.started(test1, new TestStartEvent(100, "class"))
+        processor.completed("test1", new TestCompleteEvent(200, TestResult.ResultType.FAILURE))
+
+        when:
+        processor.started(test2, new TestStartEvent(200, "class"))
+        processor.output("test2", Stub(TestOutputEvent))
+        processor.failure("test2", new RuntimeException())
+        processor.completed("test2", new TestCompleteEvent(300, TestResult.ResultType.FAILURE))
+        processor.completeOutstanding(400)
+
+        then:
+        1 * delegate.completed("class", { it.endTime == 400 && it.resultType == TestResult.ResultType.SKIPPED })
+        0 * testClassProcessor._
+        0 * delegate._
+    }
+
+    def "completes outstanding tests before their parents"() {
+        given:
+        processor.started(testClass, new TestStartEvent(100))
+        processor.started(test1, new TestStartEvent(100, "class"))
+        processor.started(test2, new TestStartEvent(100, "class"))
+        processor.completed("test2", new TestCompleteEvent(200, TestResult.ResultType.FAILURE))
+
+        when:
+        processor.completeOutstanding(300)
+
+        then:
+        1 * delegate.completed("test1", { it.resultType == TestResult.ResultType.SKIPPED })
+        then:
+        1 * delegate.completed("class", { it.resultType == TestResult.ResultType.SKIPPED })
+        0 * delegate._
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
@@ -25,7 +26,7 @@ import spock.lang.Specification
 import org.gradle.internal.Factory
 
 class MaxNParallelTestClassProcessorTest extends Specification {
-    private final Factory<TestClassProcessor> factory = Mock()
+    private final Factory<InterruptibleTestClassProcessor> factory = Mock()
     private final TestResultProcessor resultProcessor = Mock()
     private final TestResultProcessor asyncResultProcessor = Mock()
     private final Actor resultProcessorActor = Mock()
@@ -60,7 +61,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
     def startsProcessorsOnDemandAndStopsAtEnd() {
         TestClassRunInfo test = Mock()
-        TestClassProcessor processor1 = Mock()
+        InterruptibleTestClassProcessor processor1 = Mock()
         TestClassProcessor asyncProcessor1 = Mock()
         Actor actor1 = Mock()
 
@@ -87,8 +88,8 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
     def startsMultipleProcessorsOnDemandAndStopsAtEnd() {
         TestClassRunInfo test = Mock()
-        TestClassProcessor processor1 = Mock()
-        TestClassProcessor processor2 = Mock()
+        InterruptibleTestClassProcessor processor1 = Mock()
+        InterruptibleTestClassProcessor processor2 = Mock()
         TestClassProcessor asyncProcessor1 = Mock()
         TestClassProcessor asyncProcessor2 = Mock()
         Actor actor1 = Mock()
@@ -126,8 +127,8 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
     def roundRobinsTestClassesToProcessors() {
         TestClassRunInfo test = Mock()
-        TestClassProcessor processor1 = Mock()
-        TestClassProcessor processor2 = Mock()
+        InterruptibleTestClassProcessor processor1 = Mock()
+        InterruptibleTestClassProcessor processor2 = Mock()
         TestClassProcessor asyncProcessor1 = Mock()
         TestClassProcessor asyncProcessor2 = Mock()
         Actor actor1 = Mock()
@@ -167,4 +168,115 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         then:
         1 * asyncProcessor2.processTestClass(test)
     }
+
+    def dispatchesLongestTestClassesFirstToLeastLoadedProcessorWhenDurationsAreKnown() {
+        def balancingProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, [Slow: 1000L, Medium: 600L, Fast1: 300L, Fast2: 200L])
+        TestClassRunInfo slow = testClass("Slow")
+        TestClassRunInfo medium = testClass("Medium")
+        TestClassRunInfo fast1 = testClass("Fast1")
+        TestClassRunInfo fast2 = testClass("Fast2")
+        TestClassRunInfo unknown = testClass("Unknown")
+        InterruptibleTestClassProcessor processor1 = Mock()
+        InterruptibleTestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+
+        given:
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        balancingProcessor.startProcessing(resultProcessor)
+
+        when:
+        [fast1, slow, fast2, unknown, medium].each { balancingProcessor.processTestClass(it) }
+
+        then:
+        // The longest class for each processor is dispatched as soon as it is found
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor1.processTestClass(slow)
+
+        then:
+        // Unknown is assumed to take the average of 525ms, and is also dispatched as soon as it is found
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor2.processTestClass(unknown)
+
+        then:
+        1 * asyncProcessor2.processTestClass(medium)
+        0 * asyncProcessor1.processTestClass(_)
+        0 * asyncProcessor2.processTestClass(_)
+
+        when:
+        balancingProcessor.stop()
+
+        then:
+        0 * factory.create()
+        1 * asyncProcessor1.processTestClass(fast1)
+
+        then:
+        1 * asyncProcessor2.processTestClass(fast2)
+
+        then:
+        1 * asyncProcessor1.stop()
+        1 * asyncProcessor2.stop()
+    }
+
+    def spreadsTestClassesAcrossProcessorsWhenRecordedDurationsAreZero() {
+        def balancingProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, [A: 0L, B: 0L, C: 0L, D: 0L])
+        TestClassRunInfo a = testClass("A")
+        TestClassRunInfo b = testClass("B")
+        TestClassRunInfo c = testClass("C")
+        TestClassRunInfo d = testClass("D")
+        InterruptibleTestClassProcessor processor1 = Mock()
+        InterruptibleTestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+
+        given:
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        balancingProcessor.startProcessing(resultProcessor)
+
+        when:
+        [a, b, c, d].each { balancingProcessor.processTestClass(it) }
+        balancingProcessor.stop()
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor1.processTestClass(a)
+
+        then:
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor2.processTestClass(b)
+
+        then:
+        1 * asyncProcessor1.processTestClass(c)
+
+        then:
+        1 * asyncProcessor2.processTestClass(d)
+
+        then:
+        1 * asyncProcessor1.stop()
+        1 * asyncProcessor2.stop()
+    }
+
+    def testClass(String name) {
+        return Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
 }
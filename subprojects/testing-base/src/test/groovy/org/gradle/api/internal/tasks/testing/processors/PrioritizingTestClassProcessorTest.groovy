@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.specs.Spec
+import spock.lang.Specification
+
+class PrioritizingTestClassProcessorTest extends Specification {
+    private final InterruptibleTestClassProcessor delegate = Mock()
+    private final TestResultProcessor resultProcessor = Mock()
+    private final PrioritizingTestClassProcessor processor = new PrioritizingTestClassProcessor(delegate, ['Failed'] as Set, { it.startsWith('Changed') } as Spec<String>)
+
+    def "dispatches previously failed classes immediately"() {
+        def failed = testClass('Failed')
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(testClass('Other'))
+        processor.processTestClass(failed)
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(failed)
+        0 * delegate._
+    }
+
+    def "dispatches changed classes before the remaining classes on stop"() {
+        def other1 = testClass('Other1')
+        def changed1 = testClass('Changed1')
+        def other2 = testClass('Other2')
+        def changed2 = testClass('Changed2')
+
+        given:
+        processor.processTestClass(other1)
+        processor.processTestClass(changed1)
+        processor.processTestClass(other2)
+        processor.processTestClass(changed2)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(changed1)
+        then:
+        1 * delegate.processTestClass(changed2)
+        then:
+        1 * delegate.processTestClass(other1)
+        then:
+        1 * delegate.processTestClass(other2)
+        then:
+        1 * delegate.stop()
+        0 * delegate._
+    }
+
+    def "stops delegate immediately"() {
+        when:
+        processor.stopNow()
+
+        then:
+        1 * delegate.stopNow()
+        0 * delegate._
+    }
+
+    def testClass(String name) {
+        def testClass = Stub(TestClassRunInfo)
+        testClass.testClassName >> name
+        testClass
+    }
+}
@@ -16,15 +16,15 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
-import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.internal.Factory
 import spock.lang.Specification
 
 public class RestartEveryNTestClassProcessorTest extends Specification {
-    private final Factory<TestClassProcessor> factory = Mock();
-    private final TestClassProcessor delegate = Mock();
+    private final Factory<InterruptibleTestClassProcessor> factory = Mock();
+    private final InterruptibleTestClassProcessor delegate = Mock();
     private final TestClassRunInfo test1 = Mock();
     private final TestClassRunInfo test2 = Mock();
     private final TestClassRunInfo test3 = Mock();
@@ -65,7 +65,7 @@ public class RestartEveryNTestClassProcessorTest extends Specification {
 
     def 'creates new delegate processor on (n + 1)th test'() {
         given:
-        TestClassProcessor delegate2 = Mock()
+        InterruptibleTestClassProcessor delegate2 = Mock()
 
         when:
         processor.startProcessing(resultProcessor)
@@ -156,4 +156,24 @@ public class RestartEveryNTestClassProcessorTest extends Specification {
         1 * delegate.stop()
         0 * _._
     }
+
+    def 'stops delegate processor immediately and ignores subsequent tests'() {
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(test1)
+        processor.stopNow()
+        processor.processTestClass(test2)
+        processor.stop()
+
+        then:
+        1 * factory.create() >> delegate
+        1 * delegate.startProcessing(resultProcessor)
+        then:
+        1 * delegate.processTestClass(test1)
+        then:
+        1 * delegate.stopNow()
+        then:
+        1 * delegate.stop()
+        0 * _._
+    }
 }
@@ -15,13 +15,17 @@
  */
 package org.gradle.api.internal.tasks.testing.processors
 
-import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestResult
 import org.gradle.internal.time.TimeProvider
 import spock.lang.Specification
 
 class TestMainActionTest extends Specification {
-    private final TestClassProcessor processor = Mock()
+    private final InterruptibleTestClassProcessor processor = Mock()
     private final TestResultProcessor resultProcessor = Mock()
     private final Runnable detector = Mock()
     private final TimeProvider timeProvider = Mock()
@@ -122,4 +126,39 @@ class TestMainActionTest extends Specification {
         def exception = thrown(RuntimeException)
         exception == failure
     }
+
+    def 'stops processing after first failure when fail fast is enabled'() {
+        given:
+        def failFastAction = new TestMainAction(detector, processor, resultProcessor, timeProvider, "taskOperationId123", "rootTestSuiteId456", "Test Run", true)
+        def test = new DefaultTestDescriptor("test1", "Class", "test1")
+        def runningTest = new DefaultTestDescriptor("test2", "Class", "test2")
+        TestResultProcessor workerResultProcessor = null
+
+        when:
+        failFastAction.run()
+
+        then:
+        1 * resultProcessor.started({ it.id == 'rootTestSuiteId456' }, _)
+        then:
+        1 * processor.startProcessing(!null) >> { workerResultProcessor = it[0] }
+        then:
+        1 * detector.run() >> {
+            workerResultProcessor.started(runningTest, new TestStartEvent(100))
+            workerResultProcessor.started(test, new TestStartEvent(100))
+            workerResultProcessor.completed("test1", new TestCompleteEvent(200, TestResult.ResultType.FAILURE))
+        }
+        1 * resultProcessor.started(runningTest, _)
+        1 * resultProcessor.started(test, _)
+        1 * resultProcessor.completed("test1", _)
+        1 * processor.stopNow()
+        then:
+        1 * processor.stop()
+        then:
+        1 * resultProcessor.completed("test2", { it.resultType == TestResult.ResultType.SKIPPED })
+        then:
+        1 * resultProcessor.completed("rootTestSuiteId456", _)
+        0 * resultProcessor._
+        0 * processor._
+    }
 }
+
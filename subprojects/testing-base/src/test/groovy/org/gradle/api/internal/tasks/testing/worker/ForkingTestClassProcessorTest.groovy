@@ -60,6 +60,62 @@ class ForkingTestClassProcessorTest extends Specification {
         0 * remoteProcessor._
     }
 
+    def "runs tests in a pooled worker and returns the worker to the pool when finished"() {
+        def pool = Mock(TestWorkerPool)
+        def worker = Mock(PooledTestWorker)
+        def completion = Mock(WorkerLeaseRegistry.WorkerLeaseCompletion)
+        def pooledProcessor = Spy(ForkingTestClassProcessor, constructorArgs: [workerLease, workerProcessFactory, Mock(WorkerTestClassProcessorFactory), Mock(JavaForkOptions), [new File("classpath.jar")], Mock(Action), moduleRegistry, pool])
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+
+        when:
+        pooledProcessor.processTestClass(test1)
+        pooledProcessor.processTestClass(test2)
+
+        then:
+        1 * workerLease.startChild() >> completion
+        1 * pooledProcessor.reserveWorker() >> worker
+        1 * worker.processTestClass(test1)
+        1 * worker.processTestClass(test2)
+        0 * pooledProcessor.forkProcess()
+        0 * worker._
+
+        when:
+        pooledProcessor.stop()
+
+        then:
+        1 * worker.endSession()
+
+        then:
+        1 * pool.release(worker)
+        1 * completion.leaseFinish()
+        0 * pool._
+    }
+
+    def "discards pooled worker that fails to complete its session"() {
+        def pool = Mock(TestWorkerPool)
+        def worker = Mock(PooledTestWorker)
+        def completion = Mock(WorkerLeaseRegistry.WorkerLeaseCompletion)
+        def pooledProcessor = Spy(ForkingTestClassProcessor, constructorArgs: [workerLease, workerProcessFactory, Mock(WorkerTestClassProcessorFactory), Mock(JavaForkOptions), [new File("classpath.jar")], Mock(Action), moduleRegistry, pool])
+        def failure = new RuntimeException("broken")
+
+        given:
+        workerLease.startChild() >> completion
+        pooledProcessor.reserveWorker() >> worker
+        pooledProcessor.processTestClass(Mock(TestClassRunInfo))
+
+        when:
+        pooledProcessor.stop()
+
+        then:
+        def e = thrown(RuntimeException)
+        e == failure
+        1 * worker.endSession() >> { throw failure }
+        1 * pool.discard(worker)
+        0 * pool.release(_)
+        1 * completion.leaseFinish()
+    }
+
     def "starts process with a limited implementation classpath"() {
         setup:
         1 * workerProcessFactory.create(_) >> workerProcessBuilder
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.logging.LoggingManagerInternal
+import org.gradle.internal.logging.events.LogLevelChangeEvent
+import org.gradle.internal.logging.events.OutputEventListener
+import spock.lang.Specification
+
+class TestWorkerPoolTest extends Specification {
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> Mock(ManagedExecutor)
+    }
+    OutputEventListener logLevelListener
+    def loggingManager = Mock(LoggingManagerInternal) {
+        getLevel() >> LogLevel.LIFECYCLE
+        addOutputEventListener(_) >> { OutputEventListener listener -> logLevelListener = listener }
+    }
+    def forkOptions = Stub(TestWorkerForkOptions)
+    def otherForkOptions = Stub(TestWorkerForkOptions)
+
+    def "reuses released worker with compatible fork options"() {
+        def pool = new TestWorkerPool(executorFactory, loggingManager, 2)
+        def worker = worker(forkOptions)
+        pool.release(worker)
+
+        expect:
+        pool.reserveIdleWorker(otherForkOptions) == null
+        pool.reserveIdleWorker(forkOptions) == worker
+        pool.reserveIdleWorker(forkOptions) == null
+    }
+
+    def "does not reuse worker whose process has stopped"() {
+        def pool = new TestWorkerPool(executorFactory, loggingManager, 2)
+        def worker = worker(forkOptions)
+        pool.release(worker)
+
+        when:
+        def reserved = pool.reserveIdleWorker(forkOptions)
+
+        then:
+        _ * worker.isStopped() >> true
+        reserved == null
+        0 * worker.stop()
+    }
+
+    def "stops least recently used idle workers when there are too many"() {
+        def pool = new TestWorkerPool(executorFactory, loggingManager, 2)
+        def worker1 = worker(forkOptions)
+        def worker2 = worker(forkOptions)
+        def worker3 = worker(otherForkOptions)
+
+        when:
+        pool.release(worker1)
+        pool.release(worker2)
+
+        then:
+        0 * _.stop()
+
+        when:
+        pool.release(worker3)
+
+        then:
+        1 * worker1.stop()
+        0 * _.stop()
+
+        and:
+        pool.reserveIdleWorker(forkOptions) == worker2
+        pool.reserveIdleWorker(otherForkOptions) == worker3
+    }
+
+    def "stops idle worker with out-of-date log level"() {
+        def pool = new TestWorkerPool(executorFactory, loggingManager, 2)
+        def worker = worker(forkOptions)
+        pool.release(worker)
+
+        when:
+        logLevelListener.onOutput(new LogLevelChangeEvent(LogLevel.DEBUG))
+        def reserved = pool.reserveIdleWorker(forkOptions)
+
+        then:
+        reserved == null
+        1 * worker.stop()
+    }
+
+    def worker(TestWorkerForkOptions options) {
+        return Mock(PooledTestWorker) {
+            _ * isCompatibleWith(_) >> { TestWorkerForkOptions other -> other.is(options) }
+            _ * getLogLevel() >> LogLevel.LIFECYCLE
+        }
+    }
+}
@@ -18,7 +18,11 @@ package org.gradle.api.internal.tasks.testing.detection;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import org.gradle.api.GradleException;
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.objectweb.asm.ClassReader;
@@ -29,14 +33,17 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
+/**
+ * Detects test classes by reading their class files. Class files can be processed concurrently, once the test classes and classpath have been set.
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
     protected static final String TEST_CASE = "junit/framework/TestCase";
     protected static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
@@ -44,17 +51,19 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final ConcurrentMap<File, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
     private final List<String> knownTestCaseClassNames;
 
     private Set<File> testClassesDirectories;
     private Set<File> testClasspath;
+    private TestClassDetectionCache detectionCache;
+    private FileHasher fileHasher;
 
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new ConcurrentHashMap<File, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
@@ -89,7 +98,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
     }
 
-    private void prepareClasspath() {
+    private synchronized void prepareClasspath() {
         if (testClassDirectories != null) {
             return;
         }
@@ -120,7 +129,41 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
+    @Override
+    public void setDetectionCache(TestClassDetectionCache detectionCache, FileHasher fileHasher) {
+        this.detectionCache = detectionCache;
+        this.fileHasher = fileHasher;
+    }
+
     protected TestClassVisitor classVisitor(final File testClassFile) {
+        if (detectionCache == null) {
+            return readClassFile(testClassFile);
+        }
+
+        String detectorType = getClass().getName();
+        HashCode classFileHash = classFileHash(testClassFile);
+        TestClassDetectionCache.ClassSummary summary = detectionCache.get(detectorType, classFileHash);
+        if (summary != null) {
+            return new CachedClassVisitor(this, summary);
+        }
+        TestClassVisitor classVisitor = readClassFile(testClassFile);
+        detectionCache.put(detectorType, classFileHash, new TestClassDetectionCache.ClassSummary(classVisitor));
+        return classVisitor;
+    }
+
+    private HashCode classFileHash(File testClassFile) {
+        ClassFileExtractionManager.ExtractedClass extractedClass = classFileExtractionManager.getExtractedClass(testClassFile);
+        if (extractedClass == null) {
+            return fileHasher.hash(testClassFile);
+        }
+        // Class files extracted from library jars are new temporary files in every build, so are identified by their jar and class name instead
+        return Hashing.md5().newHasher()
+            .putBytes(fileHasher.hash(extractedClass.getSourceJar()).asBytes())
+            .putString(extractedClass.getClassName(), Charsets.UTF_8)
+            .hash();
+    }
+
+    private TestClassVisitor readClassFile(File testClassFile) {
         final TestClassVisitor classVisitor = createClassVisitor();
 
         InputStream classStream = null;
@@ -150,6 +193,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         Boolean isSuperTest = superClasses.get(testClassFile);
 
         if (isSuperTest == null) {
+            // Several threads may process the same super class at the same time, which gives the same result
             isTest = processTestClass(testClassFile, true);
 
             superClasses.put(testClassFile, isTest);
@@ -195,4 +239,33 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
         return isKnownTestCase;
     }
+
+    private static class CachedClassVisitor extends TestClassVisitor {
+        private final TestClassDetectionCache.ClassSummary summary;
+
+        CachedClassVisitor(TestFrameworkDetector detector, TestClassDetectionCache.ClassSummary summary) {
+            super(detector);
+            this.summary = summary;
+        }
+
+        @Override
+        public String getClassName() {
+            return summary.getClassName();
+        }
+
+        @Override
+        public boolean isTest() {
+            return summary.isTest();
+        }
+
+        @Override
+        public boolean isAbstract() {
+            return summary.isAbstract();
+        }
+
+        @Override
+        public String getSuperClassName() {
+            return summary.getSuperClassName();
+        }
+    }
 }
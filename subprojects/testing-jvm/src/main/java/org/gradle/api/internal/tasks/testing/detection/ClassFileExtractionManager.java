@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks.testing.detection;
 
 import org.apache.commons.lang.text.StrBuilder;
 import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.file.DefaultTemporaryFileProvider;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.Factory;
@@ -29,12 +30,13 @@ import java.io.IOException;
 import java.util.*;
 
 /**
- * This class manages class file extraction from library jar files.
+ * This class manages class file extraction from library jar files. It is safe to use from multiple threads.
  */
 public class ClassFileExtractionManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ClassFileExtractionManager.class);
     private final Map<String, Set<File>> packageJarFilesMappings;
     private final Map<String, File> extractedJarClasses;
+    private final Map<File, ExtractedClass> extractedClassFileSources;
     private final Set<String> unextractableClasses;
     private final TemporaryFileProvider tempDirProvider;
 
@@ -43,6 +45,7 @@ public class ClassFileExtractionManager {
         tempDirProvider = new DefaultTemporaryFileProvider(tempDirFactory);
         packageJarFilesMappings = new HashMap<String, Set<File>>();
         extractedJarClasses = new HashMap<String, File>();
+        extractedClassFileSources = new HashMap<File, ExtractedClass>();
         unextractableClasses = new TreeSet<String>();
     }
 
@@ -51,7 +54,7 @@ public class ClassFileExtractionManager {
      *
      * @param libraryJar Jar file to add to the index.
      */
-    public void addLibraryJar(final File libraryJar) {
+    public synchronized void addLibraryJar(final File libraryJar) {
         new JarFilePackageLister().listJarPackages(libraryJar, new JarFilePackageListener() {
             public void receivePackage(String packageName) {
                 Set<File> jarFiles = packageJarFilesMappings.get(packageName);
@@ -73,7 +76,7 @@ public class ClassFileExtractionManager {
      * @param className Name of the class to extract.
      * @return File that contains the extracted class file.
      */
-    public File getLibraryClassFile(final String className) {
+    public synchronized File getLibraryClassFile(final String className) {
         if (unextractableClasses.contains(className)) {
             return null;
         } else {
@@ -87,6 +90,14 @@ public class ClassFileExtractionManager {
         }
     }
 
+    /**
+     * Returns where the given class file was extracted from by this manager, or null when it was not extracted from a library jar.
+     */
+    @Nullable
+    public synchronized ExtractedClass getExtractedClass(File classFile) {
+        return extractedClassFileSources.get(classFile);
+    }
+
     private boolean extractClassFile(final String className) {
         boolean classFileExtracted = false;
 
@@ -118,6 +129,7 @@ public class ClassFileExtractionManager {
                 LOGGER.debug("extracted class {} from {}", className, classFileSourceJar.getName());
 
                 extractedJarClasses.put(className, extractedClassFile);
+                extractedClassFileSources.put(extractedClassFile, new ExtractedClass(classFileSourceJar, className));
             }
         } // super class not on the classpath - unable to scan parent class
 
@@ -137,4 +149,22 @@ public class ClassFileExtractionManager {
     private File tempFile() {
         return tempDirProvider.createTemporaryFile("jar_extract_", "_tmp"); // Could throw UncheckedIOException
     }
+
+    public static class ExtractedClass {
+        private final File sourceJar;
+        private final String className;
+
+        ExtractedClass(File sourceJar, String className) {
+            this.sourceJar = sourceJar;
+            this.className = className;
+        }
+
+        public File getSourceJar() {
+            return sourceJar;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+    }
 }
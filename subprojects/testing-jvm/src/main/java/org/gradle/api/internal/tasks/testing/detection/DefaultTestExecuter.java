@@ -17,21 +17,28 @@
 package org.gradle.api.internal.tasks.testing.detection;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.classpath.ModuleRegistry;
-import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.tasks.testing.InterruptibleTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassHistoryStore;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.PrioritizingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.time.TrueTimeProvider;
 import org.gradle.internal.work.WorkerLeaseRegistry;
@@ -52,14 +59,23 @@ public class DefaultTestExecuter implements TestExecuter {
     private final ModuleRegistry moduleRegistry;
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final TestWorkerPool testWorkerPool;
+    private final ExecutorFactory executorFactory;
+    private final TestClassDetectionCache detectionCache;
+    private final FileHasher fileHasher;
     private final int maxWorkerCount;
 
-    public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, int maxWorkerCount) {
+    public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, TestWorkerPool testWorkerPool,
+                               ExecutorFactory executorFactory, TestClassDetectionCache detectionCache, FileHasher fileHasher, int maxWorkerCount) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
+        this.testWorkerPool = testWorkerPool;
+        this.executorFactory = executorFactory;
+        this.detectionCache = detectionCache;
+        this.fileHasher = fileHasher;
         this.maxWorkerCount = maxWorkerCount;
     }
 
@@ -69,18 +85,35 @@ public class DefaultTestExecuter implements TestExecuter {
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
         final WorkerLeaseRegistry.WorkerLease currentWorkerLease = workerLeaseRegistry.getCurrentWorkerLease();
         final Set<File> classpath = ImmutableSet.copyOf(testTask.getClasspath());
-        final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
-            public TestClassProcessor create() {
+        // Workers are not reused when the test task asks for fresh workers or a worker waiting for a debugger
+        final TestWorkerPool workerPool = testWorkerPool.isEnabled() && testTask.getForkEvery() == 0 && !testTask.getDebug() ? testWorkerPool : null;
+        final Factory<InterruptibleTestClassProcessor> forkingProcessorFactory = new Factory<InterruptibleTestClassProcessor>() {
+            public InterruptibleTestClassProcessor create() {
                 return new ForkingTestClassProcessor(currentWorkerLease, workerFactory, testInstanceFactory, testTask,
-                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry);
+                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, workerPool);
             }
         };
-        final Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
-            public TestClassProcessor create() {
+        final Factory<InterruptibleTestClassProcessor> reforkingProcessorFactory = new Factory<InterruptibleTestClassProcessor>() {
+            public InterruptibleTestClassProcessor create() {
                 return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testTask.getForkEvery());
             }
         };
-        TestClassProcessor processor = new MaxNParallelTestClassProcessor(getMaxParallelForks(testTask), reforkingProcessorFactory, actorFactory);
+        final TestClassHistoryStore.TestClassHistory history = new TestClassHistoryStore(testTask.getTemporaryDir()).read();
+        InterruptibleTestClassProcessor processor;
+        if (testTask.isReorderTests()) {
+            // Dispatch the test classes in the order given, rather than balancing the forks by duration
+            processor = new MaxNParallelTestClassProcessor(getMaxParallelForks(testTask), reforkingProcessorFactory, actorFactory);
+            final TestClassFileHasher classFileHasher = new TestClassFileHasher(testTask.getTestClassesDirs(), fileHasher);
+            processor = new PrioritizingTestClassProcessor(processor, history.getFailedClasses(), new Spec<String>() {
+                @Override
+                public boolean isSatisfiedBy(String className) {
+                    HashCode previousHash = history.getClassFileHash(className);
+                    return previousHash == null || !previousHash.equals(classFileHasher.hash(className));
+                }
+            });
+        } else {
+            processor = new MaxNParallelTestClassProcessor(getMaxParallelForks(testTask), reforkingProcessorFactory, actorFactory, history.getDurations());
+        }
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -89,14 +122,15 @@ public class DefaultTestExecuter implements TestExecuter {
             TestFrameworkDetector testFrameworkDetector = testFramework.getDetector();
             testFrameworkDetector.setTestClasses(testTask.getTestClassesDirs().getFiles());
             testFrameworkDetector.setTestClasspath(classpath);
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            testFrameworkDetector.setDetectionCache(detectionCache, fileHasher);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, executorFactory, maxWorkerCount);
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
 
         final Object testTaskOperationId = buildOperationExecutor.getCurrentOperation().getParentId();
 
-        new TestMainAction(detector, processor, testResultProcessor, new TrueTimeProvider(), testTaskOperationId, testTask.getPath(), "Gradle Test Run " + testTask.getIdentityPath()).run();
+        new TestMainAction(detector, processor, testResultProcessor, new TrueTimeProvider(), testTaskOperationId, testTask.getPath(), "Gradle Test Run " + testTask.getIdentityPath(), testTask.getFailFast()).run();
     }
 
     private int getMaxParallelForks(Test testTask) {
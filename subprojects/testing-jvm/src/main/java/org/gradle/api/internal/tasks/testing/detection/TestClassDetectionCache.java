@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import org.gradle.api.Nullable;
+
+/**
+ * Keeps what the test framework detectors found out about class files, keyed by the content hash of the class file, so that unchanged classes
+ * do not need to be read again by later builds.
+ */
+public class TestClassDetectionCache {
+    private static final int MAX_SIZE = 200000;
+
+    private final Cache<Key, ClassSummary> summaries = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+
+    @Nullable
+    public ClassSummary get(String detectorType, HashCode classFileHash) {
+        return summaries.getIfPresent(new Key(detectorType, classFileHash));
+    }
+
+    public void put(String detectorType, HashCode classFileHash, ClassSummary summary) {
+        summaries.put(new Key(detectorType, classFileHash), summary);
+    }
+
+    /**
+     * The result of visiting a class file with a {@link TestClassVisitor}.
+     */
+    public static class ClassSummary {
+        private final String className;
+        private final String superClassName;
+        private final boolean test;
+        private final boolean isAbstract;
+
+        public ClassSummary(TestClassVisitor classVisitor) {
+            this.className = classVisitor.getClassName();
+            this.superClassName = classVisitor.getSuperClassName();
+            this.test = classVisitor.isTest();
+            this.isAbstract = classVisitor.isAbstract();
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getSuperClassName() {
+            return superClassName;
+        }
+
+        public boolean isTest() {
+            return test;
+        }
+
+        public boolean isAbstract() {
+            return isAbstract;
+        }
+    }
+
+    private static class Key {
+        private final String detectorType;
+        private final HashCode classFileHash;
+
+        Key(String detectorType, HashCode classFileHash) {
+            this.detectorType = detectorType;
+            this.classFileHash = classFileHash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return detectorType.equals(other.detectorType) && classFileHash.equals(other.classFileHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(detectorType, classFileHash);
+        }
+    }
+}
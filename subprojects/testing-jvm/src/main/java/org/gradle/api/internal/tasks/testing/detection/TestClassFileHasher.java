@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.hash.FileHasher;
+
+import java.io.File;
+
+/**
+ * Hashes the class file of a test class, as found in the test classes directories.
+ */
+public class TestClassFileHasher {
+    private final Iterable<File> testClassesDirs;
+    private final FileHasher fileHasher;
+
+    public TestClassFileHasher(Iterable<File> testClassesDirs, FileHasher fileHasher) {
+        this.testClassesDirs = testClassesDirs;
+        this.fileHasher = fileHasher;
+    }
+
+    /**
+     * Returns the hash of the class file of the given test class, or null when the class file is not in any of the test classes directories.
+     */
+    @Nullable
+    public HashCode hash(String className) {
+        String classFilePath = className.replace('.', '/') + ".class";
+        for (File testClassesDir : testClassesDirs) {
+            File classFile = new File(testClassesDir, classFilePath);
+            if (classFile.isFile()) {
+                return fileHasher.hash(classFile);
+            }
+        }
+        return null;
+    }
+}
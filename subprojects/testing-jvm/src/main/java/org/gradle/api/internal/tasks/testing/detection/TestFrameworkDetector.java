@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.testing.detection;
 
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 
 import java.io.File;
@@ -28,4 +29,9 @@ public interface TestFrameworkDetector {
     void setTestClasses(Set<File> testClasses);
 
     void setTestClasspath(Set<File> classpath);
+
+    /**
+     * Reuses what was found out about class files with the same content by earlier detections.
+     */
+    void setDetectionCache(TestClassDetectionCache detectionCache, FileHasher fileHasher);
 }
@@ -16,6 +16,7 @@
 package org.gradle.api.internal.tasks.testing.junit.report;
 
 import org.apache.commons.lang.StringUtils;
+import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
 
 import java.util.*;
 
@@ -52,6 +53,33 @@ public class AllTestResults extends CompositeTestResults {
         return addPackageForClass(className).addClass(classId, className);
     }
 
+    /**
+     * Adds a summary of the given class results to this model. The tests that failed or were ignored are retained, whereas tests that passed are only counted.
+     * This is all that is needed to render the overview and package pages, but not the class page.
+     */
+    public ClassTestResults addTestClassSummary(ClassTestResults classResults) {
+        ClassTestResults summary = addTestClass(classResults.getId(), classResults.getName());
+        int passedCount = 0;
+        long passedDuration = 0;
+        for (TestResult test : classResults.getTestResults()) {
+            if (!test.isIgnored() && test.getFailures().isEmpty()) {
+                passedCount++;
+                passedDuration += test.getDuration();
+                continue;
+            }
+            TestResult summaryTest = addTest(classResults.getId(), classResults.getName(), test.getName(), test.getDuration());
+            if (test.isIgnored()) {
+                summaryTest.setIgnored();
+            } else {
+                for (TestFailure failure : test.getFailures()) {
+                    summaryTest.addFailure(failure);
+                }
+            }
+        }
+        summary.addPassedTests(passedCount, passedDuration);
+        return summary;
+    }
+
     private PackageTestResults addPackageForClass(String className) {
         String packageName = StringUtils.substringBeforeLast(className, ".");
         if (packageName.equals(className)) {
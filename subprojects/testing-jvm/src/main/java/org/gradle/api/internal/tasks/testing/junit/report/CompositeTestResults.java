@@ -149,6 +149,17 @@ public abstract class CompositeTestResults extends TestResultModel {
         }
     }
 
+    /**
+     * Records tests that passed, without retaining their results.
+     */
+    protected void addPassedTests(int count, long duration) {
+        tests += count;
+        this.duration += duration;
+        if (parent != null) {
+            parent.addPassedTests(count, duration);
+        }
+    }
+
     protected TestResult addTest(TestResult test) {
         tests++;
         duration += test.getDuration();
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.testing.detection.TestClassFileHasher;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers how each test class did in the most recent execution of a test task: how long it took, whether it failed and the hash of its class file.
+ * Used to distribute the test classes evenly across test processes, and to run the test classes most likely to fail first.
+ */
+public class TestClassHistoryStore {
+    private static final Logger LOGGER = Logging.getLogger(TestClassHistoryStore.class);
+    private static final int VERSION = 2;
+
+    private final File historyFile;
+
+    public TestClassHistoryStore(File dir) {
+        this.historyFile = new File(dir, "class-history.bin");
+    }
+
+    /**
+     * Returns the recorded history. Returns an empty history when nothing has been recorded yet.
+     */
+    public TestClassHistory read() {
+        Map<String, ClassEntry> entries = new HashMap<String, ClassEntry>();
+        if (!historyFile.isFile()) {
+            return new TestClassHistory(entries);
+        }
+        try {
+            InputStream inputStream = new FileInputStream(historyFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != VERSION) {
+                    return new TestClassHistory(entries);
+                }
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    String className = decoder.readString();
+                    long duration = decoder.readSmallLong();
+                    boolean failed = decoder.readBoolean();
+                    HashCode classFileHash = decoder.readBoolean() ? HashCode.fromBytes(decoder.readBinary()) : null;
+                    entries.put(className, new ClassEntry(duration, failed, classFileHash));
+                }
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            // The history is only used to improve scheduling, so carry on without it
+            LOGGER.debug("Could not read test class history from " + historyFile, e);
+            entries.clear();
+        }
+        return new TestClassHistory(entries);
+    }
+
+    /**
+     * Records the results of the given test classes. The history of classes that did not execute this time, for example because of a filter, is retained.
+     */
+    public void write(Collection<TestClassResult> results, TestClassFileHasher classFileHasher) {
+        if (results.isEmpty()) {
+            return;
+        }
+        Map<String, ClassEntry> entries = read().entries;
+        for (TestClassResult result : results) {
+            entries.put(result.getClassName(), new ClassEntry(result.getDuration(), result.getFailuresCount() > 0, classFileHasher.hash(result.getClassName())));
+        }
+        historyFile.getParentFile().mkdirs();
+        try {
+            OutputStream outputStream = new FileOutputStream(historyFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(VERSION);
+                encoder.writeSmallInt(entries.size());
+                for (Map.Entry<String, ClassEntry> entry : entries.entrySet()) {
+                    ClassEntry classEntry = entry.getValue();
+                    encoder.writeString(entry.getKey());
+                    encoder.writeSmallLong(classEntry.duration);
+                    encoder.writeBoolean(classEntry.failed);
+                    encoder.writeBoolean(classEntry.classFileHash != null);
+                    if (classEntry.classFileHash != null) {
+                        encoder.writeBinary(classEntry.classFileHash.asBytes());
+                    }
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class TestClassHistory {
+        private final Map<String, ClassEntry> entries;
+
+        private TestClassHistory(Map<String, ClassEntry> entries) {
+            this.entries = entries;
+        }
+
+        /**
+         * Returns the most recently recorded duration, in milliseconds, of each test class.
+         */
+        public Map<String, Long> getDurations() {
+            Map<String, Long> durations = new HashMap<String, Long>(entries.size());
+            for (Map.Entry<String, ClassEntry> entry : entries.entrySet()) {
+                durations.put(entry.getKey(), entry.getValue().duration);
+            }
+            return durations;
+        }
+
+        /**
+         * Returns the test classes that failed the last time they were executed.
+         */
+        public Set<String> getFailedClasses() {
+            Set<String> failedClasses = new HashSet<String>();
+            for (Map.Entry<String, ClassEntry> entry : entries.entrySet()) {
+                if (entry.getValue().failed) {
+                    failedClasses.add(entry.getKey());
+                }
+            }
+            return Collections.unmodifiableSet(failedClasses);
+        }
+
+        /**
+         * Returns the hash of the class file of the given test class, the last time it was executed.
+         */
+        @Nullable
+        public HashCode getClassFileHash(String className) {
+            ClassEntry entry = entries.get(className);
+            return entry == null ? null : entry.classFileHash;
+        }
+    }
+
+    private static class ClassEntry {
+        private final long duration;
+        private final boolean failed;
+        private final HashCode classFileHash;
+
+        ClassEntry(long duration, boolean failed, @Nullable HashCode classFileHash) {
+            this.duration = duration;
+            this.failed = failed;
+            this.classFileHash = classFileHash;
+        }
+    }
+}
@@ -16,22 +16,38 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
-import com.esotericsoftware.kryo.io.Input;
-import com.esotericsoftware.kryo.io.Output;
-import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
-import org.gradle.internal.UncheckedException;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
-import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
-
-import java.io.*;
+import org.gradle.internal.os.OperatingSystem;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Stores the output of tests on disk.
+ *
+ * <p>The messages are appended to a data file as they arrive, and a fixed size record describing each message (class id, test id, destination, offset
+ * and length) is appended to an index file. Neither the writer nor the reader hold the output or the index in memory, so the heap used does not grow with
+ * the amount of output the tests produce. The reader keeps only the range of index records that belongs to each test class.</p>
+ */
 public class TestOutputStore {
+    // classId, testId, stdout, offset, length
+    private static final int RECORD_SIZE = 8 + 8 + 1 + 8 + 4;
+    private static final int RECORDS_PER_READ = 1024;
+    private static final int MESSAGE_CHUNK_SIZE = 64 * 1024;
 
     private final File resultsDir;
     private final Charset messageStorageCharset;
@@ -49,43 +65,31 @@ public class TestOutputStore {
         return new File(resultsDir, getOutputsFile().getName() + ".idx");
     }
 
-    private static class Region {
-        long start;
-        long stop;
-
-        private Region() {
-            start = -1;
-            stop = -1;
-        }
-
-        private Region(long start, long stop) {
-            this.start = start;
-            this.stop = stop;
-        }
-    }
-
-    private static class TestCaseRegion {
-        Region stdOutRegion = new Region();
-        Region stdErrRegion = new Region();
-    }
-
     public class Writer implements Closeable {
-        private final KryoBackedEncoder output;
-
-        private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
+        private final OutputStream output;
+        private final DataOutputStream indexOutput;
+        private long position;
 
         public Writer() {
             try {
-                output = new KryoBackedEncoder(new FileOutputStream(getOutputsFile()));
-            } catch (FileNotFoundException e) {
+                output = new BufferedOutputStream(new FileOutputStream(getOutputsFile()));
+                indexOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getIndexFile())));
+            } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
 
         @Override
         public void close() {
-            output.close();
-            writeIndex();
+            try {
+                try {
+                    output.close();
+                } finally {
+                    indexOutput.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
 
         public void onOutput(long classId, TestOutputEvent outputEvent) {
@@ -94,76 +98,18 @@ public class TestOutputStore {
 
         public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
             boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
-            mark(classId, testId, stdout);
-
-            output.writeBoolean(stdout);
-            output.writeSmallLong(classId);
-            output.writeSmallLong(testId);
-
-            byte[] bytes;
+            byte[] bytes = outputEvent.getMessage().getBytes(messageStorageCharset);
             try {
-                bytes = outputEvent.getMessage().getBytes(messageStorageCharset.name());
-            } catch (UnsupportedEncodingException e) {
-                throw UncheckedException.throwAsUncheckedException(e);
-            }
-            output.writeSmallInt(bytes.length);
-            output.writeBytes(bytes, 0, bytes.length);
-        }
-
-        private void mark(long classId, long testId, boolean isStdout) {
-            if (!index.containsKey(classId)) {
-                index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
-            }
-
-            Map<Long, TestCaseRegion> testCaseRegions = index.get(classId);
-            if (!testCaseRegions.containsKey(testId)) {
-                TestCaseRegion region = new TestCaseRegion();
-                testCaseRegions.put(testId, region);
-            }
-
-            TestCaseRegion region = testCaseRegions.get(testId);
-
-            Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
-
-            int total = output.getWritePosition();
-            if (streamRegion.start < 0) {
-                streamRegion.start = total;
-            }
-            streamRegion.stop = total;
-        }
-
-        private void writeIndex() {
-            Output indexOutput;
-            try {
-                indexOutput = new Output(new FileOutputStream(getIndexFile()));
-            } catch (FileNotFoundException e) {
+                output.write(bytes);
+                indexOutput.writeLong(classId);
+                indexOutput.writeLong(testId);
+                indexOutput.writeBoolean(stdout);
+                indexOutput.writeLong(position);
+                indexOutput.writeInt(bytes.length);
+            } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
-
-
-            try {
-                indexOutput.writeInt(index.size(), true);
-
-                for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
-                    Long classId = classEntry.getKey();
-                    Map<Long, TestCaseRegion> regions = classEntry.getValue();
-
-                    indexOutput.writeLong(classId, true);
-                    indexOutput.writeInt(regions.size(), true);
-
-                    for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
-                        long id = testCaseEntry.getKey();
-                        TestCaseRegion region = testCaseEntry.getValue();
-                        indexOutput.writeLong(id, true);
-                        indexOutput.writeLong(region.stdOutRegion.start);
-                        indexOutput.writeLong(region.stdOutRegion.stop);
-                        indexOutput.writeLong(region.stdErrRegion.start);
-                        indexOutput.writeLong(region.stdErrRegion.stop);
-                    }
-                }
-            } finally {
-                indexOutput.close();
-            }
+            position += bytes.length;
         }
     }
 
@@ -171,55 +117,23 @@ public class TestOutputStore {
         return new Writer();
     }
 
-    private static class Index {
-        final ImmutableMap<Long, Index> children;
-        final Region stdOut;
-        final Region stdErr;
-
-        private Index(Region stdOut, Region stdErr) {
-            this.children = ImmutableMap.of();
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
-        }
+    private static class ClassRecords {
+        final long first;
+        long last;
+        boolean hasStdOut;
+        boolean hasStdErr;
 
-        private Index(ImmutableMap<Long, Index> children, Region stdOut, Region stdErr) {
-            this.children = children;
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
-        }
-    }
-
-    private static class IndexBuilder {
-        final Region stdOut = new Region();
-        final Region stdErr = new Region();
-
-        private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
-
-        void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
-            }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
-            }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
-            }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
-            }
-
-            children.put(key, index);
-        }
-
-        Index build() {
-            return new Index(children.build(), stdOut, stdErr);
+        ClassRecords(long first) {
+            this.first = first;
         }
     }
 
     public class Reader implements Closeable {
-        private final Index index;
-        private final RandomAccessFile dataFile;
+        private final Map<Long, ClassRecords> classes = new HashMap<Long, ClassRecords>();
+        private final FileContent indexFile;
+        private final FileContent dataFile;
+        private final byte[] recordBuffer = new byte[RECORDS_PER_READ * RECORD_SIZE];
+        private final byte[] messageBuffer = new byte[MESSAGE_CHUNK_SIZE];
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -230,41 +144,16 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
                 try {
-                    input = new Input(new FileInputStream(indexFile));
-                } catch (FileNotFoundException e) {
-                    throw new UncheckedIOException(e);
-                }
-
-                IndexBuilder rootBuilder = null;
-                try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
-
-                        rootBuilder.add(classId, classBuilder.build());
+                    this.indexFile = new FileContent(indexFile);
+                    try {
+                        this.dataFile = new FileContent(outputsFile);
+                        readClasses();
+                    } catch (IOException e) {
+                        this.indexFile.close();
+                        throw e;
                     }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
-
-                try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
-                } catch (FileNotFoundException e) {
+                } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
             } else { // no outputs file
@@ -272,30 +161,60 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
                 }
 
-                index = null;
-                dataFile = null;
+                this.indexFile = null;
+                this.dataFile = null;
             }
         }
 
+        private void readClasses() throws IOException {
+            long recordCount = indexFile.getLength() / RECORD_SIZE;
+            for (long record = 0; record < recordCount; record += RECORDS_PER_READ) {
+                ByteBuffer records = readRecords(record, recordCount - 1);
+                for (long current = record; records.hasRemaining(); current++) {
+                    long classId = records.getLong();
+                    records.getLong();
+                    boolean stdout = records.get() != 0;
+                    records.getLong();
+                    records.getInt();
+
+                    ClassRecords classRecords = classes.get(classId);
+                    if (classRecords == null) {
+                        classRecords = new ClassRecords(current);
+                        classes.put(classId, classRecords);
+                    }
+                    classRecords.last = current;
+                    if (stdout) {
+                        classRecords.hasStdOut = true;
+                    } else {
+                        classRecords.hasStdErr = true;
+                    }
+                }
+            }
+        }
+
+        private ByteBuffer readRecords(long first, long last) throws IOException {
+            int count = (int) Math.min(RECORDS_PER_READ, last - first + 1);
+            indexFile.read(first * RECORD_SIZE, recordBuffer, count * RECORD_SIZE);
+            return ByteBuffer.wrap(recordBuffer, 0, count * RECORD_SIZE);
+        }
+
         @Override
         public void close() throws IOException {
             if (dataFile != null) {
-                dataFile.close();
+                try {
+                    dataFile.close();
+                } finally {
+                    indexFile.close();
+                }
             }
         }
 
         public boolean hasOutput(long classId, TestOutputEvent.Destination destination) {
-            if (dataFile == null) {
+            ClassRecords classRecords = classes.get(classId);
+            if (classRecords == null) {
                 return false;
             }
-
-            Index classIndex = index.children.get(classId);
-            if (classIndex == null) {
-                return false;
-            } else {
-                Region region = destination == TestOutputEvent.Destination.StdOut ? classIndex.stdOut : classIndex.stdErr;
-                return region.start >= 0;
-            }
+            return destination == TestOutputEvent.Destination.StdOut ? classRecords.hasStdOut : classRecords.hasStdErr;
         }
 
         public void writeAllOutput(long classId, TestOutputEvent.Destination destination, java.io.Writer writer) {
@@ -311,74 +230,55 @@ public class TestOutputStore {
         }
 
         private void doRead(long classId, long testId, boolean allClassOutput, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            if (dataFile == null) {
-                return;
-            }
-
-            Index targetIndex = index.children.get(classId);
-            if (targetIndex != null && testId != 0) {
-                targetIndex = targetIndex.children.get(testId);
-            }
-
-            if (targetIndex == null) {
+            if (!hasOutput(classId, destination)) {
                 return;
             }
 
+            ClassRecords classRecords = classes.get(classId);
             boolean stdout = destination == TestOutputEvent.Destination.StdOut;
-            Region region = stdout ? targetIndex.stdOut : targetIndex.stdErr;
-
-            if (region.start < 0) {
-                return;
-            }
-
-            boolean ignoreClassLevel = !allClassOutput && testId != 0;
-            boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
-
-                    boolean isClassLevel = readTestId == 0;
-
-                    if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
+                for (long record = classRecords.first; record <= classRecords.last; record += RECORDS_PER_READ) {
+                    ByteBuffer records = readRecords(record, classRecords.last);
+                    while (records.hasRemaining()) {
+                        long readClassId = records.getLong();
+                        long readTestId = records.getLong();
+                        boolean readStdout = records.get() != 0;
+                        long offset = records.getLong();
+                        int length = records.getInt();
+
+                        if (stdout != readStdout || classId != readClassId) {
+                            continue;
+                        }
+                        if (allClassOutput || testId == readTestId) {
+                            writeMessage(offset, length, writer);
+                        }
                     }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-                    if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
+        private void writeMessage(long offset, int length, java.io.Writer writer) throws IOException {
+            long pos = offset;
+            long end = offset + length;
+            while (pos < end) {
+                int count = (int) Math.min(messageBuffer.length, end - pos);
+                dataFile.read(pos, messageBuffer, count);
+                int chunkLength = count;
+                if (pos + count < end && (messageBuffer[count - 1] & 0x80) != 0) {
+                    // Don't split a multi-byte character across chunks
+                    int start = count - 1;
+                    while (start > 0 && (messageBuffer[start] & 0xC0) == 0x80) {
+                        start--;
                     }
-
-                    if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
-
-                        writer.write(message);
-                    } else {
-                        decoder.skipBytes(readLength);
+                    if (start > 0) {
+                        chunkLength = start;
                     }
                 }
-            } catch (IOException e1) {
-                throw new UncheckedIOException(e1);
+                writer.write(new String(messageBuffer, 0, chunkLength, messageStorageCharset));
+                pos += chunkLength;
             }
         }
     }
@@ -387,4 +287,54 @@ public class TestOutputStore {
     public Reader reader() {
         return new Reader();
     }
+
+    /**
+     * Random access to the content of a file. Uses memory mapped windows into the file, except on Windows where a mapped file cannot be deleted until the
+     * mapping has been garbage collected.
+     */
+    private static class FileContent implements Closeable {
+        private static final boolean USE_MAPPING = !OperatingSystem.current().isWindows();
+        private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final long length;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        FileContent(File file) throws IOException {
+            this.file = new RandomAccessFile(file, "r");
+            this.channel = this.file.getChannel();
+            this.length = channel.size();
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        void read(long offset, byte[] dest, int count) throws IOException {
+            if (offset + count > length) {
+                throw new EOFException(String.format("Unexpected end of file reading %d bytes at offset %d.", count, offset));
+            }
+            if (USE_MAPPING) {
+                if (window == null || offset < windowStart || offset + count > windowStart + window.capacity()) {
+                    windowStart = offset;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, length - offset));
+                }
+                window.position((int) (offset - windowStart));
+                window.get(dest, 0, count);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap(dest, 0, count);
+                while (buffer.hasRemaining()) {
+                    channel.read(buffer, offset + buffer.position());
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            file.close();
+        }
+    }
 }
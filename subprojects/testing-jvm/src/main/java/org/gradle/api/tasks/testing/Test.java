@@ -29,6 +29,7 @@ import org.gradle.api.internal.ClosureBackedAction;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
@@ -36,6 +37,8 @@ import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache;
+import org.gradle.api.internal.tasks.testing.detection.TestClassFileHasher;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
@@ -43,6 +46,7 @@ import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
 import org.gradle.api.internal.tasks.testing.junit.result.Binary2JUnitXmlReportGenerator;
 import org.gradle.api.internal.tasks.testing.junit.result.InMemoryTestResultsProvider;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassHistoryStore;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputAssociation;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
@@ -60,6 +64,7 @@ import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProc
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
 import org.gradle.api.internal.tasks.testing.results.TestListenerInternal;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.reporting.DirectoryReport;
 import org.gradle.api.reporting.Reporting;
@@ -81,6 +86,7 @@ import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.internal.Actions;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerBroadcast;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.jvm.UnsupportedJavaRuntimeException;
@@ -175,6 +181,8 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private FileCollection classpath;
     private TestFramework testFramework;
     private boolean scanForTestClasses = true;
+    private boolean failFast;
+    private boolean reorderTests;
     private long forkEvery;
     private int maxParallelForks = 1;
     private TestReporter testReporter;
@@ -658,6 +666,10 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
             testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(),
                 getServices().get(WorkerLeaseRegistry.class),
                 getServices().get(BuildOperationExecutor.class),
+                getServices().get(TestWorkerPool.class),
+                getServices().get(ExecutorFactory.class),
+                getServices().get(TestClassDetectionCache.class),
+                getServices().get(FileHasher.class),
                 getServices().get(StartParameter.class).getMaxWorkerCount());
         }
 
@@ -679,6 +691,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        new TestClassHistoryStore(getTemporaryDir()).write(results.values(), new TestClassFileHasher(getTestClassesDirs(), getServices().get(FileHasher.class)));
 
         TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore);
 
@@ -1207,6 +1220,55 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.scanForTestClasses = scanForTestClasses;
     }
 
+    /**
+     * Indicates whether test execution stops after the first failed test. Tests that are running when the failure happens are reported as skipped.
+     * The default value is {@code false}.
+     *
+     * @since 4.2
+     */
+    @Input
+    @Incubating
+    public boolean getFailFast() {
+        return failFast;
+    }
+
+    /**
+     * Enables fail fast behavior, causing test execution to stop after the first failed test.
+     *
+     * @since 4.2
+     */
+    @Option(option = "fail-fast", description = "Stops test execution after the first failed test.")
+    @Incubating
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    /**
+     * Indicates whether test classes are reordered so that those most likely to fail are executed first. When {@code true}, the test classes that failed
+     * in the previous execution of this task are executed first, followed by the test classes whose class file has changed since then, followed by the
+     * remaining test classes. The default value is {@code false}.
+     *
+     * <p>Reordering gives the quickest feedback, in particular in combination with {@link #setFailFast(boolean)}, but replaces the default distribution
+     * of test classes across test processes, which is based on how long each test class previously took.</p>
+     *
+     * @since 4.2
+     */
+    @Internal
+    @Incubating
+    public boolean isReorderTests() {
+        return reorderTests;
+    }
+
+    /**
+     * Sets whether test classes are reordered so that those most likely to fail are executed first.
+     *
+     * @since 4.2
+     */
+    @Incubating
+    public void setReorderTests(boolean reorderTests) {
+        this.reorderTests = reorderTests;
+    }
+
     /**
      * Returns the maximum number of test classes to execute in a forked test process. The forked test process will be restarted when this limit is reached. The default value is 0 (no maximum).
      *
@@ -16,6 +16,10 @@
 
 package org.gradle.jvm.test.internal.services;
 
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.jvm.test.internal.JUnitTestSuiteBinaryRenderer;
@@ -25,4 +29,20 @@ public class JvmTestingServices extends AbstractPluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.add(JUnitTestSuiteBinaryRenderer.class);
     }
+
+    @Override
+    public void registerGradleUserHomeServices(ServiceRegistration registration) {
+        registration.addProvider(new GradleUserHomeServices());
+    }
+
+    private static class GradleUserHomeServices {
+        TestWorkerPool createTestWorkerPool(ExecutorFactory executorFactory, LoggingManagerInternal loggingManager) {
+            int maxIdleWorkers = Integer.getInteger(TestWorkerPool.MAX_IDLE_WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors());
+            return new TestWorkerPool(executorFactory, loggingManager, maxIdleWorkers);
+        }
+
+        TestClassDetectionCache createTestClassDetectionCache() {
+            return new TestClassDetectionCache();
+        }
+    }
 }
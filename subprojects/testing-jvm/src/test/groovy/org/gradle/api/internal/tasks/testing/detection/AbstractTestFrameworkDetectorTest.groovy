@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection
+
+import com.google.common.base.Charsets
+import com.google.common.hash.HashCode
+import com.google.common.hash.Hashing
+import org.gradle.api.internal.hash.FileHasher
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.junit.JUnitDetector
+import org.gradle.internal.Factory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class AbstractTestFrameworkDetectorTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def fileHasher = Mock(FileHasher)
+    def processor = Mock(TestClassProcessor)
+    def detectionCache = new TestClassDetectionCache()
+    def detector = new JUnitDetector(new ClassFileExtractionManager({ tmpDir.createDir("tmp") } as Factory<File>))
+
+    def setup() {
+        detector.setTestClasses([tmpDir.file("classes")] as Set)
+        detector.setTestClasspath([] as Set)
+        detector.setDetectionCache(detectionCache, fileHasher)
+        detector.startDetection(processor)
+    }
+
+    def "uses cached summary of a class file with the same content instead of reading the class file"() {
+        def classFile = tmpDir.file("classes/org/gradle/SomeTest.class")
+        def hash = HashCode.fromInt(123)
+        detectionCache.put(JUnitDetector.name, hash, new TestClassDetectionCache.ClassSummary(Stub(TestClassVisitor) {
+            getClassName() >> "org/gradle/SomeTest"
+            getSuperClassName() >> "java/lang/Object"
+            isTest() >> true
+            isAbstract() >> false
+        }))
+
+        when:
+        def isTest = detector.processTestClass(classFile)
+
+        then:
+        isTest
+        1 * fileHasher.hash(classFile) >> hash
+        1 * processor.processTestClass({ TestClassRunInfo info -> info.testClassName == "org.gradle.SomeTest" })
+    }
+
+    def "does not publish cached abstract test class"() {
+        def classFile = tmpDir.file("classes/org/gradle/AbstractTest.class")
+        def hash = HashCode.fromInt(456)
+        detectionCache.put(JUnitDetector.name, hash, new TestClassDetectionCache.ClassSummary(Stub(TestClassVisitor) {
+            getClassName() >> "org/gradle/AbstractTest"
+            getSuperClassName() >> "java/lang/Object"
+            isTest() >> true
+            isAbstract() >> true
+        }))
+
+        when:
+        def isTest = detector.processTestClass(classFile)
+
+        then:
+        isTest
+        1 * fileHasher.hash(classFile) >> hash
+        0 * processor._
+    }
+
+    def "uses cached summary of a super class extracted from a library jar with the same content"() {
+        def classFile = tmpDir.file("classes/org/gradle/SomeTest.class")
+        def classHash = HashCode.fromInt(123)
+        def jar = tmpDir.file("lib.jar")
+        new ZipOutputStream(new FileOutputStream(jar)).withStream { zip ->
+            zip.putNextEntry(new ZipEntry("org/lib/BaseTest.class"))
+            zip.write("not a class file".bytes)
+        }
+        def jarHash = HashCode.fromInt(789)
+        def superClassHash = Hashing.md5().newHasher().putBytes(jarHash.asBytes()).putString("org/lib/BaseTest", Charsets.UTF_8).hash()
+        detectionCache.put(JUnitDetector.name, classHash, new TestClassDetectionCache.ClassSummary(Stub(TestClassVisitor) {
+            getClassName() >> "org/gradle/SomeTest"
+            getSuperClassName() >> "org/lib/BaseTest"
+            isTest() >> false
+            isAbstract() >> false
+        }))
+        detectionCache.put(JUnitDetector.name, superClassHash, new TestClassDetectionCache.ClassSummary(Stub(TestClassVisitor) {
+            getClassName() >> "org/lib/BaseTest"
+            getSuperClassName() >> "java/lang/Object"
+            isTest() >> true
+            isAbstract() >> true
+        }))
+        detector.setTestClasspath([jar] as Set)
+
+        when:
+        def isTest = detector.processTestClass(classFile)
+
+        then:
+        isTest
+        1 * fileHasher.hash(classFile) >> classHash
+        1 * fileHasher.hash(jar) >> jarHash
+        1 * processor.processTestClass({ TestClassRunInfo info -> info.testClassName == "org.gradle.SomeTest" })
+    }
+}
@@ -20,7 +20,9 @@ package org.gradle.api.internal.tasks.testing.detection
 import org.gradle.api.file.FileTree
 import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.file.FileVisitor
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.junit.Test
 import spock.lang.Specification
 
@@ -52,4 +54,34 @@ public class DefaultTestClassScannerTest extends Specification {
 
         0 * _._
     }
+
+    def "passes each class file to test class detector from multiple threads"() {
+        def executorFactory = new DefaultExecutorFactory()
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory, 4)
+        def testClass = new DefaultTestClassRunInfo("SomeTest")
+        TestClassProcessor detectorProcessor = null
+
+        when:
+        scanner.run()
+
+        then:
+        1 * detector.startDetection(_) >> { TestClassProcessor p -> detectorProcessor = p }
+        1 * files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            visitor.visitFile({new File('class1.class')} as FileVisitDetails)
+            visitor.visitFile({new File('class2.class')} as FileVisitDetails)
+            visitor.visitFile({new File('class3.class')} as FileVisitDetails)
+        }
+        1 * detector.processTestClass(new File("class1.class"))
+        1 * detector.processTestClass(new File("class2.class")) >> {
+            detectorProcessor.processTestClass(testClass)
+            true
+        }
+        1 * detector.processTestClass(new File("class3.class"))
+        1 * processor.processTestClass(testClass)
+        0 * _._
+
+        cleanup:
+        executorFactory.stop()
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.testing.junit.report
 
+import org.gradle.api.internal.tasks.testing.junit.result.TestFailure
 import spock.lang.Specification
 
 class AllTestResultsTest extends Specification {
@@ -41,4 +42,30 @@ class AllTestResultsTest extends Specification {
         test.classResults.packageResults.name == 'default-package'
         results.packages.contains(test.classResults.packageResults)
     }
+
+    def addsSummaryOfTestClass() {
+        given:
+        def classModel = new AllTestResults()
+        classModel.addTest(1, 'org.gradle.Test', 'passed1', 10)
+        classModel.addTest(1, 'org.gradle.Test', 'passed2', 20)
+        classModel.addTest(1, 'org.gradle.Test', 'failed', 30).addFailure(new TestFailure("message", "stack", "RuntimeException"))
+        classModel.addTest(1, 'org.gradle.Test', 'ignored', 0).setIgnored()
+        def classResults = classModel.packages.first().classes.first()
+
+        when:
+        def summary = results.addTestClassSummary(classResults)
+
+        then:
+        summary.name == 'org.gradle.Test'
+        summary.testCount == 4
+        summary.failureCount == 1
+        summary.ignoredCount == 1
+        summary.duration == 60
+        summary.testResults*.name == ['failed', 'ignored']
+        results.testCount == 4
+        results.duration == 60
+        results.failures*.name == ['failed']
+        results.ignored*.name == ['ignored']
+        results.packages.first().testCount == 4
+    }
 }
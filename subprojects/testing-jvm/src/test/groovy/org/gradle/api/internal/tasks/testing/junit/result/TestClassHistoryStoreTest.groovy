@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result
+
+import com.google.common.hash.HashCode
+import org.gradle.api.internal.tasks.testing.detection.TestClassFileHasher
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestClassHistoryStoreTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+    def hasher = Stub(TestClassFileHasher)
+
+    def "reads nothing when no history has been recorded"() {
+        expect:
+        def history = new TestClassHistoryStore(tmp.testDirectory).read()
+        history.durations.isEmpty()
+        history.failedClasses.isEmpty()
+        history.getClassFileHash('Class1') == null
+    }
+
+    def "records class durations and retains durations of classes that did not run"() {
+        def store = new TestClassHistoryStore(tmp.testDirectory)
+
+        when:
+        store.write([classResult('Class1', 1000, 1500), classResult('Class2', 1000, 3000)], hasher)
+
+        then:
+        new TestClassHistoryStore(tmp.testDirectory).read().durations == [Class1: 500L, Class2: 2000L]
+
+        when:
+        store.write([classResult('Class1', 1000, 1200)], hasher)
+
+        then:
+        new TestClassHistoryStore(tmp.testDirectory).read().durations == [Class1: 200L, Class2: 2000L]
+    }
+
+    def "records failed classes"() {
+        def store = new TestClassHistoryStore(tmp.testDirectory)
+
+        when:
+        store.write([classResult('Class1', 1000, 1500, TestResult.ResultType.FAILURE), classResult('Class2', 1000, 3000)], hasher)
+
+        then:
+        new TestClassHistoryStore(tmp.testDirectory).read().failedClasses == ['Class1'] as Set
+
+        when:
+        store.write([classResult('Class1', 1000, 1500), classResult('Class2', 1000, 3000, TestResult.ResultType.FAILURE)], hasher)
+
+        then:
+        new TestClassHistoryStore(tmp.testDirectory).read().failedClasses == ['Class2'] as Set
+    }
+
+    def "records class file hashes"() {
+        def hash = HashCode.fromInt(123)
+        hasher.hash('Class1') >> hash
+        hasher.hash('Class2') >> null
+
+        when:
+        new TestClassHistoryStore(tmp.testDirectory).write([classResult('Class1', 1000, 1500), classResult('Class2', 1000, 3000)], hasher)
+
+        then:
+        def history = new TestClassHistoryStore(tmp.testDirectory).read()
+        history.getClassFileHash('Class1') == hash
+        history.getClassFileHash('Class2') == null
+        history.getClassFileHash('Class3') == null
+    }
+
+    def "ignores unreadable history"() {
+        tmp.file("class-history.bin").text = "broken"
+
+        expect:
+        def history = new TestClassHistoryStore(tmp.testDirectory).read()
+        history.durations.isEmpty()
+        history.failedClasses.isEmpty()
+    }
+
+    def classResult(String className, long startTime, long endTime, TestResult.ResultType resultType = TestResult.ResultType.SUCCESS) {
+        def result = new TestClassResult(1, className, startTime)
+        result.add(new TestMethodResult(1, "method", resultType, endTime - startTime, endTime))
+        result
+    }
+}
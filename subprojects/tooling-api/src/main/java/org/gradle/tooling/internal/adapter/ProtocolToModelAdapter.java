@@ -16,6 +16,9 @@
 package org.gradle.tooling.internal.adapter;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.gradle.api.Nullable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.DirectInstantiator;
@@ -32,6 +35,7 @@ import org.gradle.tooling.model.internal.ImmutableDomainObjectSet;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.ref.SoftReference;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -61,6 +65,7 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         }
     };
     private static final ReflectionMethodInvoker REFLECTION_METHOD_INVOKER = new ReflectionMethodInvoker();
+    private static final ProxyConstructorCache PROXY_CONSTRUCTOR_CACHE = new ProxyConstructorCache();
     private static final TypeInspector TYPE_INSPECTOR = new TypeInspector();
     private static final CollectionMapper COLLECTION_MAPPER = new CollectionMapper();
     private static final Object[] EMPTY = new Object[0];
@@ -154,7 +159,7 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
 
         // Create a proxy
         InvocationHandlerImpl handler = new InvocationHandlerImpl(targetType, sourceObject, decorationsForThisType, graphDetails);
-        Object proxy = Proxy.newProxyInstance(viewType.getClassLoader(), new Class<?>[]{viewType}, handler);
+        Object proxy = PROXY_CONSTRUCTOR_CACHE.newProxy(viewType, handler);
         handler.attachProxy(proxy);
 
         return viewType.cast(proxy);
@@ -367,6 +372,31 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         }
     }
 
+    /**
+     * Caches the constructor of the proxy class generated for each view type. Looking up the proxy class and its constructor for each view is
+     * expensive when adapting large models, as it is done for every object of the model.
+     * The constructors are softly referenced so that the view types and their ClassLoader can be collected.
+     */
+    private static class ProxyConstructorCache {
+        private final LoadingCache<Class<?>, Constructor<?>> constructors = CacheBuilder.newBuilder().weakKeys().softValues().build(new CacheLoader<Class<?>, Constructor<?>>() {
+            @Override
+            public Constructor<?> load(Class<?> viewType) throws Exception {
+                Class<?> proxyClass = Proxy.getProxyClass(viewType.getClassLoader(), viewType);
+                return proxyClass.getConstructor(InvocationHandler.class);
+            }
+        });
+
+        Object newProxy(Class<?> viewType, InvocationHandler handler) {
+            try {
+                return constructors.getUnchecked(viewType).newInstance(handler);
+            } catch (InvocationTargetException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
     private static class ChainedMethodInvoker implements MethodInvoker {
         private final MethodInvoker[] invokers;
 
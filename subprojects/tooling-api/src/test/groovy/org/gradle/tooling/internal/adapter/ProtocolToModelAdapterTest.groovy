@@ -41,6 +41,18 @@ class ProtocolToModelAdapterTest extends Specification {
         adapter.adapt(TestModel.class, protocolModel) instanceof TestModel
     }
 
+    def reusesProxyClassForViewsOfTheSameType() {
+        TestProtocolModel protocolModel1 = Mock()
+        TestProtocolModel protocolModel2 = Mock()
+
+        expect:
+        def model1 = adapter.adapt(TestModel.class, protocolModel1)
+        def model2 = new ProtocolToModelAdapter().adapt(TestModel.class, protocolModel2)
+        model1.class.is(model2.class)
+        adapter.unpack(model1).is(protocolModel1)
+        adapter.unpack(model2).is(protocolModel2)
+    }
+
     def proxiesAreEqualWhenTargetProtocolObjectsAreEqual() {
         TestProtocolModel protocolModel1 = Mock()
         TestProtocolModel protocolModel2 = Mock()
@@ -23,11 +23,15 @@ import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
 import org.gradle.process.internal.health.memory.JvmMemoryStatus;
 import org.gradle.process.internal.worker.WorkerProcess;
 
+import java.util.HashSet;
+import java.util.Set;
+
 class WorkerDaemonClient<T extends WorkSpec> implements Worker<T>, Stoppable {
     private final DaemonForkOptions forkOptions;
     private final WorkerDaemonProcess<T> workerDaemonProcess;
     private final WorkerProcess workerProcess;
     private final LogLevel logLevel;
+    private final Set<String> executedImplementations = new HashSet<String>();
     private int uses;
 
     public WorkerDaemonClient(DaemonForkOptions forkOptions, WorkerDaemonProcess<T> workerDaemonProcess, WorkerProcess workerProcess, LogLevel logLevel) {
@@ -45,9 +49,27 @@ class WorkerDaemonClient<T extends WorkSpec> implements Worker<T>, Stoppable {
     @Override
     public DefaultWorkResult execute(T spec) {
         uses++;
+        executedImplementations.add(implementationOf(spec));
         return workerDaemonProcess.execute(spec);
     }
 
+    /**
+     * Returns the name of the class that does the work described by the given spec.
+     */
+    static String implementationOf(WorkSpec spec) {
+        if (spec instanceof ActionExecutionSpec) {
+            return ((ActionExecutionSpec) spec).getImplementationClass().getName();
+        }
+        return spec.getClass().getName();
+    }
+
+    /**
+     * Returns true when this daemon has executed work of the given implementation before.
+     */
+    public boolean hasExecuted(String implementation) {
+        return executedImplementations.contains(implementation);
+    }
+
     public boolean isCompatibleWith(DaemonForkOptions required) {
         return forkOptions.isCompatibleWith(required);
     }
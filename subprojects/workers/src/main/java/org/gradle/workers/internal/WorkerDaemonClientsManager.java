@@ -16,6 +16,7 @@
 
 package org.gradle.workers.internal;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
@@ -29,32 +30,53 @@ import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.events.LogLevelChangeEvent;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.time.TimeProvider;
 import org.gradle.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 
+/**
+ * Keeps track of the worker daemons and the pool of idle ones.
+ *
+ * <p>An idle daemon that has already executed the same implementation as the work to run is preferred, as its classes are loaded and its JIT is warm.
+ * Otherwise the most recently used compatible daemon is reserved. At most {@code maxIdleClientsPerForkOptions} compatible daemons are kept idle,
+ * and daemons that have been idle for longer than {@code maxIdleTimeMillis} are stopped.</p>
+ */
 public class WorkerDaemonClientsManager implements Stoppable {
+    public static final String MAX_IDLE_DAEMONS_PROPERTY = "org.gradle.workers.internal.max-idle-daemons-per-options";
+    public static final String MAX_IDLE_TIME_PROPERTY = "org.gradle.workers.internal.max-daemon-idle-time";
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
+    // Ordered from least to most recently used
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    private final Map<WorkerDaemonClient, Long> idleSince = new HashMap<WorkerDaemonClient, Long>();
 
     private final WorkerDaemonStarter workerDaemonStarter;
     private final ListenerManager listenerManager;
     private final LoggingManagerInternal loggingManager;
+    private final TimeProvider timeProvider;
+    private final int maxIdleClientsPerForkOptions;
+    private final long maxIdleTimeMillis;
     private final SessionLifecycleListener stopSessionScopeWorkers;
     private final OutputEventListener logLevelChangeEventListener;
     private LogLevel currentLogLevel;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, TimeProvider timeProvider,
+                                      int maxIdleClientsPerForkOptions, long maxIdleTimeMillis) {
         this.workerDaemonStarter = workerDaemonStarter;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
+        this.timeProvider = timeProvider;
+        this.maxIdleClientsPerForkOptions = maxIdleClientsPerForkOptions;
+        this.maxIdleTimeMillis = maxIdleTimeMillis;
         this.stopSessionScopeWorkers = new StopSessionScopedWorkers();
         listenerManager.addListener(stopSessionScopeWorkers);
         this.logLevelChangeEventListener = new LogLevelChangeEventListener();
@@ -64,26 +86,47 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     // TODO - should supply and check for the same parameters as passed to reserveNewClient()
     public <T extends WorkSpec> WorkerDaemonClient<T> reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+        return reserveIdleClient(forkOptions, null, idleClients);
+    }
+
+    /**
+     * Reserves an idle client, preferring one that has already executed the given implementation.
+     */
+    public <T extends WorkSpec> WorkerDaemonClient<T> reserveIdleClient(DaemonForkOptions forkOptions, @Nullable String implementation) {
+        return reserveIdleClient(forkOptions, implementation, idleClients);
     }
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
+        return reserveIdleClient(forkOptions, null, clients);
+    }
+
+    private WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, @Nullable String implementation, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
-            Iterator<WorkerDaemonClient> it = clients.iterator();
-            while (it.hasNext()) {
-                WorkerDaemonClient candidate = it.next();
+            stopExpiredClients();
+            WorkerDaemonClient compatible = null;
+            ListIterator<WorkerDaemonClient> it = clients.listIterator(clients.size());
+            while (it.hasPrevious()) {
+                WorkerDaemonClient candidate = it.previous();
                 if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
                     if (candidate.getLogLevel() != currentLogLevel) {
                         // TODO: Send a message to workers to change their log level rather than stopping
                         LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
+                        it.remove();
+                        idleSince.remove(candidate);
                         candidate.stop();
-                    } else {
-                        return candidate;
+                    } else if (implementation != null && candidate.hasExecuted(implementation)) {
+                        compatible = candidate;
+                        break;
+                    } else if (compatible == null) {
+                        compatible = candidate;
                     }
                 }
             }
-            return null;
+            if (compatible != null) {
+                clients.remove(compatible);
+                idleSince.remove(compatible);
+            }
+            return compatible;
         }
     }
 
@@ -99,6 +142,38 @@ public class WorkerDaemonClientsManager implements Stoppable {
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             idleClients.add(client);
+            idleSince.put(client, timeProvider.getCurrentTime());
+            stopExpiredClients();
+            stopSurplusClients(client);
+        }
+    }
+
+    private void stopExpiredClients() {
+        long now = timeProvider.getCurrentTime();
+        List<WorkerDaemonClient> expiredClients = new ArrayList<WorkerDaemonClient>();
+        for (WorkerDaemonClient idleClient : idleClients) {
+            Long since = idleSince.get(idleClient);
+            if (since != null && now - since > maxIdleTimeMillis) {
+                expiredClients.add(idleClient);
+            }
+        }
+        if (!expiredClients.isEmpty()) {
+            LOGGER.debug("Worker daemon(s) idle for longer than {}ms.", maxIdleTimeMillis);
+            stopWorkers(expiredClients);
+        }
+    }
+
+    private void stopSurplusClients(WorkerDaemonClient releasedClient) {
+        List<WorkerDaemonClient> compatibleClients = new ArrayList<WorkerDaemonClient>();
+        for (WorkerDaemonClient idleClient : idleClients) {
+            if (idleClient == releasedClient || idleClient.isCompatibleWith(releasedClient.getForkOptions())) {
+                compatibleClients.add(idleClient);
+            }
+        }
+        int surplus = compatibleClients.size() - maxIdleClientsPerForkOptions;
+        if (surplus > 0) {
+            // Stop the least recently used ones
+            stopWorkers(compatibleClients.subList(0, surplus));
         }
     }
 
@@ -108,6 +183,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
             stopWorkers(allClients);
             allClients.clear();
             idleClients.clear();
+            idleSince.clear();
             listenerManager.removeListener(stopSessionScopeWorkers);
             loggingManager.removeOutputEventListener(logLevelChangeEventListener);
         }
@@ -140,6 +216,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
             LOGGER.info("Stopped {} worker daemon(s).", clientsToStop.size());
             idleClients.removeAll(clientsToStop);
             allClients.removeAll(clientsToStop);
+            idleSince.keySet().removeAll(clientsToStop);
         }
     }
 
@@ -157,6 +234,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
                     }
                 });
                 stopWorkers(sessionScopedClients);
+                stopExpiredClients();
             }
         }
     }
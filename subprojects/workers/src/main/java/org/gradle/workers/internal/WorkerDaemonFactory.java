@@ -55,7 +55,7 @@ public class WorkerDaemonFactory implements WorkerFactory, Stoppable {
             public DefaultWorkResult execute(final T spec, WorkerLease parentWorkerWorkerLease, final BuildOperationState parentBuildOperation) {
                 WorkerLeaseRegistry.WorkerLeaseCompletion workerLease = parentWorkerWorkerLease.startChild();
                 try {
-                    WorkerDaemonClient<T> client = clientsManager.reserveIdleClient(forkOptions);
+                    WorkerDaemonClient<T> client = clientsManager.reserveIdleClient(forkOptions, WorkerDaemonClient.implementationOf(spec));
                     if (client == null) {
                         client = clientsManager.reserveNewClient(workerImplementationClass, forkOptions);
                     }
@@ -26,6 +26,7 @@ import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
+import org.gradle.internal.time.TimeProvider;
 import org.gradle.internal.work.AsyncWorkTracker;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.internal.health.memory.MemoryManager;
@@ -34,6 +35,8 @@ import org.gradle.process.internal.worker.child.DefaultWorkerDirectoryProvider;
 import org.gradle.process.internal.worker.child.WorkerDirectoryProvider;
 import org.gradle.workers.WorkerExecutor;
 
+import java.util.concurrent.TimeUnit;
+
 public class WorkersServices extends AbstractPluginServiceRegistry {
     @Override
     public void registerGradleUserHomeServices(ServiceRegistration registration) {
@@ -69,10 +72,15 @@ public class WorkersServices extends AbstractPluginServiceRegistry {
     }
 
     private static class GradleUserHomeServices {
+        private static final long DEFAULT_MAX_IDLE_TIME_MILLIS = TimeUnit.HOURS.toMillis(3);
+
         WorkerDaemonClientsManager createWorkerDaemonClientsManager(WorkerProcessFactory workerFactory,
                                                                     LoggingManagerInternal loggingManager,
-                                                                    ListenerManager listenerManager) {
-            return new WorkerDaemonClientsManager(new WorkerDaemonStarter(workerFactory, loggingManager), listenerManager, loggingManager);
+                                                                    ListenerManager listenerManager,
+                                                                    TimeProvider timeProvider) {
+            int maxIdleClientsPerForkOptions = Integer.getInteger(WorkerDaemonClientsManager.MAX_IDLE_DAEMONS_PROPERTY, Runtime.getRuntime().availableProcessors());
+            long maxIdleTimeMillis = Long.getLong(WorkerDaemonClientsManager.MAX_IDLE_TIME_PROPERTY, DEFAULT_MAX_IDLE_TIME_MILLIS);
+            return new WorkerDaemonClientsManager(new WorkerDaemonStarter(workerFactory, loggingManager), listenerManager, loggingManager, timeProvider, maxIdleClientsPerForkOptions, maxIdleTimeMillis);
         }
     }
 }
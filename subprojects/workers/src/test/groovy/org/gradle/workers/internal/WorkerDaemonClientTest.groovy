@@ -61,6 +61,18 @@ class WorkerDaemonClientTest extends Specification {
         client.uses == 5
     }
 
+    def "remembers the implementations it has executed"() {
+        given:
+        client = client()
+
+        when:
+        client.execute(new SimpleActionExecutionSpec(TestRunnable, "action", new File("some-dir"), [] as Object[]), workerOperation, buildOperation)
+
+        then:
+        client.hasExecuted(TestRunnable.name)
+        !client.hasExecuted(Runnable.name)
+    }
+
     WorkerDaemonClient client() {
         return client(Mock(WorkerDaemonProcess))
     }
@@ -70,4 +82,10 @@ class WorkerDaemonClientTest extends Specification {
         def workerProcess = workerDaemonProcess.start()
         return new WorkerDaemonClient(daemonForkOptions, workerDaemonProcess, workerProcess, LogLevel.INFO)
     }
+
+    static class TestRunnable implements Runnable {
+        @Override
+        void run() {
+        }
+    }
 }
@@ -24,6 +24,7 @@ import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.logging.events.LogLevelChangeEvent
 import org.gradle.internal.logging.events.OutputEventListener
+import org.gradle.internal.time.TimeProvider
 import org.gradle.util.ConcurrentSpecification
 import spock.lang.Subject
 
@@ -36,8 +37,12 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def serverImpl = Stub(WorkerProtocol)
     def listenerManager = Stub(ListenerManager)
     def loggingManager = Stub(LoggingManagerInternal)
+    def currentTime = 0L
+    def timeProvider = Stub(TimeProvider) {
+        getCurrentTime() >> { currentTime }
+    }
 
-    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, timeProvider, Integer.MAX_VALUE, Long.MAX_VALUE)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -63,6 +68,80 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         input == [noMatch] //match removed from input
     }
 
+    def "prefers most recently used idle client"() {
+        def match1 = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def match2 = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def input = [match1, match2]
+
+        expect:
+        manager.reserveIdleClient(options, input) == match2
+        input == [match1]
+    }
+
+    def "prefers idle client that has executed the same implementation"() {
+        def warm = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            hasExecuted("Action") >> true
+        }
+        def cold = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def other = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        starter.startDaemon(serverImpl.class, options) >>> [warm, cold, other]
+
+        when:
+        3.times { manager.reserveNewClient(serverImpl.class, options) }
+        [warm, cold, other].each { manager.release(it) }
+
+        then:
+        manager.reserveIdleClient(options, "Action") == warm
+        manager.reserveIdleClient(options, "Action") == other
+    }
+
+    def "stops least recently used idle clients when there are more than allowed for the same fork options"() {
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, timeProvider, 2, Long.MAX_VALUE)
+        def otherOptions = Stub(DaemonForkOptions)
+        def client1 = clientWith(options)
+        def client2 = clientWith(options)
+        def client3 = clientWith(options)
+        def incompatible = clientWith(otherOptions)
+        starter.startDaemon(serverImpl.class, options) >>> [client1, client2, incompatible, client3]
+
+        when:
+        4.times { manager.reserveNewClient(serverImpl.class, options) }
+        [client1, client2, incompatible].each { manager.release(it) }
+
+        then:
+        0 * _.stop()
+
+        when:
+        manager.release(client3)
+
+        then:
+        1 * client1.stop()
+        0 * _.stop()
+    }
+
+    def "stops clients that have been idle for too long"() {
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, timeProvider, Integer.MAX_VALUE, 1000)
+        def client1 = clientWith(options)
+        def client2 = clientWith(options)
+        starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
+
+        when:
+        2.times { manager.reserveNewClient(serverImpl.class, options) }
+        manager.release(client1)
+        currentTime = 600
+        manager.release(client2)
+        currentTime = 1200
+        def reserved = manager.reserveIdleClient(options)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+
+        and:
+        reserved == client2
+    }
+
     def "reserves new client"() {
         def newClient = Stub(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >> newClient
@@ -91,7 +170,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "can stop session-scoped clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, timeProvider, Integer.MAX_VALUE, Long.MAX_VALUE)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -110,7 +189,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "Stopping session-scoped clients does not stop other clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, timeProvider, Integer.MAX_VALUE, Long.MAX_VALUE)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
@@ -158,7 +237,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         loggingManager.getLevel() >> LogLevel.INFO
 
         when:
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, timeProvider, Integer.MAX_VALUE, Long.MAX_VALUE)
 
         then:
         listener != null
@@ -230,4 +309,13 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
         1 * client3.stop()
     }
+
+    def clientWith(DaemonForkOptions forkOptions) {
+        return Mock(WorkerDaemonClient) {
+            _ * getForkOptions() >> forkOptions
+            _ * isCompatibleWith(forkOptions) >> true
+            _ * isCompatibleWith(_) >> false
+            _ * getLogLevel() >> LogLevel.DEBUG
+        }
+    }
 }
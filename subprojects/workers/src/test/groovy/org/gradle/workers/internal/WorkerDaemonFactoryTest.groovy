@@ -63,7 +63,7 @@ class WorkerDaemonFactoryTest extends Specification {
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> null
+        1 * clientsManager.reserveIdleClient(options, _) >> null
 
         then:
         1 * clientsManager.reserveNewClient(workerProtocolImplementation.class, options) >> client
@@ -82,7 +82,7 @@ class WorkerDaemonFactoryTest extends Specification {
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, _) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
@@ -98,7 +98,7 @@ class WorkerDaemonFactoryTest extends Specification {
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, _) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
@@ -131,7 +131,7 @@ class WorkerDaemonFactoryTest extends Specification {
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, _) >> client
         1 * buildOperationExecutor.call(_)
         1 * completion.leaseFinish()
     }
@@ -142,7 +142,7 @@ class WorkerDaemonFactoryTest extends Specification {
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, _) >> client
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
         1 * client.execute(spec) >> { throw new RuntimeException("Boo!") }
 